@@ -53,6 +53,9 @@ CREATE TABLE user_learning_vocab (
     ease_factor REAL DEFAULT 2.5 CHECK (ease_factor >= 1.3),
     repetition_count BIGINT DEFAULT 0 CHECK (repetition_count >= 0),
     success_rate REAL DEFAULT 0 CHECK (success_rate >= 0 AND success_rate <= 1),
+    stability REAL,
+    difficulty REAL,
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMPTZ DEFAULT NOW(),
     updated_at TIMESTAMPTZ DEFAULT NOW(),
     PRIMARY KEY (user_id, vocab_id)
@@ -65,9 +68,22 @@ CREATE TABLE questions (
     image_url TEXT,
     audio_url TEXT,
     correct_answer_text TEXT, -- For fill_in_the_blank questions
+    -- Question bank key; NULL for questions owned by a single test
+    vocab_id UUID REFERENCES vocabulary(vocab_id) ON DELETE SET NULL,
+    test_type test_type_enum,
+    template VARCHAR(64),
     created_at TIMESTAMPTZ DEFAULT NOW(),
     updated_at TIMESTAMPTZ DEFAULT NOW(),
-    UNIQUE(test_id, question_text)
+    UNIQUE(test_id, question_text),
+    CONSTRAINT uk_questions_bank_key UNIQUE(vocab_id, test_type, template)
+);
+
+-- Tests reference shared bank questions through this join table
+CREATE TABLE test_questions (
+    test_id UUID REFERENCES tests(test_id) ON DELETE CASCADE,
+    question_id UUID REFERENCES questions(question_id) ON DELETE CASCADE,
+    position INT NOT NULL,
+    PRIMARY KEY (test_id, question_id)
 );
 
 CREATE TABLE answer_options (
@@ -87,6 +103,7 @@ CREATE TABLE test_result (
     score REAL CHECK (score >= 0 AND score <= 100),
     total_questions INT CHECK (total_questions > 0),
     correct_answers INT CHECK (correct_answers >= 0),
+    seed BIGINT, -- Set for virtual tests: questions are regenerated from it, not stored
     taken_at TIMESTAMPTZ DEFAULT NOW(),
     created_at TIMESTAMPTZ DEFAULT NOW(),
     updated_at TIMESTAMPTZ DEFAULT NOW(),
@@ -104,4 +121,63 @@ CREATE TABLE user_answer (
     updated_at TIMESTAMPTZ DEFAULT NOW()
 );
 
-ALTER TABLE users ADD COLUMN banStatus BOOLEAN DEFAULT FALSE, ADD COLUMN banUtil TIMESTAMP NULL, ADD COLUMN reason VARCHAR(255) DEFAULT NULL;
\ No newline at end of file
+-- Answers of virtual tests, keyed by question position in the instance generated from test_result.seed
+CREATE TABLE virtual_test_answers (
+    answer_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    result_id UUID NOT NULL REFERENCES test_result(result_id) ON DELETE CASCADE,
+    position INT NOT NULL,
+    vocab_id UUID NOT NULL,
+    selected_index INT,
+    text_answer TEXT,
+    is_correct BOOLEAN NOT NULL,
+    created_at TIMESTAMPTZ DEFAULT NOW(),
+    UNIQUE(result_id, position)
+);
+
+ALTER TABLE users ADD COLUMN banStatus BOOLEAN DEFAULT FALSE, ADD COLUMN banUtil TIMESTAMP NULL, ADD COLUMN reason VARCHAR(255) DEFAULT NULL;
+
+CREATE TABLE refresh_token (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    token_hash VARCHAR(64) NOT NULL,
+    expiry_date TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ DEFAULT NOW()
+);
+
+CREATE UNIQUE INDEX idx_refresh_token_token_hash ON refresh_token(token_hash);
+CREATE INDEX idx_refresh_token_user_id ON refresh_token(user_id);
+CREATE INDEX idx_refresh_token_expiry_date ON refresh_token(expiry_date);
+
+-- Claims-only tokens issued before these instants are rejected (role change, account deletion)
+ALTER TABLE users ADD COLUMN tokens_valid_after TIMESTAMPTZ;
+CREATE INDEX idx_users_tokens_valid_after ON users(tokens_valid_after) WHERE tokens_valid_after IS NOT NULL;
+
+CREATE TABLE deleted_users (
+    user_id UUID PRIMARY KEY,
+    deleted_at TIMESTAMPTZ NOT NULL
+);
+
+-- Append-only log of review outcomes; rows with projected_at NULL are waiting for the projector
+CREATE SEQUENCE review_event_seq INCREMENT BY 50;
+
+CREATE TABLE review_event (
+    event_id BIGINT PRIMARY KEY DEFAULT nextval('review_event_seq'),
+    user_id UUID NOT NULL,
+    vocab_id UUID NOT NULL,
+    is_correct BOOLEAN NOT NULL,
+    reviewed_at TIMESTAMPTZ NOT NULL,
+    recorded_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    projected_at TIMESTAMPTZ,
+    -- Set by the write-behind journal so a replayed segment does not insert the same review twice
+    event_key UUID UNIQUE
+);
+
+CREATE INDEX idx_review_event_pending ON review_event(event_id) WHERE projected_at IS NULL;
+CREATE INDEX idx_review_event_user_vocab ON review_event(user_id, vocab_id, reviewed_at);
+
+-- Due-review lookups with keyset pagination, and low-success-rate lookups
+CREATE INDEX idx_user_learning_vocab_user_next_review ON user_learning_vocab(user_id, next_review_at, vocab_id);
+CREATE INDEX idx_user_learning_vocab_user_success_rate ON user_learning_vocab(user_id, success_rate);
+
+-- Tests linking a bank question, for deletes of that question
+CREATE INDEX idx_test_questions_question ON test_questions(question_id);
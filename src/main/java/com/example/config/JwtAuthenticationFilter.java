@@ -4,13 +4,19 @@ import java.io.IOException;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.example.security.JwtService;
+import com.example.security.AccessTokenDenyList;
+import com.example.security.BanIndex;
 import com.example.security.JwtUtils;
+import com.example.security.JwtVerifier;
+import com.example.security.TokenRevocationSet;
+import com.example.security.UserDetailsCache;
+import com.example.security.VerifiedToken;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,13 +26,27 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private JwtVerifier jwtVerifier;
+
+    private UserDetailsCache userDetailsCache;
+
     private JwtUtils jwtUtils;
 
-    private JwtService jwtService;
+    private TokenRevocationSet revocationSet;
+
+    private AccessTokenDenyList denyList;
+
+    private BanIndex banIndex;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier, UserDetailsCache userDetailsCache,
+                                   JwtUtils jwtUtils, TokenRevocationSet revocationSet,
+                                   AccessTokenDenyList denyList, BanIndex banIndex) {
+        this.jwtVerifier = jwtVerifier;
+        this.userDetailsCache = userDetailsCache;
         this.jwtUtils = jwtUtils;
-        this.jwtService = jwtService;
+        this.revocationSet = revocationSet;
+        this.denyList = denyList;
+        this.banIndex = banIndex;
     }
 
     @Override
@@ -35,7 +55,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final VerifiedToken token;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -44,16 +64,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            username = jwtUtils.extractUsername(jwt);
+            token = jwtVerifier.verify(jwt);
         } catch (Exception e) {
             filterChain.doFilter(request, response);
             return;
         }
 
+        // Token đã đăng xuất hoặc người dùng đang bị khóa
+        if (denyList.isDenied(token.getTokenId()) || banIndex.isBanned(token.getUserId())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final String username = token.getUsername();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.jwtService.loadUserByUsername(username);
-            
-            if (jwtUtils.validateToken(jwt, userDetails)) {
+            UserDetails userDetails = resolveUserDetails(token);
+
+            if (userDetails != null && userDetails.isAccountNonLocked()
+                    && username.equals(userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                     userDetails,
                     null,
@@ -65,5 +93,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
 
+    private UserDetails resolveUserDetails(VerifiedToken token) {
+        if (jwtUtils.isStatelessClaimsEnabled() && token.hasIdentityClaims()) {
+            // Chế độ stateless: dựng Authentication chỉ từ claims, không truy cập DB
+            if (token.isBanned() || revocationSet.isRevoked(token.getUserId(), token.getIssuedAt())) {
+                return null;
+            }
+            return User.withUsername(token.getUsername())
+                    .password("")
+                    .authorities(token.getRole())
+                    .build();
+        }
+        return this.userDetailsCache.get(token.getUsername());
+    }
+}
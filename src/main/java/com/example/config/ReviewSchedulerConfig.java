@@ -0,0 +1,31 @@
+package com.example.config;
+
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.service.scheduling.FsrsReviewScheduler;
+import com.example.service.scheduling.ReviewScheduler;
+import com.example.service.scheduling.Sm2ReviewScheduler;
+
+@Configuration
+public class ReviewSchedulerConfig {
+
+    // Mỗi deployment chọn một thuật toán lặp lại ngắt quãng
+    @Bean
+    public ReviewScheduler reviewScheduler(
+            @Value("${learning.scheduler.algorithm:sm2}") String algorithm,
+            @Value("${learning.scheduler.fsrs.request-retention:0.9}") double requestRetention,
+            @Value("${learning.scheduler.fsrs.max-interval-days:36500}") double maxIntervalDays) {
+        switch (algorithm.trim().toLowerCase(Locale.ROOT)) {
+            case Sm2ReviewScheduler.NAME:
+                return new Sm2ReviewScheduler();
+            case FsrsReviewScheduler.NAME:
+                return new FsrsReviewScheduler(requestRetention, maxIntervalDays);
+            default:
+                throw new IllegalStateException("Unknown learning.scheduler.algorithm: " + algorithm);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.dto.ApiResponseDTO;
+import com.example.security.AccessTokenDenyList;
+import com.example.security.AuthRateLimiter;
+import com.example.security.BanIndex;
+import com.example.security.JwtVerifier;
+import com.example.security.PasswordHashingExecutor;
+import com.example.security.TokenRevocationSet;
+import com.example.security.UserDetailsCache;
+import com.example.service.DistractorIndex;
+import com.example.service.OptimisticLockRetry;
+import com.example.service.QuestionGenerationService;
+import com.example.service.ReviewEventProjector;
+import com.example.service.ReviewQueue;
+import com.example.service.ReviewWriteBehindBuffer;
+import com.example.service.StudySessionService;
+import com.example.service.TestGenerationJobService;
+import com.example.service.UsernameBloomFilter;
+import com.example.service.VirtualTestService;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+public class AdminMetricsController {
+
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenRevocationSet tokenRevocationSet;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private AccessTokenDenyList accessTokenDenyList;
+
+    @Autowired
+    private BanIndex banIndex;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @Autowired
+    private ReviewQueue reviewQueue;
+
+    @Autowired
+    private ReviewEventProjector reviewEventProjector;
+
+    @Autowired
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @Autowired
+    private ReviewWriteBehindBuffer reviewWriteBehindBuffer;
+
+    @Autowired
+    private StudySessionService studySessionService;
+
+    @Autowired
+    private DistractorIndex distractorIndex;
+
+    @Autowired
+    private QuestionGenerationService questionGenerationService;
+
+    @Autowired
+    private TestGenerationJobService testGenerationJobService;
+
+    @Autowired
+    private VirtualTestService virtualTestService;
+
+    // Tỷ lệ hit của cache token và độ trễ kiểm tra chữ ký
+    @GetMapping("/jwt")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> jwtVerification() {
+        return ResponseEntity.ok(ApiResponseDTO.success(jwtVerifier.stats()));
+    }
+
+    @GetMapping("/user-details")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> userDetailsCache() {
+        return ResponseEntity.ok(ApiResponseDTO.success(userDetailsCache.stats()));
+    }
+
+    @GetMapping("/revocations")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> revocations() {
+        return ResponseEntity.ok(ApiResponseDTO.success(tokenRevocationSet.stats()));
+    }
+
+    // Độ sâu hàng đợi và thời gian BCrypt trung bình của pool hashing
+    @GetMapping("/password-hashing")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> passwordHashing() {
+        return ResponseEntity.ok(ApiResponseDTO.success(passwordHashingExecutor.stats()));
+    }
+
+    @GetMapping("/auth-rate-limit")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> authRateLimit() {
+        return ResponseEntity.ok(ApiResponseDTO.success(authRateLimiter.stats()));
+    }
+
+    @GetMapping("/deny-list")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> denyList() {
+        return ResponseEntity.ok(ApiResponseDTO.success(accessTokenDenyList.stats()));
+    }
+
+    @GetMapping("/bans")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> bans() {
+        return ResponseEntity.ok(ApiResponseDTO.success(banIndex.stats()));
+    }
+
+    @GetMapping("/username-bloom")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> usernameBloom() {
+        return ResponseEntity.ok(ApiResponseDTO.success(usernameBloomFilter.stats()));
+    }
+
+    @GetMapping("/review-queue")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> reviewQueue() {
+        return ResponseEntity.ok(ApiResponseDTO.success(reviewQueue.stats()));
+    }
+
+    // Số sự kiện ôn tập chưa được project và độ trễ của sự kiện cũ nhất
+    @GetMapping("/review-projection")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> reviewProjection() {
+        return ResponseEntity.ok(ApiResponseDTO.success(reviewEventProjector.stats()));
+    }
+
+    // Số lần xung đột @Version và số lần thử lại khi ôn tập đồng thời
+    @GetMapping("/optimistic-locking")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> optimisticLocking() {
+        return ResponseEntity.ok(ApiResponseDTO.success(optimisticLockRetry.stats()));
+    }
+
+    // Số thẻ đang chờ ghi xuống DB ở chế độ write-behind và kích thước nhật ký
+    @GetMapping("/review-write-behind")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> reviewWriteBehind() {
+        return ResponseEntity.ok(ApiResponseDTO.success(reviewWriteBehindBuffer.stats()));
+    }
+
+    // Số phiên học đang mở và số kết quả ôn tập còn giữ trong phiên
+    @GetMapping("/study-sessions")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> studySessions() {
+        return ResponseEntity.ok(ApiResponseDTO.success(studySessionService.stats()));
+    }
+
+    // Kích thước chỉ mục đáp án nhiễu và số lần phải mở rộng sang phân vùng rộng hơn
+    @GetMapping("/distractors")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> distractors() {
+        return ResponseEntity.ok(ApiResponseDTO.success(distractorIndex.stats()));
+    }
+
+    // Số câu hỏi lấy lại từ ngân hàng so với số câu phải tạo mới
+    @GetMapping("/question-bank")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> questionBank() {
+        return ResponseEntity.ok(ApiResponseDTO.success(questionGenerationService.stats()));
+    }
+
+    // Số job sinh bài test đang chạy, đang chờ và số job bị từ chối vì quá tải
+    @GetMapping("/test-generation")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> testGeneration() {
+        return ResponseEntity.ok(ApiResponseDTO.success(testGenerationJobService.stats()));
+    }
+
+    // Số bài test ảo đã sinh và số bài nộp bị từ chối vì kho từ đã đổi
+    @GetMapping("/virtual-tests")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> virtualTests() {
+        return ResponseEntity.ok(ApiResponseDTO.success(virtualTestService.stats()));
+    }
+}
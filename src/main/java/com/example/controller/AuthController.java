@@ -4,9 +4,10 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -20,11 +21,20 @@ import com.example.dto.LoginResponseDTO;
 import com.example.dto.RegisterRequestDTO;
 import com.example.entity.RefreshToken;
 import com.example.entity.User;
+import com.example.exception.RateLimitExceededException;
+import com.example.exception.ServiceOverloadedException;
 import com.example.repository.UserRepository;
+import com.example.security.AccessTokenDenyList;
+import com.example.security.AuthRateLimiter;
 import com.example.security.JwtService;
 import com.example.security.JwtUtils;
+import com.example.security.JwtVerifier;
+import com.example.security.PasswordHashingExecutor;
+import com.example.security.VerifiedToken;
 import com.example.service.RefreshTokenService;
+import com.example.service.UsernameBloomFilter;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -36,7 +46,7 @@ public class AuthController {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
     private JwtService jwtService;
@@ -47,10 +57,26 @@ public class AuthController {
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Autowired
+    private AccessTokenDenyList accessTokenDenyList;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
     @PostMapping("/login")
-    public ResponseEntity<ApiResponseDTO<LoginResponseDTO>> login(@Valid @RequestBody LoginRequestDTO loginRequest) {
+    public ResponseEntity<ApiResponseDTO<LoginResponseDTO>> login(@Valid @RequestBody LoginRequestDTO loginRequest,
+            HttpServletRequest request) {
         try {
+            authRateLimiter.check(request, loginRequest.getUsername());
+
             if (!jwtService.authenticateUser(loginRequest.getUsername(), loginRequest.getPassword())) {
+                authRateLimiter.recordFailure(loginRequest.getUsername());
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(new ApiResponseDTO<>(false, "Invalid username or password", null));
             }
@@ -58,7 +84,7 @@ public class AuthController {
             User user = userRepository.findByUsername(loginRequest.getUsername())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            String accessToken = jwtUtils.generateToken(user.getUsername());
+            String accessToken = jwtUtils.generateToken(user);
             RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getUserId());
 
             LoginResponseDTO response = new LoginResponseDTO(
@@ -72,6 +98,10 @@ public class AuthController {
 
             return ResponseEntity.ok(new ApiResponseDTO<>(true, "Login successful", response));
 
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e);
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponseDTO<>(false, "Login failed: " + e.getMessage(), null));
@@ -79,22 +109,31 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<ApiResponseDTO<LoginResponseDTO>> register(@Valid @RequestBody RegisterRequestDTO registerRequest) {
+    public ResponseEntity<ApiResponseDTO<LoginResponseDTO>> register(@Valid @RequestBody RegisterRequestDTO registerRequest,
+            HttpServletRequest request) {
         try {
-            if (userRepository.findByUsername(registerRequest.getUsername()).isPresent()) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                        .body(new ApiResponseDTO<>(false, "Username already exists", null));
+            authRateLimiter.check(request, null);
+
+            if (usernameBloomFilter.isTaken(registerRequest.getUsername())) {
+                return usernameConflict();
             }
 
             User newUser = new User();
             newUser.setUsername(registerRequest.getUsername());
-            newUser.setPasswordHash(passwordEncoder.encode(registerRequest.getPassword()));
+            newUser.setPasswordHash(passwordHashingExecutor.encode(registerRequest.getPassword()));
             newUser.setName(registerRequest.getName());
             newUser.setRole(User.UserRole.user);
 
-            User savedUser = userRepository.save(newUser);
+            // Unique constraint là nguồn sự thật khi hai request đăng ký cùng tên song song
+            User savedUser;
+            try {
+                savedUser = userRepository.save(newUser);
+            } catch (DataIntegrityViolationException e) {
+                return usernameConflict();
+            }
+            usernameBloomFilter.put(savedUser.getUsername());
 
-            String accessToken = jwtUtils.generateToken(savedUser.getUsername());
+            String accessToken = jwtUtils.generateToken(savedUser);
             RefreshToken refreshToken = refreshTokenService.createRefreshToken(savedUser.getUserId());
 
             LoginResponseDTO response = new LoginResponseDTO(
@@ -109,6 +148,10 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(new ApiResponseDTO<>(true, "Registration successful", response));
 
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e);
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponseDTO<>(false, "Registration failed: " + e.getMessage(), null));
@@ -141,8 +184,11 @@ public class AuthController {
     }
 
     @PostMapping("/refresh-token")
-    public ResponseEntity<ApiResponseDTO<Map<String, String>>> refreshToken(@RequestBody Map<String, String> request) {
+    public ResponseEntity<ApiResponseDTO<Map<String, String>>> refreshToken(@RequestBody Map<String, String> request,
+            HttpServletRequest httpRequest) {
         try {
+            authRateLimiter.check(httpRequest, null);
+
             String refreshTokenStr = request.get("refreshToken");
             if (refreshTokenStr == null) {
                 return ResponseEntity.badRequest()
@@ -153,11 +199,13 @@ public class AuthController {
                     .map(refreshTokenService::verifyExpiration)
                     .orElseThrow(() -> new RuntimeException("Invalid or expired refresh token"));
 
-            String newAccessToken = jwtUtils.generateToken(refreshToken.getUser().getUsername());
+            String newAccessToken = jwtUtils.generateToken(refreshToken.getUser());
 
             return ResponseEntity.ok(new ApiResponseDTO<>(true, "Token refreshed",
                     Map.of("accessToken", newAccessToken)));
 
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponseDTO<>(false, "Refresh token failed: " + e.getMessage(), null));
@@ -165,15 +213,90 @@ public class AuthController {
     }
 
 
+    // Chỉ đăng xuất phiên hiện tại; các thiết bị khác giữ refresh token của mình
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponseDTO<String>> logoutUser(@RequestBody Map<String, String> request) {
+    public ResponseEntity<ApiResponseDTO<String>> logoutUser(@RequestBody Map<String, String> request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
         try {
-            UUID userId = UUID.fromString(request.get("userId"));
-            refreshTokenService.deleteByUserId(userId);
+            String refreshTokenStr = request.get("refreshToken");
+            if (refreshTokenStr == null) {
+                return ResponseEntity.badRequest()
+                        .body(new ApiResponseDTO<>(false, "Refresh token is required", null));
+            }
+            refreshTokenService.deleteByToken(refreshTokenStr);
+            denyAccessToken(authHeader);
             return ResponseEntity.ok(new ApiResponseDTO<>(true, "Logout successful", null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponseDTO<>(false, "Logout failed: " + e.getMessage(), null));
         }
     }
+
+    // Đăng xuất khỏi mọi thiết bị: xóa toàn bộ refresh token của user.
+    // /api/auth/** không qua xác thực nên user lấy từ access token, không tin userId trong body
+    @PostMapping("/logout-all")
+    public ResponseEntity<ApiResponseDTO<String>> logoutAllSessions(
+            @RequestBody(required = false) Map<String, String> request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        VerifiedToken token = authHeader != null && authHeader.startsWith("Bearer ")
+                ? jwtVerifier.verifyOrNull(authHeader.substring(7)) : null;
+        if (token == null || accessTokenDenyList.isDenied(token.getTokenId())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponseDTO<>(false, "A valid access token is required", null));
+        }
+        try {
+            UUID userId = token.getUserId();
+            if (userId == null) {
+                // Token cũ không có claim uid
+                userId = userRepository.findByUsername(token.getUsername())
+                        .map(User::getUserId)
+                        .orElse(null);
+                if (userId == null) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                            .body(new ApiResponseDTO<>(false, "A valid access token is required", null));
+                }
+            }
+            String requestedUserId = request != null ? request.get("userId") : null;
+            if (requestedUserId != null && !UUID.fromString(requestedUserId).equals(userId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new ApiResponseDTO<>(false, "Cannot log out another user's sessions", null));
+            }
+            refreshTokenService.deleteByUserId(userId);
+            accessTokenDenyList.deny(token);
+            return ResponseEntity.ok(new ApiResponseDTO<>(true, "Logged out from all sessions", null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponseDTO<>(false, "Invalid user ID format", null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponseDTO<>(false, "Logout failed: " + e.getMessage(), null));
+        }
+    }
+
+    // Vô hiệu hóa luôn access token hiện tại thay vì chờ nó hết hạn
+    private void denyAccessToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            VerifiedToken token = jwtVerifier.verifyOrNull(authHeader.substring(7));
+            if (token != null) {
+                accessTokenDenyList.deny(token);
+            }
+        }
+    }
+
+    private <T> ResponseEntity<ApiResponseDTO<T>> overloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ApiResponseDTO<>(false, e.getMessage(), null));
+    }
+
+    private <T> ResponseEntity<ApiResponseDTO<T>> tooManyRequests(RateLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ApiResponseDTO<>(false, e.getMessage(), null));
+    }
+
+    private <T> ResponseEntity<ApiResponseDTO<T>> usernameConflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ApiResponseDTO<>(false, "Username already exists", null));
+    }
 }
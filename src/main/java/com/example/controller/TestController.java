@@ -23,18 +23,30 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.entity.Test;
 import com.example.entity.Test.TestType;
 import com.example.dto.TestDTO;
+import com.example.dto.TestGenerationJobDTO;
+import com.example.dto.TestGenerationRequestDTO;
+import com.example.dto.TestResultDTO;
+import com.example.dto.VirtualTestDTO;
+import com.example.dto.VirtualTestSubmissionDTO;
 import com.example.entity.Topic;
+import com.example.service.TestGenerationJobService;
 import com.example.service.TestService;
+import com.example.service.VirtualTestService;
 
 @RestController
 @RequestMapping("/api/tests")
 public class TestController {
 
     private final TestService testService;
+    private final TestGenerationJobService testGenerationJobService;
+    private final VirtualTestService virtualTestService;
 
     @Autowired
-    public TestController(TestService testService) {
+    public TestController(TestService testService, TestGenerationJobService testGenerationJobService,
+            VirtualTestService virtualTestService) {
         this.testService = testService;
+        this.testGenerationJobService = testGenerationJobService;
+        this.virtualTestService = virtualTestService;
     }
 
     // Tạo bài test mới
@@ -62,6 +74,39 @@ public class TestController {
         }
     }
 
+    // Tạo bài test và sinh câu hỏi ở chế độ nền, trả về job id ngay
+    @PostMapping("/generation-jobs")
+    public ResponseEntity<TestGenerationJobDTO> submitGenerationJob(@RequestBody TestGenerationRequestDTO request) {
+        TestGenerationJobDTO job = testGenerationJobService.submit(request);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    // Tiến độ của job sinh bài test
+    @GetMapping("/generation-jobs/{jobId}")
+    public ResponseEntity<TestGenerationJobDTO> getGenerationJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(testGenerationJobService.status(jobId));
+    }
+
+    // Hủy job sinh bài test; những gì đã ghi sẽ được rollback
+    @DeleteMapping("/generation-jobs/{jobId}")
+    public ResponseEntity<TestGenerationJobDTO> cancelGenerationJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(testGenerationJobService.cancel(jobId));
+    }
+
+    // Sinh bài test ảo từ seed (không lưu câu hỏi); không gửi seed thì server chọn
+    @GetMapping("/{id}/virtual")
+    public ResponseEntity<VirtualTestDTO> getVirtualTest(@PathVariable UUID id,
+            @RequestParam(required = false) Long seed) {
+        return ResponseEntity.ok(virtualTestService.createInstance(id, seed));
+    }
+
+    // Nộp bài test ảo: chấm bằng cách sinh lại bài từ seed, chỉ lưu seed và câu trả lời
+    @PostMapping("/{id}/virtual/submissions")
+    public ResponseEntity<TestResultDTO> submitVirtualTest(@PathVariable UUID id,
+            @RequestBody VirtualTestSubmissionDTO submission) {
+        return new ResponseEntity<>(virtualTestService.submit(id, submission), HttpStatus.CREATED);
+    }
+
     // Lấy bài test theo ID
     @GetMapping("/{id}")
     public ResponseEntity<Test> getTestById(@PathVariable UUID id) {
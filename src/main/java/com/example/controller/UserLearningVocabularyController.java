@@ -21,8 +21,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.dto.CursorPageDTO;
+import com.example.dto.ReviewOutcomeDTO;
+import com.example.dto.ReviewResultDTO;
+import com.example.dto.StudyCardDTO;
+import com.example.dto.StudySessionDTO;
+import com.example.dto.TopicEnrollmentDTO;
 import com.example.dto.UserLearningVocabDTO;
+import com.example.dto.VocabularyDTO;
 import com.example.entity.UserLearningVocab;
+import com.example.entity.Vocabulary;
+import com.example.service.StudySessionService;
 import com.example.service.UserLearningVocabService;
 
 @RestController
@@ -30,10 +39,13 @@ import com.example.service.UserLearningVocabService;
 public class UserLearningVocabularyController {
 
     private final UserLearningVocabService userLearningVocabService;
+    private final StudySessionService studySessionService;
 
     @Autowired
-    public UserLearningVocabularyController(UserLearningVocabService userLearningVocabService) {
+    public UserLearningVocabularyController(UserLearningVocabService userLearningVocabService,
+            StudySessionService studySessionService) {
         this.userLearningVocabService = userLearningVocabService;
+        this.studySessionService = studySessionService;
     }
 
     /**
@@ -48,6 +60,19 @@ public class UserLearningVocabularyController {
         return new ResponseEntity<>(convertToDTO(userLearningVocab), HttpStatus.CREATED);
     }
 
+    /**
+     * Thêm toàn bộ từ vựng của một chủ đề vào danh sách học của người dùng
+     */
+    @PostMapping("/{userId}/topics/{topicId}")
+    public ResponseEntity<TopicEnrollmentDTO> enrollTopic(
+            @PathVariable("userId") UUID userId,
+            @PathVariable("topicId") UUID topicId) {
+        
+        TopicEnrollmentDTO result = userLearningVocabService.enrollTopic(userId, topicId);
+        HttpStatus status = result.getEnrolled() > 0 ? HttpStatus.CREATED : HttpStatus.OK;
+        return new ResponseEntity<>(result, status);
+    }
+
     /**
      * Lấy tất cả từ vựng đang học của người dùng
      */
@@ -86,13 +111,14 @@ public class UserLearningVocabularyController {
     }
 
     /**
-     * Lấy các từ vựng cần ôn tập
+     * Lấy các từ vựng cần ôn tập, đến hạn sớm nhất trước
      */
     @GetMapping("/{userId}/review")
     public ResponseEntity<List<UserLearningVocabDTO>> getVocabsToReview(
-            @PathVariable("userId") UUID userId) {
+            @PathVariable("userId") UUID userId,
+            @RequestParam(defaultValue = "20") int limit) {
         
-        List<UserLearningVocab> userLearningVocabs = userLearningVocabService.getVocabsToReview(userId);
+        List<UserLearningVocab> userLearningVocabs = userLearningVocabService.getVocabsToReview(userId, limit);
         List<UserLearningVocabDTO> dtos = userLearningVocabs.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -100,6 +126,23 @@ public class UserLearningVocabularyController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * Lấy các từ vựng cần ôn tập theo trang (keyset); truyền nextCursor của trang trước vào cursor
+     */
+    @GetMapping("/{userId}/review/page")
+    public ResponseEntity<CursorPageDTO<UserLearningVocabDTO>> getVocabsToReviewPage(
+            @PathVariable("userId") UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        CursorPageDTO<UserLearningVocab> page = userLearningVocabService.getVocabsToReviewPage(userId, cursor, size);
+        List<UserLearningVocabDTO> dtos = page.getItems().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        
+        return ResponseEntity.ok(new CursorPageDTO<>(dtos, page.getNextCursor()));
+    }
+
     /**
      * Cập nhật thông tin học từ vựng sau khi ôn tập
      */
@@ -119,6 +162,61 @@ public class UserLearningVocabularyController {
         return ResponseEntity.ok(convertToDTO(updated));
     }
 
+    /**
+     * Cập nhật kết quả ôn tập cho nhiều từ vựng trong một lần gọi
+     */
+    @PostMapping("/{userId}/reviews")
+    public ResponseEntity<List<ReviewResultDTO>> updateAfterReviews(
+            @PathVariable("userId") UUID userId,
+            @RequestBody List<ReviewOutcomeDTO> outcomes) {
+        
+        List<ReviewResultDTO> results = userLearningVocabService.updateAfterReviews(userId, outcomes).stream()
+                .map(result -> result.getEntry() != null
+                        ? ReviewResultDTO.updated(result.getVocabId(), convertToDTO(result.getEntry()))
+                        : ReviewResultDTO.failed(result.getVocabId(), result.getStatus(), result.getMessage()))
+                .collect(Collectors.toList());
+        
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Mở phiên học: trả về size thẻ đến hạn đầu tiên kèm đầy đủ dữ liệu từ vựng
+     */
+    @PostMapping("/{userId}/sessions")
+    public ResponseEntity<StudySessionDTO> openStudySession(
+            @PathVariable("userId") UUID userId,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        StudySessionService.Step step = studySessionService.open(userId, size);
+        return new ResponseEntity<>(convertToDTO(step), HttpStatus.CREATED);
+    }
+
+    /**
+     * Gửi kết quả các thẻ vừa trả lời trong phiên và nhận luôn next thẻ tiếp theo
+     */
+    @PostMapping("/{userId}/sessions/{sessionId}/outcomes")
+    public ResponseEntity<StudySessionDTO> submitStudySessionOutcomes(
+            @PathVariable("userId") UUID userId,
+            @PathVariable("sessionId") UUID sessionId,
+            @RequestParam(defaultValue = "10") int next,
+            @RequestBody List<ReviewOutcomeDTO> outcomes) {
+        
+        StudySessionService.Step step = studySessionService.submit(userId, sessionId, outcomes, next);
+        return ResponseEntity.ok(convertToDTO(step));
+    }
+
+    /**
+     * Kết thúc phiên học, ghi các kết quả còn lại xuống DB
+     */
+    @DeleteMapping("/{userId}/sessions/{sessionId}")
+    public ResponseEntity<StudySessionDTO> closeStudySession(
+            @PathVariable("userId") UUID userId,
+            @PathVariable("sessionId") UUID sessionId) {
+        
+        StudySessionService.Step step = studySessionService.close(userId, sessionId);
+        return ResponseEntity.ok(convertToDTO(step));
+    }
+
     /**
      * Xóa từ vựng khỏi danh sách học của người dùng
      */
@@ -183,4 +281,39 @@ public class UserLearningVocabularyController {
                 userLearningVocab.getSuccessRate()
         );
     }
+
+    private StudySessionDTO convertToDTO(StudySessionService.Step step) {
+        List<StudyCardDTO> cards = step.getCards().stream()
+                .map(this::convertToCardDTO)
+                .collect(Collectors.toList());
+        List<ReviewResultDTO> rejected = step.getRejected().stream()
+                .map(result -> ReviewResultDTO.failed(result.getVocabId(), result.getStatus(), result.getMessage()))
+                .collect(Collectors.toList());
+        return new StudySessionDTO(step.getSessionId().toString(), cards, step.getSubmitted(),
+                step.getPersisted(), step.getPending(), rejected, step.isClosed());
+    }
+
+    private StudyCardDTO convertToCardDTO(UserLearningVocab userLearningVocab) {
+        Vocabulary vocabulary = userLearningVocab.getVocabulary();
+        VocabularyDTO vocabularyDTO = new VocabularyDTO(
+                vocabulary.getVocabId().toString(),
+                vocabulary.getWord(),
+                vocabulary.getMeaning(),
+                vocabulary.getWordType(),
+                vocabulary.getTopic() != null ? vocabulary.getTopic().getTopicId().toString() : null,
+                vocabulary.getTopic() != null ? vocabulary.getTopic().getName() : "",
+                vocabulary.getExampleSentence(),
+                vocabulary.getAudioUrl(),
+                vocabulary.getLevel()
+        );
+        return new StudyCardDTO(
+                vocabulary.getVocabId().toString(),
+                userLearningVocab.getLastReviewAt(),
+                userLearningVocab.getNextReviewAt(),
+                userLearningVocab.getEaseFactor(),
+                userLearningVocab.getRepetitionCount(),
+                userLearningVocab.getSuccessRate(),
+                vocabularyDTO
+        );
+    }
 }
@@ -0,0 +1,50 @@
+package com.example.dto;
+
+import java.util.List;
+
+/**
+ * Một trang kết quả phân trang keyset. nextCursor = null nghĩa là đã hết dữ liệu.
+ */
+public class CursorPageDTO<T> {
+    
+    private List<T> items;
+    
+    private String nextCursor;
+    
+    private boolean hasMore;
+    
+    // Constructors
+    public CursorPageDTO() {
+    }
+    
+    public CursorPageDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
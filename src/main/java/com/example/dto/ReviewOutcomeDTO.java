@@ -0,0 +1,50 @@
+package com.example.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Kết quả ôn tập một từ vựng, gửi theo lô từ client
+ */
+public class ReviewOutcomeDTO {
+    
+    private String vocabId;
+    
+    private Boolean isCorrect;
+    
+    private OffsetDateTime reviewedAt;
+    
+    // Constructors
+    public ReviewOutcomeDTO() {
+    }
+    
+    public ReviewOutcomeDTO(String vocabId, Boolean isCorrect, OffsetDateTime reviewedAt) {
+        this.vocabId = vocabId;
+        this.isCorrect = isCorrect;
+        this.reviewedAt = reviewedAt;
+    }
+    
+    // Getters and Setters
+    public String getVocabId() {
+        return vocabId;
+    }
+    
+    public void setVocabId(String vocabId) {
+        this.vocabId = vocabId;
+    }
+    
+    public Boolean getIsCorrect() {
+        return isCorrect;
+    }
+    
+    public void setIsCorrect(Boolean isCorrect) {
+        this.isCorrect = isCorrect;
+    }
+    
+    public OffsetDateTime getReviewedAt() {
+        return reviewedAt;
+    }
+    
+    public void setReviewedAt(OffsetDateTime reviewedAt) {
+        this.reviewedAt = reviewedAt;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.dto;
+
+/**
+ * Kết quả xử lý từng phần tử trong một lô ôn tập
+ */
+public class ReviewResultDTO {
+    
+    public static final String UPDATED = "UPDATED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INVALID = "INVALID";
+    
+    private String vocabId;
+    
+    private String status;
+    
+    private String message;
+    
+    private UserLearningVocabDTO vocabulary;
+    
+    // Constructors
+    public ReviewResultDTO() {
+    }
+    
+    public ReviewResultDTO(String vocabId, String status, String message, UserLearningVocabDTO vocabulary) {
+        this.vocabId = vocabId;
+        this.status = status;
+        this.message = message;
+        this.vocabulary = vocabulary;
+    }
+    
+    public static ReviewResultDTO updated(String vocabId, UserLearningVocabDTO vocabulary) {
+        return new ReviewResultDTO(vocabId, UPDATED, null, vocabulary);
+    }
+    
+    public static ReviewResultDTO failed(String vocabId, String status, String message) {
+        return new ReviewResultDTO(vocabId, status, message, null);
+    }
+    
+    // Getters and Setters
+    public String getVocabId() {
+        return vocabId;
+    }
+    
+    public void setVocabId(String vocabId) {
+        this.vocabId = vocabId;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public UserLearningVocabDTO getVocabulary() {
+        return vocabulary;
+    }
+    
+    public void setVocabulary(UserLearningVocabDTO vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+}
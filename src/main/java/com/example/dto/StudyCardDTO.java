@@ -0,0 +1,96 @@
+package com.example.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Một thẻ trong phiên học: tiến độ ôn tập kèm đầy đủ dữ liệu từ vựng,
+ * client không cần gọi thêm /api/vocabulary/{id}
+ */
+public class StudyCardDTO {
+    
+    private String vocabId;
+    
+    private OffsetDateTime lastReviewAt;
+    
+    private OffsetDateTime nextReviewAt;
+    
+    private Float easeFactor;
+    
+    private Long repetitionCount;
+    
+    private Float successRate;
+    
+    private VocabularyDTO vocabulary;
+    
+    // Constructors
+    public StudyCardDTO() {
+    }
+    
+    public StudyCardDTO(String vocabId, OffsetDateTime lastReviewAt, OffsetDateTime nextReviewAt,
+                        Float easeFactor, Long repetitionCount, Float successRate, VocabularyDTO vocabulary) {
+        this.vocabId = vocabId;
+        this.lastReviewAt = lastReviewAt;
+        this.nextReviewAt = nextReviewAt;
+        this.easeFactor = easeFactor;
+        this.repetitionCount = repetitionCount;
+        this.successRate = successRate;
+        this.vocabulary = vocabulary;
+    }
+    
+    // Getters and Setters
+    public String getVocabId() {
+        return vocabId;
+    }
+    
+    public void setVocabId(String vocabId) {
+        this.vocabId = vocabId;
+    }
+    
+    public OffsetDateTime getLastReviewAt() {
+        return lastReviewAt;
+    }
+    
+    public void setLastReviewAt(OffsetDateTime lastReviewAt) {
+        this.lastReviewAt = lastReviewAt;
+    }
+    
+    public OffsetDateTime getNextReviewAt() {
+        return nextReviewAt;
+    }
+    
+    public void setNextReviewAt(OffsetDateTime nextReviewAt) {
+        this.nextReviewAt = nextReviewAt;
+    }
+    
+    public Float getEaseFactor() {
+        return easeFactor;
+    }
+    
+    public void setEaseFactor(Float easeFactor) {
+        this.easeFactor = easeFactor;
+    }
+    
+    public Long getRepetitionCount() {
+        return repetitionCount;
+    }
+    
+    public void setRepetitionCount(Long repetitionCount) {
+        this.repetitionCount = repetitionCount;
+    }
+    
+    public Float getSuccessRate() {
+        return successRate;
+    }
+    
+    public void setSuccessRate(Float successRate) {
+        this.successRate = successRate;
+    }
+    
+    public VocabularyDTO getVocabulary() {
+        return vocabulary;
+    }
+    
+    public void setVocabulary(VocabularyDTO vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+}
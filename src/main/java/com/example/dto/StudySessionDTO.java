@@ -0,0 +1,97 @@
+package com.example.dto;
+
+import java.util.List;
+
+/**
+ * Trạng thái phiên học trả về sau mỗi lần mở phiên hoặc gửi kết quả:
+ * các thẻ tiếp theo cùng số kết quả đã nhận và đã ghi xuống DB
+ */
+public class StudySessionDTO {
+    
+    private String sessionId;
+    
+    private List<StudyCardDTO> cards;
+    
+    private int submitted;
+    
+    private int persisted;
+    
+    private int pending;
+    
+    // Kết quả bị từ chối (vocabId không thuộc phiên, hoặc lỗi khi ghi xuống DB)
+    private List<ReviewResultDTO> rejected;
+    
+    private boolean closed;
+    
+    // Constructors
+    public StudySessionDTO() {
+    }
+    
+    public StudySessionDTO(String sessionId, List<StudyCardDTO> cards, int submitted, int persisted,
+                           int pending, List<ReviewResultDTO> rejected, boolean closed) {
+        this.sessionId = sessionId;
+        this.cards = cards;
+        this.submitted = submitted;
+        this.persisted = persisted;
+        this.pending = pending;
+        this.rejected = rejected;
+        this.closed = closed;
+    }
+    
+    // Getters and Setters
+    public String getSessionId() {
+        return sessionId;
+    }
+    
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+    
+    public List<StudyCardDTO> getCards() {
+        return cards;
+    }
+    
+    public void setCards(List<StudyCardDTO> cards) {
+        this.cards = cards;
+    }
+    
+    public int getSubmitted() {
+        return submitted;
+    }
+    
+    public void setSubmitted(int submitted) {
+        this.submitted = submitted;
+    }
+    
+    public int getPersisted() {
+        return persisted;
+    }
+    
+    public void setPersisted(int persisted) {
+        this.persisted = persisted;
+    }
+    
+    public int getPending() {
+        return pending;
+    }
+    
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+    
+    public List<ReviewResultDTO> getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(List<ReviewResultDTO> rejected) {
+        this.rejected = rejected;
+    }
+    
+    public boolean isClosed() {
+        return closed;
+    }
+    
+    public void setClosed(boolean closed) {
+        this.closed = closed;
+    }
+}
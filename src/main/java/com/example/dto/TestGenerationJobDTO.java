@@ -0,0 +1,131 @@
+package com.example.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Trạng thái một job sinh bài test: số câu đã sinh trong bộ nhớ và số câu đã ghi xuống DB.
+ * Các câu đã ghi chỉ được commit khi job ở trạng thái SUCCEEDED
+ */
+public class TestGenerationJobDTO {
+
+    private String jobId;
+
+    // QUEUED, RUNNING, SUCCEEDED, FAILED hoặc CANCELLED
+    private String status;
+
+    private String testId;
+
+    private int requested;
+
+    private int generated;
+
+    private int persisted;
+
+    private String error;
+
+    private OffsetDateTime submittedAt;
+
+    private OffsetDateTime startedAt;
+
+    private OffsetDateTime finishedAt;
+
+    // Constructors
+    public TestGenerationJobDTO() {
+    }
+
+    public TestGenerationJobDTO(String jobId, String status, String testId, int requested, int generated,
+            int persisted, String error, OffsetDateTime submittedAt, OffsetDateTime startedAt,
+            OffsetDateTime finishedAt) {
+        this.jobId = jobId;
+        this.status = status;
+        this.testId = testId;
+        this.requested = requested;
+        this.generated = generated;
+        this.persisted = persisted;
+        this.error = error;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public void setTestId(String testId) {
+        this.testId = testId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getGenerated() {
+        return generated;
+    }
+
+    public void setGenerated(int generated) {
+        this.generated = generated;
+    }
+
+    public int getPersisted() {
+        return persisted;
+    }
+
+    public void setPersisted(int persisted) {
+        this.persisted = persisted;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public OffsetDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(OffsetDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public OffsetDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(OffsetDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public OffsetDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(OffsetDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
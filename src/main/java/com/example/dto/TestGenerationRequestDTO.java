@@ -0,0 +1,69 @@
+package com.example.dto;
+
+import java.util.List;
+
+import com.example.entity.Test.TestType;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Yêu cầu sinh bài test ở chế độ nền. Khi không gửi words thì dùng các từ vựng của topic
+ */
+public class TestGenerationRequestDTO {
+
+    private String topicId;
+
+    @NotNull(message = "Test type must not be null")
+    private TestType testType;
+
+    @NotNull(message = "Number question must not be null")
+    @Min(value = 1, message = "Ammount of question must be greater than 0")
+    private Integer numQuestions;
+
+    private List<String> words;
+
+    // Constructors
+    public TestGenerationRequestDTO() {
+    }
+
+    public TestGenerationRequestDTO(String topicId, TestType testType, Integer numQuestions, List<String> words) {
+        this.topicId = topicId;
+        this.testType = testType;
+        this.numQuestions = numQuestions;
+        this.words = words;
+    }
+
+    // Getters and Setters
+    public String getTopicId() {
+        return topicId;
+    }
+
+    public void setTopicId(String topicId) {
+        this.topicId = topicId;
+    }
+
+    public TestType getTestType() {
+        return testType;
+    }
+
+    public void setTestType(TestType testType) {
+        this.testType = testType;
+    }
+
+    public Integer getNumQuestions() {
+        return numQuestions;
+    }
+
+    public void setNumQuestions(Integer numQuestions) {
+        this.numQuestions = numQuestions;
+    }
+
+    public List<String> getWords() {
+        return words;
+    }
+
+    public void setWords(List<String> words) {
+        this.words = words;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.dto;
+
+/**
+ * Kết quả ghi danh một chủ đề vào danh sách học của người dùng
+ */
+public class TopicEnrollmentDTO {
+    
+    private String userId;
+    
+    private String topicId;
+    
+    private long topicWords;
+    
+    private long enrolled;
+    
+    private long alreadyEnrolled;
+    
+    // Constructors
+    public TopicEnrollmentDTO() {
+    }
+    
+    public TopicEnrollmentDTO(String userId, String topicId, long topicWords, long enrolled, long alreadyEnrolled) {
+        this.userId = userId;
+        this.topicId = topicId;
+        this.topicWords = topicWords;
+        this.enrolled = enrolled;
+        this.alreadyEnrolled = alreadyEnrolled;
+    }
+    
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public String getTopicId() {
+        return topicId;
+    }
+    
+    public void setTopicId(String topicId) {
+        this.topicId = topicId;
+    }
+    
+    public long getTopicWords() {
+        return topicWords;
+    }
+    
+    public void setTopicWords(long topicWords) {
+        this.topicWords = topicWords;
+    }
+    
+    public long getEnrolled() {
+        return enrolled;
+    }
+    
+    public void setEnrolled(long enrolled) {
+        this.enrolled = enrolled;
+    }
+    
+    public long getAlreadyEnrolled() {
+        return alreadyEnrolled;
+    }
+    
+    public void setAlreadyEnrolled(long alreadyEnrolled) {
+        this.alreadyEnrolled = alreadyEnrolled;
+    }
+}
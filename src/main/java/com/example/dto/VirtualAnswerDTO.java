@@ -0,0 +1,62 @@
+package com.example.dto;
+
+/**
+ * Câu trả lời cho câu hỏi ở vị trí position của bài test ảo
+ */
+public class VirtualAnswerDTO {
+
+    private Integer position;
+
+    // vocabId của câu hỏi như lúc sinh (bắt buộc), để phát hiện bài test đã thay đổi
+    private String vocabId;
+
+    // Trắc nghiệm, đúng/sai
+    private Integer selectedIndex;
+
+    // Điền vào chỗ trống
+    private String textAnswer;
+
+    // Constructors
+    public VirtualAnswerDTO() {
+    }
+
+    public VirtualAnswerDTO(Integer position, String vocabId, Integer selectedIndex, String textAnswer) {
+        this.position = position;
+        this.vocabId = vocabId;
+        this.selectedIndex = selectedIndex;
+        this.textAnswer = textAnswer;
+    }
+
+    // Getters and Setters
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    public String getVocabId() {
+        return vocabId;
+    }
+
+    public void setVocabId(String vocabId) {
+        this.vocabId = vocabId;
+    }
+
+    public Integer getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    public void setSelectedIndex(Integer selectedIndex) {
+        this.selectedIndex = selectedIndex;
+    }
+
+    public String getTextAnswer() {
+        return textAnswer;
+    }
+
+    public void setTextAnswer(String textAnswer) {
+        this.textAnswer = textAnswer;
+    }
+}
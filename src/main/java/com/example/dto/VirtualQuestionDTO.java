@@ -0,0 +1,62 @@
+package com.example.dto;
+
+import java.util.List;
+
+/**
+ * Một câu hỏi của bài test ảo, không kèm đáp án đúng
+ */
+public class VirtualQuestionDTO {
+
+    private int position;
+
+    private String vocabId;
+
+    private String questionText;
+
+    // Rỗng với câu điền vào chỗ trống
+    private List<String> options;
+
+    // Constructors
+    public VirtualQuestionDTO() {
+    }
+
+    public VirtualQuestionDTO(int position, String vocabId, String questionText, List<String> options) {
+        this.position = position;
+        this.vocabId = vocabId;
+        this.questionText = questionText;
+        this.options = options;
+    }
+
+    // Getters and Setters
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public String getVocabId() {
+        return vocabId;
+    }
+
+    public void setVocabId(String vocabId) {
+        this.vocabId = vocabId;
+    }
+
+    public String getQuestionText() {
+        return questionText;
+    }
+
+    public void setQuestionText(String questionText) {
+        this.questionText = questionText;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
+}
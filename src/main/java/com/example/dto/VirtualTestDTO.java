@@ -0,0 +1,77 @@
+package com.example.dto;
+
+import java.util.List;
+
+import com.example.entity.Test.TestType;
+
+/**
+ * Bài test ảo sinh từ định nghĩa bài test và seed; cùng seed luôn cho cùng thứ tự câu hỏi,
+ * thứ tự đáp án và đáp án nhiễu
+ */
+public class VirtualTestDTO {
+
+    private String testId;
+
+    private TestType testType;
+
+    private long seed;
+
+    // Dấu vân tay của kho từ lúc sinh bài, phải gửi lại khi nộp bài
+    private String poolFingerprint;
+
+    private List<VirtualQuestionDTO> questions;
+
+    // Constructors
+    public VirtualTestDTO() {
+    }
+
+    public VirtualTestDTO(String testId, TestType testType, long seed, String poolFingerprint,
+            List<VirtualQuestionDTO> questions) {
+        this.testId = testId;
+        this.testType = testType;
+        this.seed = seed;
+        this.poolFingerprint = poolFingerprint;
+        this.questions = questions;
+    }
+
+    // Getters and Setters
+    public String getTestId() {
+        return testId;
+    }
+
+    public void setTestId(String testId) {
+        this.testId = testId;
+    }
+
+    public TestType getTestType() {
+        return testType;
+    }
+
+    public void setTestType(TestType testType) {
+        this.testType = testType;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public String getPoolFingerprint() {
+        return poolFingerprint;
+    }
+
+    public void setPoolFingerprint(String poolFingerprint) {
+        this.poolFingerprint = poolFingerprint;
+    }
+
+    public List<VirtualQuestionDTO> getQuestions() {
+        return questions;
+    }
+
+    public void setQuestions(List<VirtualQuestionDTO> questions) {
+        this.questions = questions;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Bài làm của một bài test ảo: seed và dấu vân tay kho từ đã dùng để sinh bài, cùng các câu trả lời
+ */
+public class VirtualTestSubmissionDTO {
+
+    @NotNull(message = "User id must not be null")
+    private String userId;
+
+    @NotNull(message = "Seed must not be null")
+    private Long seed;
+
+    @NotNull(message = "Pool fingerprint must not be null")
+    private String poolFingerprint;
+
+    private List<VirtualAnswerDTO> answers;
+
+    // Constructors
+    public VirtualTestSubmissionDTO() {
+    }
+
+    public VirtualTestSubmissionDTO(String userId, Long seed, String poolFingerprint, List<VirtualAnswerDTO> answers) {
+        this.userId = userId;
+        this.seed = seed;
+        this.poolFingerprint = poolFingerprint;
+        this.answers = answers;
+    }
+
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public String getPoolFingerprint() {
+        return poolFingerprint;
+    }
+
+    public void setPoolFingerprint(String poolFingerprint) {
+        this.poolFingerprint = poolFingerprint;
+    }
+
+    public List<VirtualAnswerDTO> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(List<VirtualAnswerDTO> answers) {
+        this.answers = answers;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.entity;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Dấu vết của tài khoản đã xóa, giữ trong một vòng đời token để mọi node ở chế độ
+ * stateless-claims biết mà từ chối token còn hạn của tài khoản đó.
+ */
+@Entity
+@Table(name = "deleted_users")
+public class DeletedUser {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private OffsetDateTime deletedAt;
+
+    public DeletedUser() {
+    }
+
+    public DeletedUser(UUID userId, OffsetDateTime deletedAt) {
+        this.userId = userId;
+        this.deletedAt = deletedAt;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public OffsetDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(OffsetDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -5,6 +5,8 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -17,7 +19,9 @@ import jakarta.persistence.UniqueConstraint;
 
 @Entity
 @Table(name = "questions", uniqueConstraints = {
-    @UniqueConstraint(columnNames = { "test_id", "question_text" })
+    @UniqueConstraint(columnNames = { "test_id", "question_text" }),
+    // Mỗi (từ vựng, loại bài, mẫu câu hỏi) chỉ có một câu trong ngân hàng câu hỏi
+    @UniqueConstraint(name = "uk_questions_bank_key", columnNames = { "vocab_id", "test_type", "template" })
 })
 public class Question {
 
@@ -42,6 +46,17 @@ public class Question {
     @Column(name = "correct_answer_text")
     private String correctAnswerText;
 
+    // Khóa ngân hàng câu hỏi; null với câu hỏi riêng của một bài test (test_id khác null)
+    @Column(name = "vocab_id")
+    private UUID vocabId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "test_type")
+    private Test.TestType testType;
+
+    @Column(name = "template")
+    private String template;
+
     @Column(name = "created_at", nullable = false)
     private java.time.OffsetDateTime createdAt;
 
@@ -117,6 +132,30 @@ public class Question {
         this.correctAnswerText = correctAnswerText;
     }
 
+    public UUID getVocabId() {
+        return vocabId;
+    }
+
+    public void setVocabId(UUID vocabId) {
+        this.vocabId = vocabId;
+    }
+
+    public Test.TestType getTestType() {
+        return testType;
+    }
+
+    public void setTestType(Test.TestType testType) {
+        this.testType = testType;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
@@ -8,26 +8,44 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_token_user_id", columnList = "user_id"),
+        @Index(name = "idx_refresh_token_expiry_date", columnList = "expiry_date")
+})
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
-    @OneToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    // Mỗi người dùng có thể có nhiều phiên (nhiều thiết bị)
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(nullable = false, unique = true)
+    // Chỉ lưu SHA-256 của token, token gốc chỉ trả về cho client lúc tạo
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Transient
     private String token;
 
-    @Column(nullable = false)
+    @Column(name = "expiry_date", nullable = false)
     private Instant expiryDate;
 
+    @Column(name = "created_at")
+    private Instant createdAt;
+
     public RefreshToken() {
     }
 
@@ -52,10 +70,24 @@ public class RefreshToken {
     public void setToken(String token) {
         this.token = token;
     }
+    public String getTokenHash() {
+        return this.tokenHash;
+    }
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
     public Instant getExpiryDate() {
         return this.expiryDate;
     }
     public void setExpiryDate(Instant expiryDate) {
         this.expiryDate = expiryDate;
     }
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = Instant.now();
+    }
 }
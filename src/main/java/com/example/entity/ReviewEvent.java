@@ -0,0 +1,107 @@
+package com.example.entity;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Một lần ôn tập, chỉ được thêm vào (append-only). Không có khóa ngoại để lịch sử
+ * vẫn còn khi từ vựng bị xóa khỏi danh sách học. projectedAt = null nghĩa là
+ * kết quả chưa được áp dụng vào user_learning_vocab. Partial index cho các sự kiện chưa
+ * xử lý (idx_review_event_pending) chỉ khai báo trong database/schema.sql vì JPA không biểu diễn được.
+ */
+@Entity
+@Table(name = "review_event", indexes = {
+        @Index(name = "idx_review_event_user_vocab", columnList = "user_id, vocab_id, reviewed_at")
+})
+public class ReviewEvent {
+
+    // Sequence (không dùng IDENTITY) để Hibernate gom được INSERT theo lô
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_event_seq")
+    @SequenceGenerator(name = "review_event_seq", sequenceName = "review_event_seq", allocationSize = 50)
+    @Column(name = "event_id", updatable = false, nullable = false)
+    private Long eventId;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(name = "vocab_id", nullable = false, updatable = false)
+    private UUID vocabId;
+
+    @Column(name = "is_correct", nullable = false, updatable = false)
+    private boolean correct;
+
+    @Column(name = "reviewed_at", nullable = false, updatable = false)
+    private OffsetDateTime reviewedAt;
+
+    @Column(name = "recorded_at", nullable = false, updatable = false)
+    private OffsetDateTime recordedAt;
+
+    @Column(name = "projected_at")
+    private OffsetDateTime projectedAt;
+
+    // Khóa chống ghi trùng khi phát lại nhật ký write-behind; null với sự kiện ghi trực tiếp
+    @Column(name = "event_key", unique = true, updatable = false)
+    private UUID eventKey;
+
+    public ReviewEvent() {
+    }
+
+    public ReviewEvent(UUID userId, UUID vocabId, boolean correct, OffsetDateTime reviewedAt) {
+        this.userId = userId;
+        this.vocabId = vocabId;
+        this.correct = correct;
+        this.reviewedAt = reviewedAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.recordedAt = OffsetDateTime.now();
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getVocabId() {
+        return vocabId;
+    }
+
+    public boolean isCorrect() {
+        return correct;
+    }
+
+    public OffsetDateTime getReviewedAt() {
+        return reviewedAt;
+    }
+
+    public OffsetDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public OffsetDateTime getProjectedAt() {
+        return projectedAt;
+    }
+
+    public void setProjectedAt(OffsetDateTime projectedAt) {
+        this.projectedAt = projectedAt;
+    }
+
+    public UUID getEventKey() {
+        return eventKey;
+    }
+}
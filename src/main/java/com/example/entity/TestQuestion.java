@@ -0,0 +1,153 @@
+package com.example.entity;
+
+import java.util.UUID;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * Liên kết một bài test với một câu hỏi trong ngân hàng câu hỏi; nhiều bài test
+ * dùng chung một câu hỏi thay vì mỗi bài tạo bản sao riêng
+ */
+@Entity
+@Table(name = "test_questions", indexes = {
+        @Index(name = "idx_test_questions_question", columnList = "question_id")
+})
+public class TestQuestion implements Persistable<TestQuestion.TestQuestionId> {
+
+    @EmbeddedId
+    private TestQuestionId id;
+
+    @MapsId("testId")
+    @ManyToOne
+    @JoinColumn(name = "test_id", foreignKey = @ForeignKey(name = "fk_test_questions_test"))
+    private Test test;
+
+    @MapsId("questionId")
+    @ManyToOne
+    @JoinColumn(name = "question_id", foreignKey = @ForeignKey(name = "fk_test_questions_question"))
+    private Question question;
+
+    // Thứ tự câu hỏi trong bài test
+    @Column(name = "position", nullable = false)
+    private int position;
+
+    // Khóa được gán sẵn nên Spring Data sẽ merge (SELECT từng dòng) nếu không báo đây là bản ghi mới
+    @Transient
+    private boolean isNew;
+
+    public TestQuestion() {
+    }
+
+    public TestQuestion(Test test, Question question, int position) {
+        this.id = new TestQuestionId(test.getTestId(), question.getQuestionId());
+        this.test = test;
+        this.question = question;
+        this.position = position;
+        this.isNew = true;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @Embeddable
+    public static class TestQuestionId implements java.io.Serializable {
+
+        @Column(name = "test_id")
+        private UUID testId;
+
+        @Column(name = "question_id")
+        private UUID questionId;
+
+        public TestQuestionId() {
+        }
+
+        public TestQuestionId(UUID testId, UUID questionId) {
+            this.testId = testId;
+            this.questionId = questionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TestQuestionId that = (TestQuestionId) o;
+            return java.util.Objects.equals(testId, that.testId) && java.util.Objects.equals(questionId, that.questionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return java.util.Objects.hash(testId, questionId);
+        }
+
+        public UUID getTestId() {
+            return testId;
+        }
+
+        public void setTestId(UUID testId) {
+            this.testId = testId;
+        }
+
+        public UUID getQuestionId() {
+            return questionId;
+        }
+
+        public void setQuestionId(UUID questionId) {
+            this.questionId = questionId;
+        }
+    }
+
+    @Override
+    public TestQuestionId getId() {
+        return id;
+    }
+
+    public void setId(TestQuestionId id) {
+        this.id = id;
+    }
+
+    public Test getTest() {
+        return test;
+    }
+
+    public void setTest(Test test) {
+        this.test = test;
+    }
+
+    public Question getQuestion() {
+        return question;
+    }
+
+    public void setQuestion(Question question) {
+        this.question = question;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+}
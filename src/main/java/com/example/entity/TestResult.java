@@ -45,6 +45,10 @@ public class TestResult {
     @Column(name = "taken_at", nullable = false)
     private java.time.OffsetDateTime takenAt;
 
+    // Seed của bài test ảo; null với bài test có câu hỏi lưu trong DB
+    @Column(name = "seed")
+    private Long seed;
+
     @Column(name = "created_at", nullable = false)
     private java.time.OffsetDateTime createdAt;
 
@@ -121,6 +125,14 @@ public class TestResult {
         this.takenAt = takenAt;
     }
 
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
     public java.time.OffsetDateTime getCreatedAt() {
         return createdAt;
     }
@@ -45,6 +45,10 @@ public class User {
     @Column(name = "reason")
     private String reason;
 
+    // Token phát hành trước mốc này không còn hợp lệ (đổi quyền); dùng cho chế độ stateless-claims
+    @Column(name = "tokens_valid_after")
+    private OffsetDateTime tokensValidAfter;
+
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
     
@@ -129,6 +133,14 @@ public class User {
         this.name = name;
     }
 
+    public OffsetDateTime getTokensValidAfter() {
+        return this.tokensValidAfter;
+    }
+
+    public void setTokensValidAfter(OffsetDateTime tokensValidAfter) {
+        this.tokensValidAfter = tokensValidAfter;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return this.createdAt;
     }
@@ -1,11 +1,16 @@
 package com.example.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "user_learning_vocab")
+@Table(name = "user_learning_vocab", indexes = {
+        // Phục vụ truy vấn thẻ đến hạn và phân trang keyset theo (next_review_at, vocab_id)
+        @Index(name = "idx_user_learning_vocab_user_next_review", columnList = "user_id, next_review_at, vocab_id"),
+        @Index(name = "idx_user_learning_vocab_user_success_rate", columnList = "user_id, success_rate")
+})
 public class UserLearningVocab {
     
     @EmbeddedId
@@ -36,6 +41,20 @@ public class UserLearningVocab {
     @Column(name = "success_rate")
     private Float successRate = 0.0f;
     
+    // Trạng thái của FSRS, null khi thẻ chưa được lập lịch bằng FSRS
+    @Column(name = "stability")
+    private Float stability;
+    
+    @Column(name = "difficulty")
+    private Float difficulty;
+    
+    // Khóa lạc quan: hai lần ôn tập đồng thời trên cùng thẻ không được ghi đè nhau.
+    // null khi chưa lưu, nhờ đó save() dùng persist thay vì merge
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
     
@@ -163,6 +182,30 @@ public class UserLearningVocab {
         this.successRate = successRate;
     }
     
+    public Float getStability() {
+        return stability;
+    }
+    
+    public void setStability(Float stability) {
+        this.stability = stability;
+    }
+    
+    public Float getDifficulty() {
+        return difficulty;
+    }
+    
+    public void setDifficulty(Float difficulty) {
+        this.difficulty = difficulty;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
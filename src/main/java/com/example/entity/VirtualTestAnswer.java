@@ -0,0 +1,136 @@
+package com.example.entity;
+
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Câu trả lời cho một câu hỏi của bài test ảo. Câu hỏi không được lưu: nó được sinh lại từ
+ * seed của TestResult, position là vị trí câu hỏi và vocabId là từ vựng của câu đó
+ */
+@Entity
+@Table(name = "virtual_test_answers", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "result_id", "position" })
+})
+public class VirtualTestAnswer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "answer_id", updatable = false, nullable = false)
+    private UUID answerId;
+
+    @ManyToOne
+    @JoinColumn(name = "result_id", nullable = false,
+            foreignKey = @jakarta.persistence.ForeignKey(name = "fk_virtual_test_answers_test_result"))
+    private TestResult testResult;
+
+    @Column(name = "position", nullable = false)
+    private int position;
+
+    @Column(name = "vocab_id", nullable = false)
+    private UUID vocabId;
+
+    // Vị trí đáp án đã chọn (trắc nghiệm, đúng/sai)
+    @Column(name = "selected_index")
+    private Integer selectedIndex;
+
+    @Column(name = "text_answer")
+    private String textAnswer;
+
+    @Column(name = "is_correct", nullable = false)
+    private boolean isCorrect;
+
+    @Column(name = "created_at", nullable = false)
+    private java.time.OffsetDateTime createdAt;
+
+    public VirtualTestAnswer() {
+    }
+
+    public VirtualTestAnswer(TestResult testResult, int position, UUID vocabId, Integer selectedIndex,
+            String textAnswer, boolean isCorrect) {
+        this.testResult = testResult;
+        this.position = position;
+        this.vocabId = vocabId;
+        this.selectedIndex = selectedIndex;
+        this.textAnswer = textAnswer;
+        this.isCorrect = isCorrect;
+    }
+
+    public UUID getAnswerId() {
+        return answerId;
+    }
+
+    public void setAnswerId(UUID answerId) {
+        this.answerId = answerId;
+    }
+
+    public TestResult getTestResult() {
+        return testResult;
+    }
+
+    public void setTestResult(TestResult testResult) {
+        this.testResult = testResult;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public UUID getVocabId() {
+        return vocabId;
+    }
+
+    public void setVocabId(UUID vocabId) {
+        this.vocabId = vocabId;
+    }
+
+    public Integer getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    public void setSelectedIndex(Integer selectedIndex) {
+        this.selectedIndex = selectedIndex;
+    }
+
+    public String getTextAnswer() {
+        return textAnswer;
+    }
+
+    public void setTextAnswer(String textAnswer) {
+        this.textAnswer = textAnswer;
+    }
+
+    public boolean isCorrect() {
+        return isCorrect;
+    }
+
+    public void setCorrect(boolean isCorrect) {
+        this.isCorrect = isCorrect;
+    }
+
+    public java.time.OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(java.time.OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = java.time.OffsetDateTime.now();
+    }
+}
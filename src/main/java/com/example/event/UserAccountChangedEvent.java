@@ -0,0 +1,36 @@
+package com.example.event;
+
+import java.util.UUID;
+
+/**
+ * Phát ra khi quyền, trạng thái khóa hoặc sự tồn tại của một tài khoản thay đổi,
+ * để các cache phía xác thực tự làm mới.
+ */
+public class UserAccountChangedEvent {
+
+    public enum ChangeType {
+        ROLE_CHANGED, BANNED, UNBANNED, DELETED, UPDATED
+    }
+
+    private final UUID userId;
+    private final String username;
+    private final ChangeType changeType;
+
+    public UserAccountChangedEvent(UUID userId, String username, ChangeType changeType) {
+        this.userId = userId;
+        this.username = username;
+        this.changeType = changeType;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+}
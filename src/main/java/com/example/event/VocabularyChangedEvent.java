@@ -0,0 +1,30 @@
+package com.example.event;
+
+import java.util.UUID;
+
+/**
+ * Phát ra khi một từ vựng được thêm, sửa hoặc xóa, để các chỉ mục trong bộ nhớ
+ * (DistractorIndex, ...) tự cập nhật.
+ */
+public class VocabularyChangedEvent {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final UUID vocabId;
+    private final ChangeType changeType;
+
+    public VocabularyChangedEvent(UUID vocabId, ChangeType changeType) {
+        this.vocabId = vocabId;
+        this.changeType = changeType;
+    }
+
+    public UUID getVocabId() {
+        return vocabId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.entity.DeletedUser;
+
+public interface DeletedUserRepository extends JpaRepository<DeletedUser, UUID> {
+
+    List<DeletedUser> findByDeletedAtAfter(OffsetDateTime since);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DeletedUser d WHERE d.deletedAt < :before")
+    int deleteOlderThan(@Param("before") OffsetDateTime before);
+}
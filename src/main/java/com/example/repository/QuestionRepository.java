@@ -38,4 +38,9 @@ public interface QuestionRepository extends JpaRepository<Question, UUID> {
     List<Question> findQuestionsWithAudioByTestId(@Param("testId") UUID testId);
 
     void deleteByTestTestId(UUID testId);
+
+    // Câu hỏi trong ngân hàng của các từ vựng cho một loại bài và mẫu câu hỏi
+    @Query("SELECT q FROM Question q WHERE q.testType = :testType AND q.template = :template AND q.vocabId IN :vocabIds")
+    List<Question> findBankQuestions(@Param("testType") Test.TestType testType, @Param("template") String template,
+            @Param("vocabIds") List<UUID> vocabIds);
 }
\ No newline at end of file
@@ -1,14 +1,38 @@
 package com.example.repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.entity.RefreshToken;
-import com.example.entity.User;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID>{
-    Optional<RefreshToken> findByToken(String token);
-    int deleteByUser(User user);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    long countByUserUserId(UUID userId);
+
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.user.userId = :userId ORDER BY rt.createdAt DESC")
+    List<UUID> findSessionIdsNewestFirst(@Param("userId") UUID userId);
+
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.expiryDate < :now")
+    List<UUID> findExpiredIds(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<UUID> ids);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.user.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
 }
@@ -0,0 +1,35 @@
+package com.example.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.example.entity.ReviewEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface ReviewEventRepository extends JpaRepository<ReviewEvent, Long> {
+
+    // lock.timeout = -2: SKIP LOCKED, nhiều node có thể cùng chạy projector
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM ReviewEvent e WHERE e.projectedAt IS NULL ORDER BY e.eventId")
+    List<ReviewEvent> findPendingForProjection(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ReviewEvent e SET e.projectedAt = :now WHERE e.eventId IN :ids")
+    int markProjected(@Param("ids") List<Long> ids, @Param("now") OffsetDateTime now);
+
+    long countByProjectedAtIsNull();
+
+    @Query("SELECT MIN(e.recordedAt) FROM ReviewEvent e WHERE e.projectedAt IS NULL")
+    OffsetDateTime findOldestPendingRecordedAt();
+}
@@ -0,0 +1,39 @@
+package com.example.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.entity.Question;
+import com.example.entity.TestQuestion;
+
+@Repository
+public interface TestQuestionRepository extends JpaRepository<TestQuestion, TestQuestion.TestQuestionId> {
+
+    // Câu hỏi ngân hàng của một bài test theo đúng thứ tự trong bài
+    @Query("SELECT tq.question FROM TestQuestion tq WHERE tq.test.testId = :testId ORDER BY tq.position")
+    List<Question> findQuestionsByTestId(@Param("testId") UUID testId);
+
+    @Query("SELECT tq.question FROM TestQuestion tq WHERE tq.test.testId = :testId"
+            + " AND tq.question.imageUrl IS NOT NULL ORDER BY tq.position")
+    List<Question> findQuestionsWithImageByTestId(@Param("testId") UUID testId);
+
+    @Query("SELECT tq.question FROM TestQuestion tq WHERE tq.test.testId = :testId"
+            + " AND tq.question.audioUrl IS NOT NULL ORDER BY tq.position")
+    List<Question> findQuestionsWithAudioByTestId(@Param("testId") UUID testId);
+
+    long countByTestTestId(UUID testId);
+
+    @Modifying
+    @Query("DELETE FROM TestQuestion tq WHERE tq.test.testId = :testId")
+    int deleteByTestId(@Param("testId") UUID testId);
+
+    @Modifying
+    @Query("DELETE FROM TestQuestion tq WHERE tq.question.questionId = :questionId")
+    int deleteByQuestionId(@Param("questionId") UUID questionId);
+}
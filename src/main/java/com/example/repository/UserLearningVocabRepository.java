@@ -1,6 +1,7 @@
 package com.example.repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -8,6 +9,7 @@ import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -29,6 +31,11 @@ public interface UserLearningVocabRepository extends JpaRepository<UserLearningV
 
         Page<UserLearningVocab> findByUserUserId(UUID userId, Pageable pageable);
 
+        @Query("SELECT ulv FROM UserLearningVocab ulv JOIN FETCH ulv.user JOIN FETCH ulv.vocabulary v LEFT JOIN FETCH v.topic "
+                        + "WHERE ulv.user.userId = :userId AND v.vocabId IN :vocabIds")
+        List<UserLearningVocab> findByUserIdAndVocabIds(@Param("userId") UUID userId,
+                        @Param("vocabIds") Collection<UUID> vocabIds);
+
         @Query("SELECT ulv FROM UserLearningVocab ulv WHERE ulv.user.userId = :userId AND ulv.vocabulary.topic.topicId = :topicId")
         List<UserLearningVocab> findByUserIdAndTopicId(@Param("userId") UUID userId, @Param("topicId") UUID topicId);
 
@@ -43,6 +50,27 @@ public interface UserLearningVocabRepository extends JpaRepository<UserLearningV
         Page<UserLearningVocab> findVocabsToReview(@Param("userId") UUID userId, @Param("now") OffsetDateTime now,
                         Pageable pageable);
 
+        @Query("SELECT ulv FROM UserLearningVocab ulv JOIN FETCH ulv.user JOIN FETCH ulv.vocabulary v LEFT JOIN FETCH v.topic "
+                        + "WHERE ulv.user.userId = :userId")
+        List<UserLearningVocab> findReviewQueueEntries(@Param("userId") UUID userId);
+
+        // Phân trang keyset: trang đầu tiên, sắp theo (nextReviewAt, vocabId)
+        @Query("SELECT ulv FROM UserLearningVocab ulv JOIN FETCH ulv.user JOIN FETCH ulv.vocabulary v LEFT JOIN FETCH v.topic "
+                        + "WHERE ulv.user.userId = :userId AND ulv.nextReviewAt <= :now "
+                        + "ORDER BY ulv.nextReviewAt, ulv.id.vocabId")
+        List<UserLearningVocab> findVocabsToReviewFirstPage(@Param("userId") UUID userId,
+                        @Param("now") OffsetDateTime now, Pageable limit);
+
+        // Các trang sau: chỉ lấy những thẻ đứng sau con trỏ, không dùng OFFSET
+        @Query("SELECT ulv FROM UserLearningVocab ulv JOIN FETCH ulv.user JOIN FETCH ulv.vocabulary v LEFT JOIN FETCH v.topic "
+                        + "WHERE ulv.user.userId = :userId AND ulv.nextReviewAt <= :now "
+                        + "AND (ulv.nextReviewAt > :afterDue "
+                        + "OR (ulv.nextReviewAt = :afterDue AND ulv.id.vocabId > :afterVocabId)) "
+                        + "ORDER BY ulv.nextReviewAt, ulv.id.vocabId")
+        List<UserLearningVocab> findVocabsToReviewAfter(@Param("userId") UUID userId,
+                        @Param("now") OffsetDateTime now, @Param("afterDue") OffsetDateTime afterDue,
+                        @Param("afterVocabId") UUID afterVocabId, Pageable limit);
+
         @Query("SELECT ulv FROM UserLearningVocab ulv WHERE ulv.user.userId = :userId AND ulv.successRate <= :rate")
         List<UserLearningVocab> findVocabsWithLowSuccessRate(@Param("userId") UUID userId, @Param("rate") Float rate);
 
@@ -50,6 +78,17 @@ public interface UserLearningVocabRepository extends JpaRepository<UserLearningV
         List<UserLearningVocab> findRecentlyAddedVocabs(@Param("userId") UUID userId,
                         @Param("since") OffsetDateTime since);
 
+        // Ghi danh cả chủ đề bằng một câu lệnh; các cặp (user, vocab) đã có được bỏ qua.
+        // last_review_at để NULL: thẻ chưa được ôn lần nào
+        @Modifying
+        @Query(value = "INSERT INTO user_learning_vocab (user_id, vocab_id, last_review_at, next_review_at, "
+                        + "ease_factor, repetition_count, success_rate, created_at, updated_at) "
+                        + "SELECT :userId, v.vocab_id, NULL, :nextReviewAt, 2.5, 0, 0, :now, :now "
+                        + "FROM vocabulary v WHERE v.topic_id = :topicId "
+                        + "ON CONFLICT DO NOTHING", nativeQuery = true)
+        int enrollTopic(@Param("userId") UUID userId, @Param("topicId") UUID topicId,
+                        @Param("now") OffsetDateTime now, @Param("nextReviewAt") OffsetDateTime nextReviewAt);
+
         void deleteByUserUserId(UUID userId);
 
         void deleteByUserUserIdAndVocabularyVocabId(UUID userId, UUID vocabId);
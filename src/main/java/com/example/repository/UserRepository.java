@@ -1,11 +1,13 @@
 package com.example.repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -23,6 +25,11 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     boolean existsByUsername(String username);
 
+    @Query("SELECT u.username FROM User u")
+    Slice<String> findAllUsernames(Pageable pageable);
+
+    Slice<User> findAllBy(Pageable pageable);
+
     List<User> findByRole(UserRole role);
 
     Page<User> findByRole(UserRole role, Pageable pageable);
@@ -40,4 +47,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
             Pageable pageable);
             
     long countByRole(UserRole role);
+
+    @Query("SELECT u.userId, u.banUtil FROM User u WHERE u.banStatus = true AND (u.banUtil IS NULL OR u.banUtil > :now)")
+    List<Object[]> findActiveBans(@Param("now") OffsetDateTime now);
+
+    @Query("SELECT u.userId, u.tokensValidAfter FROM User u WHERE u.tokensValidAfter > :since")
+    List<Object[]> findTokenCutoffsSince(@Param("since") OffsetDateTime since);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.entity.VirtualTestAnswer;
+
+@Repository
+public interface VirtualTestAnswerRepository extends JpaRepository<VirtualTestAnswer, UUID> {
+
+    List<VirtualTestAnswer> findByTestResultResultIdOrderByPosition(UUID resultId);
+}
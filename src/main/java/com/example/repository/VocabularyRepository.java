@@ -7,6 +7,8 @@ import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.entity.Vocabulary;
@@ -35,8 +37,19 @@ public interface VocabularyRepository extends JpaRepository<Vocabulary, UUID> {
 
     List<Vocabulary> findByWordType(Vocabulary.WordType wordType);
 
+    List<Vocabulary> findByTopicTopicId(UUID topicId);
+
+    long countByTopicTopicId(UUID topicId);
+
+    @Query("SELECT v.word FROM Vocabulary v WHERE v.topic.topicId = :topicId ORDER BY v.word")
+    List<String> findWordsByTopicId(@Param("topicId") UUID topicId);
+
     List<Vocabulary> findByWordContainingOrMeaningContaining(String word, String meaning);
 
     @Override
     Page<Vocabulary> findAll(Pageable pageable);
+
+    // Nạp toàn bộ từ vựng cùng chủ đề trong một truy vấn (dựng DistractorIndex)
+    @Query("SELECT v FROM Vocabulary v LEFT JOIN FETCH v.topic")
+    List<Vocabulary> findAllWithTopic();
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Danh sách access token (theo jti) đã đăng xuất. Mỗi entry chỉ sống tới exp của
+ * token, sau đó token tự hết hạn nên không cần giữ nữa.
+ */
+@Component
+public class AccessTokenDenyList {
+
+    private final Map<String, Long> deniedUntil = new ConcurrentHashMap<>();
+
+    public void deny(VerifiedToken token) {
+        if (token.getTokenId() == null || token.getExpiresAt() == null) {
+            return;
+        }
+        long expiresAt = token.getExpiresAt().toEpochMilli();
+        if (expiresAt > System.currentTimeMillis()) {
+            deniedUntil.put(token.getTokenId(), expiresAt);
+        }
+    }
+
+    public boolean isDenied(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Long expiresAt = deniedUntil.get(tokenId);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            deniedUntil.remove(tokenId, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.deny-list.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        deniedUntil.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", deniedUntil.size());
+        return stats;
+    }
+}
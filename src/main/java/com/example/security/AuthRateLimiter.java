@@ -0,0 +1,80 @@
+package com.example.security;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.exception.RateLimitExceededException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Giới hạn tần suất cho /api/auth theo IP client và theo username, chạy hoàn toàn
+ * trong bộ nhớ của từng node. Bucket theo username chỉ bị trừ khi đăng nhập sai, để
+ * người khác không thể khóa một tài khoản bằng cách gửi request mang tên của nó.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private final boolean enabled;
+
+    private final KeyedRateLimiter byIp;
+
+    private final KeyedRateLimiter byUsername;
+
+    public AuthRateLimiter(
+            @Value("${security.rate-limit.enabled:true}") boolean enabled,
+            @Value("${security.rate-limit.ip.burst:30}") int ipBurst,
+            @Value("${security.rate-limit.ip.refill-per-minute:30}") double ipRefillPerMinute,
+            @Value("${security.rate-limit.username.burst:5}") int usernameBurst,
+            @Value("${security.rate-limit.username.refill-per-minute:5}") double usernameRefillPerMinute,
+            @Value("${security.rate-limit.max-keys:100000}") int maxKeys) {
+        this.enabled = enabled;
+        this.byIp = new KeyedRateLimiter(ipBurst, ipRefillPerMinute, maxKeys);
+        this.byUsername = new KeyedRateLimiter(usernameBurst, usernameRefillPerMinute, maxKeys);
+    }
+
+    /**
+     * Ném RateLimitExceededException (429) nếu IP đã vượt hạn mức hoặc username đã hết
+     * lượt đăng nhập sai. username có thể null cho các endpoint không gắn với tài khoản.
+     */
+    public void check(HttpServletRequest request, String username) {
+        if (!enabled) {
+            return;
+        }
+        String ip = request.getRemoteAddr();
+        if (!byIp.tryAcquire(ip)) {
+            throw new RateLimitExceededException("Too many requests from this address", byIp.secondsUntilNextToken(ip));
+        }
+        if (username != null) {
+            String key = username.toLowerCase(Locale.ROOT);
+            if (!byUsername.hasToken(key)) {
+                throw new RateLimitExceededException("Too many attempts for this account", byUsername.secondsUntilNextToken(key));
+            }
+        }
+    }
+
+    /**
+     * Trừ một lượt của username sau một lần đăng nhập sai
+     */
+    public void recordFailure(String username) {
+        if (enabled && username != null) {
+            byUsername.tryAcquire(username.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ipAllowed", byIp.getAllowed());
+        stats.put("ipRejected", byIp.getRejected());
+        stats.put("ipTrackedKeys", byIp.getTrackedKeys());
+        stats.put("usernameAllowed", byUsername.getAllowed());
+        stats.put("usernameRejected", byUsername.getRejected());
+        stats.put("usernameTrackedKeys", byUsername.getTrackedKeys());
+        return stats;
+    }
+}
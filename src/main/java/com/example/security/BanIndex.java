@@ -0,0 +1,118 @@
+package com.example.security;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.repository.UserRepository;
+
+/**
+ * Chỉ mục trong bộ nhớ: userId -> thời điểm hết khóa (epoch ms). Nạp khi khởi động,
+ * được UserService cập nhật đồng bộ khi ban/unban, và tự bỏ entry khi banUtil đã qua.
+ * Việc nạp lại định kỳ chỉ là lưới an toàn khi chạy nhiều node.
+ */
+@Component
+public class BanIndex {
+
+    private final UserRepository userRepository;
+
+    private final Map<UUID, Long> bannedUntil = new ConcurrentHashMap<>();
+
+    // Các user được ban/unban trong lúc reload đang chạy; kết quả truy vấn không ghi đè lên họ
+    private volatile Map<UUID, Boolean> changedDuringReload;
+
+    private volatile long lastReloadAt;
+
+    public BanIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public boolean isBanned(UUID userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = bannedUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until <= System.currentTimeMillis()) {
+            bannedUntil.remove(userId, until);
+            return false;
+        }
+        return true;
+    }
+
+    public void ban(UUID userId, OffsetDateTime until) {
+        long untilMillis = until != null ? until.toInstant().toEpochMilli() : Long.MAX_VALUE;
+        if (untilMillis > System.currentTimeMillis()) {
+            bannedUntil.put(userId, untilMillis);
+        }
+        markChanged(userId);
+    }
+
+    public void unban(UUID userId) {
+        bannedUntil.remove(userId);
+        markChanged(userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${security.ban-index.refresh-ms:300000}",
+            initialDelayString = "${security.ban-index.refresh-ms:300000}")
+    public synchronized void reload() {
+        // Đánh dấu trước khi truy vấn: ban/unban từ đây trở đi có thể không nằm trong kết quả
+        Map<UUID, Boolean> changed = new ConcurrentHashMap<>();
+        changedDuringReload = changed;
+        try {
+            List<Object[]> rows = userRepository.findActiveBans(OffsetDateTime.now());
+            Map<UUID, Long> fresh = new HashMap<>(Math.max(16, rows.size() * 2));
+            for (Object[] row : rows) {
+                OffsetDateTime until = (OffsetDateTime) row[1];
+                fresh.put((UUID) row[0], until != null ? until.toInstant().toEpochMilli() : Long.MAX_VALUE);
+            }
+
+            // Gộp vào map đang dùng thay vì thay cả map, để không mất ban xảy ra giữa chừng
+            fresh.forEach((userId, until) -> {
+                if (!changed.containsKey(userId)) {
+                    bannedUntil.put(userId, until);
+                }
+            });
+            for (Map.Entry<UUID, Long> entry : bannedUntil.entrySet()) {
+                UUID userId = entry.getKey();
+                if (!fresh.containsKey(userId) && !changed.containsKey(userId)) {
+                    bannedUntil.remove(userId, entry.getValue());
+                }
+            }
+        } finally {
+            changedDuringReload = null;
+        }
+        lastReloadAt = System.currentTimeMillis();
+    }
+
+    private void markChanged(UUID userId) {
+        Map<UUID, Boolean> changed = changedDuringReload;
+        if (changed != null) {
+            changed.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bannedUsers", bannedUntil.size());
+        stats.put("lastReloadAt", lastReloadAt == 0 ? null : Instant.ofEpochMilli(lastReloadAt).toString());
+        return stats;
+    }
+}
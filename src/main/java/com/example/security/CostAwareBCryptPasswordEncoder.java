@@ -0,0 +1,69 @@
+package com.example.security;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder báo cần hash lại khi cost trong hash khác cost đang cấu hình
+ * (cả tăng lẫn giảm), để có thể chỉnh cost theo ngân sách phần cứng mà không
+ * phải reset mật khẩu hàng loạt.
+ */
+public class CostAwareBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 16;
+
+    private final int strength;
+
+    public CostAwareBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(2)) != strength;
+    }
+
+    public static boolean isBCryptHash(String encodedPassword) {
+        return encodedPassword != null && BCRYPT_PATTERN.matcher(encodedPassword).matches();
+    }
+
+    /**
+     * Chọn cost lớn nhất mà một lần verify vẫn nằm trong targetMillis trên máy hiện tại.
+     */
+    public static int calibrate(long targetMillis) {
+        int cost = MIN_COST;
+        for (int candidate = MIN_COST; candidate <= MAX_COST; candidate++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(candidate);
+            String hash = encoder.encode("calibration");
+            long start = System.nanoTime();
+            encoder.matches("calibration", hash);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            cost = candidate;
+            // Mỗi bậc cost gấp đôi thời gian, bậc tiếp theo chắc chắn vượt ngân sách
+            if (elapsedMillis * 2 > targetMillis) {
+                break;
+            }
+        }
+        return cost;
+    }
+}
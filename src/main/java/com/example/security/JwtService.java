@@ -1,5 +1,6 @@
 package com.example.security;
 
+import java.time.OffsetDateTime;
 import java.util.Date;
 import java.util.function.Function;
 
@@ -10,10 +11,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.example.entity.User;
+import com.example.exception.ServiceOverloadedException;
 import com.example.repository.UserRepository;
 
 import io.jsonwebtoken.Claims;
@@ -28,7 +29,7 @@ public class JwtService implements UserDetailsService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingExecutor passwordHashingExecutor;
 
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -49,16 +50,42 @@ public class JwtService implements UserDetailsService {
                 .username(user.getUsername())
                 .password(user.getPasswordHash())
                 .authorities(user.getRole().name())
+                .accountLocked(isBanActive(user))
                 .build();
     }
 
+    // Dùng cho token cũ không có claim uid, BanIndex không tra được
+    private boolean isBanActive(User user) {
+        return Boolean.TRUE.equals(user.getBanStatus())
+                && (user.getBanUtil() == null || user.getBanUtil().isAfter(OffsetDateTime.now()));
+    }
+
     public boolean authenticateUser(String username, String password) {
-        try {
-            UserDetails userDetails = loadUserByUsername(username);
-            return passwordEncoder.matches(password, userDetails.getPassword());
-        } catch (UsernameNotFoundException e) {
+        return userRepository.findByUsername(username)
+                .map(user -> verifyPassword(user, password))
+                .orElse(false);
+    }
+
+    /**
+     * Kiểm tra mật khẩu; nếu đúng mà hash đang lưu dùng cost cũ thì hash lại với cấu hình
+     * hiện tại. Giá trị không phải hash (plain text cũ) không bao giờ khớp, xem LegacyPasswordMigration.
+     */
+    public boolean verifyPassword(User user, String rawPassword) {
+        String stored = user.getPasswordHash();
+        if (rawPassword == null || !passwordHashingExecutor.isEncoded(stored)) {
             return false;
         }
+
+        boolean matches = passwordHashingExecutor.matches(rawPassword, stored);
+        if (matches && passwordHashingExecutor.needsRehash(stored)) {
+            try {
+                user.setPasswordHash(passwordHashingExecutor.encode(rawPassword));
+                userRepository.save(user);
+            } catch (ServiceOverloadedException e) {
+                // Pool đang quá tải: giữ hash cũ, sẽ nâng cấp ở lần đăng nhập sau
+            }
+        }
+        return matches;
     }
 
     public String generateToken(String username) {
@@ -6,23 +6,52 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.example.entity.User;
+
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtils {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_BANNED = "banned";
+
     @Value("${jwt.secret}")
     private String secret;
 
+    // Bật chế độ xác thực chỉ dựa trên claims (không truy vấn DB mỗi request)
+    @Value("${jwt.stateless-claims.enabled:false}")
+    private boolean statelessClaims;
+
     @Value("${jwt.expiration}") // 24 hours in milliseconds
     private Long expiration;
 
+    private volatile SecretKey signingKey;
+
+    private volatile JwtParser parser;
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser p = parser;
+        if (p == null) {
+            p = Jwts.parser().verifyWith(getSigningKey()).build();
+            parser = p;
+        }
+        return p;
     }
 
     public String extractUsername(String token) {
@@ -39,15 +68,13 @@ public class JwtUtils {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseClaims(token);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    Claims parseClaims(String token) {
+        return getParser()
+                .parseSignedClaims(token)
+                .getPayload();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -60,9 +87,25 @@ public class JwtUtils {
         return createToken(claims, username);
     }
 
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        // uid luôn có để filter tra BanIndex mà không cần truy vấn DB
+        claims.put(CLAIM_USER_ID, user.getUserId().toString());
+        if (statelessClaims) {
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            claims.put(CLAIM_BANNED, Boolean.TRUE.equals(user.getBanStatus()));
+        }
+        return createToken(claims, user.getUsername());
+    }
+
+    public boolean isStatelessClaimsEnabled() {
+        return statelessClaims;
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
@@ -71,16 +114,14 @@ public class JwtUtils {
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date()));
     }
 
     public Boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
+            parseClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -0,0 +1,167 @@
+package com.example.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Parse và kiểm tra chữ ký mỗi access token đúng một lần, sau đó giữ kết quả
+ * trong cache (khóa là SHA-256 của token) cho tới thời điểm exp của token.
+ * Cache giữ thứ tự chèn và bỏ entry cũ nhất khi đầy, nên mỗi lần thêm là O(1) kể cả khi
+ * bị gửi dồn dập các token khác nhau.
+ */
+@Component
+public class JwtVerifier {
+
+    private final JwtUtils jwtUtils;
+
+    private final int maxSize;
+
+    private final Map<String, VerifiedToken> cache;
+
+    // get trên LinkedHashMap thứ tự chèn không đổi cấu trúc nên đọc song song được
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verificationNanos = new LongAdder();
+
+    public JwtVerifier(JwtUtils jwtUtils,
+            @Value("${jwt.verify-cache.max-size:10000}") int maxSize) {
+        this.jwtUtils = jwtUtils;
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > JwtVerifier.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Trả về token đã xác thực, ném JwtException nếu token sai chữ ký hoặc hết hạn.
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("Token is empty");
+        }
+        String key = digest(token);
+        Instant now = Instant.now();
+
+        VerifiedToken cached = get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                hits.increment();
+                return cached;
+            }
+            remove(key);
+        }
+        misses.increment();
+
+        long start = System.nanoTime();
+        VerifiedToken verified;
+        try {
+            verified = VerifiedToken.from(jwtUtils.parseClaims(token));
+        } finally {
+            verifications.increment();
+            verificationNanos.add(System.nanoTime() - start);
+        }
+
+        if (verified.isExpired(now)) {
+            throw new ExpiredJwtException(null, null, "JWT expired");
+        }
+        if (verified.getExpiresAt() != null) {
+            put(key, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Giống verify nhưng trả về null thay vì ném ngoại lệ.
+     */
+    public VerifiedToken verifyOrNull(String token) {
+        try {
+            return verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public void invalidate(String token) {
+        remove(digest(token));
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long verifyCount = verifications.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("size", cache.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("verifications", verifyCount);
+        stats.put("avgVerificationMicros",
+                verifyCount == 0 ? 0.0 : verificationNanos.sum() / 1000.0 / verifyCount);
+        return stats;
+    }
+
+    private VerifiedToken get(String key) {
+        lock.readLock().lock();
+        try {
+            return cache.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Token hết hạn không cần quét để dọn: bị bỏ khi tra trúng hoặc khi thành entry cũ nhất
+    private void put(String key, VerifiedToken verified) {
+        lock.writeLock().lock();
+        try {
+            cache.put(key, verified);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            cache.remove(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket theo khóa (username, IP, ...). Mỗi bucket là một AtomicLong cập nhật
+ * bằng CAS, ConcurrentHashMap chia nhỏ khóa theo bucket nên không có khóa toàn cục.
+ *
+ * Trạng thái được gói trong một long: 44 bit cao là mốc refill (ms kể từ lúc tạo
+ * limiter), 20 bit thấp là số token nhân 1000.
+ */
+public class KeyedRateLimiter {
+
+    private static final int TOKEN_BITS = 20;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long SCALE = 1000;
+    private static final int MAX_BURST = (int) (TOKEN_MASK / SCALE);
+
+    private final long capacity;
+    private final double refillPerMilli;
+    private final int maxKeys;
+    private final int evictTarget;
+    private final LongSupplier clock;
+    private final long baseMillis;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public KeyedRateLimiter(int burst, double refillPerMinute, int maxKeys) {
+        this(burst, refillPerMinute, maxKeys, System::currentTimeMillis);
+    }
+
+    KeyedRateLimiter(int burst, double refillPerMinute, int maxKeys, LongSupplier clock) {
+        if (burst < 1 || burst > MAX_BURST) {
+            throw new IllegalArgumentException("burst must be between 1 and " + MAX_BURST);
+        }
+        this.capacity = burst * SCALE;
+        this.refillPerMilli = refillPerMinute * SCALE / 60_000.0;
+        this.maxKeys = maxKeys;
+        // Mỗi lần dọn hạ xuống dưới ngưỡng 10% để lần quét O(n) tiếp theo cách ít nhất maxKeys/10 lần thêm
+        this.evictTarget = maxKeys - Math.max(1, maxKeys / 10);
+        this.clock = clock;
+        this.baseMillis = clock.getAsLong();
+    }
+
+    public boolean tryAcquire(String key) {
+        if (key == null) {
+            return true;
+        }
+        long now = clock.getAsLong() - baseMillis;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evictIdle(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(pack(now, capacity)));
+        }
+
+        while (true) {
+            long state = bucket.get();
+            long tokens = refilled(state, now);
+            if (tokens < SCALE) {
+                rejected.increment();
+                return false;
+            }
+            if (bucket.compareAndSet(state, pack(Math.max(now, timestamp(state)), tokens - SCALE))) {
+                allowed.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Khóa này còn ít nhất một token hay không, không trừ token nào.
+     */
+    public boolean hasToken(String key) {
+        AtomicLong bucket = key != null ? buckets.get(key) : null;
+        return bucket == null || refilled(bucket.get(), clock.getAsLong() - baseMillis) >= SCALE;
+    }
+
+    /**
+     * Số giây tới khi khóa này có lại ít nhất một token.
+     */
+    public long secondsUntilNextToken(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null || refillPerMilli <= 0) {
+            return 1;
+        }
+        long missing = SCALE - refilled(bucket.get(), clock.getAsLong() - baseMillis);
+        if (missing <= 0) {
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil(missing / refillPerMilli / 1000.0));
+    }
+
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public int getTrackedKeys() {
+        return buckets.size();
+    }
+
+    private long refilled(long state, long now) {
+        long elapsed = Math.max(0, now - timestamp(state));
+        long tokens = (state & TOKEN_MASK) + (long) (elapsed * refillPerMilli);
+        return Math.min(capacity, tokens);
+    }
+
+    // Bucket đã đầy lại thì bỏ đi cũng không mất thông tin gì; chỉ một luồng dọn tại một thời điểm
+    private void evictIdle(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(b -> refilled(b.get(), now) >= capacity);
+            Iterator<String> it = buckets.keySet().iterator();
+            while (buckets.size() > evictTarget && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static long timestamp(long state) {
+        return state >>> TOKEN_BITS;
+    }
+
+    private static long pack(long timestamp, long tokens) {
+        return (timestamp << TOKEN_BITS) | tokens;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.example.entity.User;
+import com.example.repository.UserRepository;
+
+/**
+ * Job chạy một lần (bật bằng security.password-migration.enabled) để hash các mật khẩu
+ * còn lưu plain text từ trước khi register mã hóa. Đăng nhập không bao giờ so sánh plain
+ * text, nên các tài khoản này chỉ đăng nhập lại được sau khi job đã chạy.
+ */
+@Component
+public class LegacyPasswordMigration {
+
+    // Giá trị giữ chỗ mà createUser cũ ghi vào; không phải mật khẩu thật nên không được hash
+    static final String PLACEHOLDER_PASSWORD = "default_password_hash";
+
+    private static final int PAGE_SIZE = 500;
+
+    private final UserRepository userRepository;
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    private final boolean enabled;
+
+    public LegacyPasswordMigration(UserRepository userRepository, PasswordHashingExecutor passwordHashingExecutor,
+            @Value("${security.password-migration.enabled:false}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (enabled) {
+            int migrated = migrate();
+            System.out.println("Legacy password migration: hashed " + migrated + " plain-text passwords");
+        }
+    }
+
+    public int migrate() {
+        int migrated = 0;
+        int page = 0;
+        Slice<User> slice;
+        do {
+            slice = userRepository.findAllBy(PageRequest.of(page++, PAGE_SIZE, Sort.by("userId")));
+            for (User user : slice) {
+                String stored = user.getPasswordHash();
+                if (stored == null || PLACEHOLDER_PASSWORD.equals(stored)
+                        || passwordHashingExecutor.isEncoded(stored)) {
+                    continue;
+                }
+                user.setPasswordHash(passwordHashingExecutor.encode(stored));
+                userRepository.save(user);
+                migrated++;
+            }
+        } while (slice.hasNext());
+        return migrated;
+    }
+}
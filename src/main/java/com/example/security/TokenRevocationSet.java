@@ -0,0 +1,114 @@
+package com.example.security;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.entity.DeletedUser;
+import com.example.event.UserAccountChangedEvent;
+import com.example.repository.DeletedUserRepository;
+import com.example.repository.UserRepository;
+
+/**
+ * Tập thu hồi dùng cho chế độ stateless-claims: người dùng đang bị khóa (theo BanIndex)
+ * và mốc thời gian mà token phát hành trước đó không còn hợp lệ (đổi quyền, xóa tài khoản).
+ * Mốc được lưu trong users.tokens_valid_after và deleted_users, nạp lại định kỳ để node khác
+ * và node vừa khởi động lại cũng thấy; sự kiện trên node hiện tại được áp dụng ngay.
+ */
+@Component
+public class TokenRevocationSet {
+
+    private final BanIndex banIndex;
+
+    private final JwtUtils jwtUtils;
+
+    private final UserRepository userRepository;
+
+    private final DeletedUserRepository deletedUserRepository;
+
+    private final long tokenLifetimeMs;
+
+    private final Map<UUID, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile long lastRefreshAt;
+
+    public TokenRevocationSet(BanIndex banIndex, JwtUtils jwtUtils, UserRepository userRepository,
+            DeletedUserRepository deletedUserRepository,
+            @Value("${jwt.expiration}") long tokenLifetimeMs) {
+        this.banIndex = banIndex;
+        this.jwtUtils = jwtUtils;
+        this.userRepository = userRepository;
+        this.deletedUserRepository = deletedUserRepository;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+    }
+
+    public boolean isRevoked(UUID userId, Instant issuedAt) {
+        if (banIndex.isBanned(userId)) {
+            return true;
+        }
+        Long cutoff = revokedBefore.get(userId);
+        if (cutoff == null) {
+            return false;
+        }
+        // iat của JWT chỉ chính xác tới giây: token phát hành cùng giây với mốc cũng bị từ chối
+        return issuedAt == null || issuedAt.getEpochSecond() <= cutoff / 1000;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.stateless-claims.revocation-refresh-ms:60000}")
+    public void refresh() {
+        if (!jwtUtils.isStatelessClaimsEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Token phát hành trước mốc thu hồi đã hết hạn thì không cần giữ mốc nữa
+        OffsetDateTime oldestRelevant = OffsetDateTime.now().minusNanos(tokenLifetimeMs * 1_000_000L);
+        for (Object[] row : userRepository.findTokenCutoffsSince(oldestRelevant)) {
+            revoke((UUID) row[0], ((OffsetDateTime) row[1]).toInstant().toEpochMilli());
+        }
+        for (DeletedUser deleted : deletedUserRepository.findByDeletedAtAfter(oldestRelevant)) {
+            revoke(deleted.getUserId(), deleted.getDeletedAt().toInstant().toEpochMilli());
+        }
+        deletedUserRepository.deleteOlderThan(oldestRelevant);
+        revokedBefore.values().removeIf(cutoff -> cutoff + tokenLifetimeMs < now);
+        lastRefreshAt = now;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        switch (event.getChangeType()) {
+            case ROLE_CHANGED, DELETED -> revoke(event.getUserId(), System.currentTimeMillis());
+            default -> {
+                // Ban/unban đã được BanIndex xử lý đồng bộ; UPDATED không đổi claim nào trong token
+            }
+        }
+    }
+
+    // Giữ mốc muộn nhất giữa sự kiện trên node này và giá trị đọc từ DB
+    private void revoke(UUID userId, long cutoff) {
+        revokedBefore.merge(userId, cutoff, Math::max);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", jwtUtils.isStatelessClaimsEnabled());
+        stats.put("bannedUsers", banIndex.stats().get("bannedUsers"));
+        stats.put("revokedBeforeEntries", revokedBefore.size());
+        stats.put("lastRefreshAt", lastRefreshAt == 0 ? null : Instant.ofEpochMilli(lastRefreshAt).toString());
+        return stats;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.event.UserAccountChangedEvent;
+
+/**
+ * Cache theo username cho quyền của người dùng, đặt trước JwtService.loadUserByUsername.
+ * Bị xóa khi UserService phát UserAccountChangedEvent; TTL chỉ là lưới an toàn.
+ * Khi đầy thì bỏ entry được thêm sớm nhất (O(1)); TTL cố định nên đó cũng là entry hết hạn sớm nhất.
+ */
+@Component
+public class UserDetailsCache {
+
+    private static final int GENERATION_STRIPES = 256;
+
+    private final JwtService jwtService;
+
+    private final long ttlMs;
+
+    private final int maxSize;
+
+    private final Map<String, Entry> cache;
+
+    // get trên LinkedHashMap thứ tự chèn không đổi cấu trúc nên đọc song song được
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Số thế hệ theo dải username, tăng mỗi lần invalidate (dưới khóa ghi). Lần nạp từ DB chỉ được
+    // đưa vào cache nếu thế hệ không đổi, nếu không nó có thể mang quyền cũ đọc trước khi invalidate
+    private final long[] generations = new long[GENERATION_STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public UserDetailsCache(JwtService jwtService,
+            @Value("${security.user-cache.ttl-ms:300000}") long ttlMs,
+            @Value("${security.user-cache.max-size:10000}") int maxSize) {
+        this.jwtService = jwtService;
+        this.ttlMs = ttlMs;
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserDetailsCache.this.maxSize;
+            }
+        };
+    }
+
+    public UserDetails get(String username) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        lock.readLock().lock();
+        try {
+            entry = cache.get(username);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (entry != null && entry.expiresAt > now) {
+            hits.increment();
+            return entry.userDetails;
+        }
+        misses.increment();
+
+        long generation;
+        lock.readLock().lock();
+        try {
+            generation = generations[stripe(username)];
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        UserDetails loaded = jwtService.loadUserByUsername(username);
+        // Không giữ password hash trong cache, filter chỉ cần username và quyền
+        UserDetails authoritiesOnly = User.withUsername(loaded.getUsername())
+                .password("")
+                .authorities(loaded.getAuthorities())
+                .accountLocked(!loaded.isAccountNonLocked())
+                .disabled(!loaded.isEnabled())
+                .build();
+
+        lock.writeLock().lock();
+        try {
+            if (generations[stripe(username)] == generation) {
+                // Xóa trước để entry mới nằm cuối thứ tự chèn
+                cache.remove(username);
+                cache.put(username, new Entry(authoritiesOnly, now + ttlMs));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return authoritiesOnly;
+    }
+
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            generations[stripe(username)]++;
+            if (cache.remove(username) != null) {
+                invalidations.increment();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                generations[i]++;
+            }
+            cache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        invalidations.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        invalidate(event.getUsername());
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("size", cache.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("ttlMs", ttlMs);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.sum());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private static int stripe(String username) {
+        return Math.floorMod(username.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static final class Entry {
+        private final UserDetails userDetails;
+        private final long expiresAt;
+
+        private Entry(UserDetails userDetails, long expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
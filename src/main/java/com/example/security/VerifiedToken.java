@@ -0,0 +1,84 @@
+package com.example.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Kết quả bất biến của một lần parse + kiểm tra chữ ký JWT.
+ */
+public final class VerifiedToken {
+
+    private final String tokenId;
+    private final String username;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final UUID userId;
+    private final String role;
+    private final boolean banned;
+
+    public VerifiedToken(String username, Instant issuedAt, Instant expiresAt) {
+        this(null, username, issuedAt, expiresAt, null, null, false);
+    }
+
+    public VerifiedToken(String tokenId, String username, Instant issuedAt, Instant expiresAt,
+            UUID userId, String role, boolean banned) {
+        this.tokenId = tokenId;
+        this.username = username;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.userId = userId;
+        this.role = role;
+        this.banned = banned;
+    }
+
+    static VerifiedToken from(Claims claims) {
+        String uid = claims.get(JwtUtils.CLAIM_USER_ID, String.class);
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                uid != null ? UUID.fromString(uid) : null,
+                claims.get(JwtUtils.CLAIM_ROLE, String.class),
+                Boolean.TRUE.equals(claims.get(JwtUtils.CLAIM_BANNED, Boolean.class)));
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isBanned() {
+        return banned;
+    }
+
+    // Token được phát hành khi bật stateless-claims, đủ thông tin để xác thực không cần DB
+    public boolean hasIdentityClaims() {
+        return userId != null && role != null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.random.RandomGenerator;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.entity.Vocabulary;
+import com.example.event.VocabularyChangedEvent;
+import com.example.repository.VocabularyRepository;
+
+/**
+ * Chỉ mục nghĩa của từ vựng trong bộ nhớ để chọn đáp án nhiễu cho câu hỏi trắc nghiệm mà
+ * không cần truy vấn DB. Mỗi từ nằm trong bốn phân vùng từ hẹp đến rộng:
+ * (loại từ, level, chủ đề), (loại từ, level), (loại từ) và toàn bộ; việc chọn bắt đầu ở phân
+ * vùng hẹp nhất để đáp án nhiễu trông hợp lý. Nạp lười ở lần dùng đầu, sau đó cập nhật từng từ
+ * theo VocabularyChangedEvent.
+ */
+@Component
+public class DistractorIndex {
+
+    // Số lần bốc ngẫu nhiên tối đa trên mỗi phân vùng cho mỗi đáp án cần lấy
+    private static final int ATTEMPTS_PER_PICK = 4;
+
+    private final VocabularyRepository vocabularyRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Entry> byId = new HashMap<>();
+    // Cùng một từ có thể có ở nhiều chủ đề; phần tử đầu danh sách là bản được tra ra
+    private final Map<String, List<Entry>> byWord = new HashMap<>();
+    private final Map<String, Partition> partitions = new HashMap<>();
+    private volatile boolean loaded;
+    // Đang đọc DB để dựng lại: thay đổi đến trong lúc này có thể không nằm trong dữ liệu vừa đọc
+    private volatile boolean loading;
+    private final Set<UUID> changedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder widened = new LongAdder();
+    private final LongAdder shortfalls = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    public DistractorIndex(VocabularyRepository vocabularyRepository) {
+        this.vocabularyRepository = vocabularyRepository;
+    }
+
+    /**
+     * Từ vựng ứng với một từ (không phân biệt hoa thường), hoặc null
+     */
+    public Entry findByWord(String word) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<Entry> entries = word != null ? byWord.get(normalize(word)) : null;
+            return entries != null ? entries.get(0) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Chọn tối đa k nghĩa sai, khác nhau và khác nghĩa đúng của target. Mỗi lần bốc là O(1)
+     * nên chi phí chỉ phụ thuộc k, không phụ thuộc số từ vựng. Trả về ít hơn k khi kho từ
+     * không đủ nghĩa khác nhau.
+     */
+    public List<String> sample(Entry target, int k, RandomGenerator random) {
+        ensureLoaded();
+        List<String> picked = new ArrayList<>(k);
+        Set<String> seen = new HashSet<>();
+        seen.add(target.normalizedMeaning);
+
+        lock.readLock().lock();
+        try {
+            String[] keys = partitionKeys(target);
+            for (int level = 0; level < keys.length && picked.size() < k; level++) {
+                Partition partition = partitions.get(keys[level]);
+                if (partition == null) {
+                    continue;
+                }
+                if (level > 0) {
+                    widened.increment();
+                }
+                int attempts = (k - picked.size()) * ATTEMPTS_PER_PICK;
+                for (int i = 0; i < attempts && picked.size() < k; i++) {
+                    Entry candidate = partition.items.get(random.nextInt(partition.items.size()));
+                    if (!candidate.id.equals(target.id) && seen.add(candidate.normalizedMeaning)) {
+                        picked.add(candidate.meaning);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        samples.increment();
+        if (picked.size() < k) {
+            shortfalls.increment();
+        }
+        return picked;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyChanged(VocabularyChangedEvent event) {
+        if (loading) {
+            // rebuild áp dụng lại sau khi nạp xong, phòng khi dữ liệu nó đọc cũ hơn thay đổi này
+            changedDuringLoad.add(event.getVocabId());
+        }
+        // Chưa nạp và chưa bắt đầu đọc: lần nạp đầu sẽ đọc trạng thái mới nhất từ DB
+        if (!loaded) {
+            return;
+        }
+        if (event.getChangeType() == VocabularyChangedEvent.ChangeType.DELETED) {
+            remove(event.getVocabId());
+        } else {
+            refresh(event.getVocabId());
+        }
+        updates.increment();
+    }
+
+    /**
+     * Dựng lại toàn bộ chỉ mục từ DB
+     */
+    public void rebuild() {
+        loading = true;
+        try {
+            List<Vocabulary> vocabularies = vocabularyRepository.findAllWithTopic();
+            lock.writeLock().lock();
+            try {
+                byId.clear();
+                byWord.clear();
+                partitions.clear();
+                vocabularies.forEach(this::putLocked);
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            loading = false;
+        }
+        // Đọc lại từng từ thay đổi trong lúc nạp; đọc lại nhiều lần vẫn cho cùng kết quả
+        for (UUID vocabId : changedDuringLoad) {
+            changedDuringLoad.remove(vocabId);
+            refresh(vocabId);
+        }
+        rebuilds.increment();
+    }
+
+    public void put(Vocabulary vocabulary) {
+        lock.writeLock().lock();
+        try {
+            putLocked(vocabulary);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID vocabId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(vocabId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("loaded", loaded);
+            stats.put("vocabularies", byId.size());
+            stats.put("partitions", partitions.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("samples", samples.sum());
+        stats.put("widenedPartitions", widened.sum());
+        stats.put("shortfalls", shortfalls.sum());
+        stats.put("incrementalUpdates", updates.sum());
+        stats.put("rebuilds", rebuilds.sum());
+        return stats;
+    }
+
+    private void refresh(UUID vocabId) {
+        vocabularyRepository.findById(vocabId).ifPresentOrElse(this::put, () -> remove(vocabId));
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void putLocked(Vocabulary vocabulary) {
+        removeLocked(vocabulary.getVocabId());
+        Entry entry = new Entry(vocabulary);
+        byId.put(entry.id, entry);
+        if (entry.word != null) {
+            byWord.computeIfAbsent(normalize(entry.word), k -> new ArrayList<>(1)).add(entry);
+        }
+        // Từ chưa có nghĩa vẫn tra được nhưng không thể làm đáp án nhiễu
+        if (!entry.normalizedMeaning.isEmpty()) {
+            for (String key : partitionKeys(entry)) {
+                partitions.computeIfAbsent(key, k -> new Partition()).add(entry);
+            }
+        }
+    }
+
+    private void removeLocked(UUID vocabId) {
+        Entry entry = byId.remove(vocabId);
+        if (entry == null) {
+            return;
+        }
+        if (entry.word != null) {
+            String key = normalize(entry.word);
+            List<Entry> entries = byWord.get(key);
+            if (entries != null && entries.remove(entry) && entries.isEmpty()) {
+                byWord.remove(key);
+            }
+        }
+        for (String key : partitionKeys(entry)) {
+            Partition partition = partitions.get(key);
+            if (partition != null && partition.remove(entry) && partition.items.isEmpty()) {
+                partitions.remove(key);
+            }
+        }
+    }
+
+    // Từ hẹp nhất đến rộng nhất
+    private static String[] partitionKeys(Entry entry) {
+        return new String[] {
+                entry.wordType + "|" + entry.level + "|" + entry.topicId,
+                entry.wordType + "|" + entry.level,
+                String.valueOf(entry.wordType),
+                "*"
+        };
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Bản chụp bất biến các trường của một từ vựng cần cho việc chọn đáp án
+     */
+    public static final class Entry {
+
+        private final UUID id;
+        private final String word;
+        private final String meaning;
+        private final String normalizedMeaning;
+        private final Vocabulary.WordType wordType;
+        private final String level;
+        private final UUID topicId;
+
+        Entry(Vocabulary vocabulary) {
+            this.id = vocabulary.getVocabId();
+            this.word = vocabulary.getWord();
+            this.meaning = vocabulary.getMeaning();
+            this.normalizedMeaning = normalize(vocabulary.getMeaning());
+            this.wordType = vocabulary.getWordType();
+            this.level = vocabulary.getLevel();
+            this.topicId = vocabulary.getTopic() != null ? vocabulary.getTopic().getTopicId() : null;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public String getMeaning() {
+            return meaning;
+        }
+
+        public boolean hasMeaning() {
+            return !normalizedMeaning.isEmpty();
+        }
+    }
+
+    /**
+     * Danh sách kèm vị trí để thêm, xóa (đổi chỗ với phần tử cuối) và bốc ngẫu nhiên đều O(1)
+     */
+    private static final class Partition {
+
+        final List<Entry> items = new ArrayList<>();
+        final Map<UUID, Integer> positions = new HashMap<>();
+
+        void add(Entry entry) {
+            positions.put(entry.id, items.size());
+            items.add(entry);
+        }
+
+        boolean remove(Entry entry) {
+            Integer index = positions.remove(entry.id);
+            if (index == null) {
+                return false;
+            }
+            Entry last = items.remove(items.size() - 1);
+            if (index < items.size()) {
+                items.set(index, last);
+                positions.put(last.id, index);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.OptimisticLockException;
+
+/**
+ * Chạy một đơn vị công việc trong giao dịch riêng và thử lại khi gặp xung đột @Version
+ * (ví dụ hai thiết bị của cùng người học gửi kết quả ôn tập cùng lúc). Số lần thử có
+ * giới hạn, giữa các lần chờ ngẫu nhiên (full jitter) để các bên không đụng nhau lần nữa.
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public OptimisticLockRetry(PlatformTransactionManager transactionManager,
+            @Value("${learning.optimistic-retry.max-attempts:3}") int maxAttempts,
+            @Value("${learning.optimistic-retry.base-backoff-ms:20}") long baseBackoffMs,
+            @Value("${learning.optimistic-retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        // Đang nằm trong giao dịch của bên gọi: không thể thử lại ở đây
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        executions.increment();
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        if (cap <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long total = executions.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executions", total);
+        stats.put("conflicts", conflicts.sum());
+        stats.put("retries", retries.sum());
+        stats.put("exhausted", exhausted.sum());
+        stats.put("conflictRate", total == 0 ? 0.0 : (double) conflicts.sum() / total);
+        stats.put("maxAttempts", maxAttempts);
+        return stats;
+    }
+}
@@ -1,18 +1,32 @@
 package com.example.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.entity.AnswerOption;
 import com.example.entity.Question;
 import com.example.entity.Test;
+import com.example.entity.TestQuestion;
 import com.example.entity.UserAnswer;
 import com.example.repository.AnswerOptionRepository;
 import com.example.repository.QuestionRepository;
+import com.example.repository.TestQuestionRepository;
+import com.example.repository.TestRepository;
 
 @Service
 public class QuestionGenerationService {
@@ -23,131 +37,261 @@ public class QuestionGenerationService {
     @Autowired
     private AnswerOptionRepository answerOptionRepository;
 
-    /**
-     * Generate questions for a test based on its type
-     * 
-     * @param test           The test to generate questions for
-     * @param vocabularyList List of vocabulary words to create questions from
-     * @return List of generated questions
-     */
-    public List<Question> generateQuestionsForTest(Test test, List<String> vocabularyList) {
-        List<Question> questions = new ArrayList<>();
+    @Autowired
+    private TestRepository testRepository;
 
-        switch (test.getTestType()) {
-            case multiple_choice:
-                questions = generateMultipleChoiceQuestions(test, vocabularyList);
-                break;
-            case fill_in_the_blank:
-                questions = generateFillInTheBlankQuestions(test, vocabularyList);
-                break;
-            case true_false:
-                questions = generateTrueFalseQuestions(test, vocabularyList);
-                break;
-            default:
-                throw new IllegalArgumentException("Unsupported test type: " + test.getTestType());
-        }
+    @Autowired
+    private DistractorIndex distractorIndex;
 
-        return questions;
-    }
+    @Autowired
+    private TestQuestionRepository testQuestionRepository;
+
+    static final String MULTIPLE_CHOICE_TEMPLATE = "mc-meaning-v1";
+    static final String FILL_IN_THE_BLANK_TEMPLATE = "fib-meaning-v1";
+    static final String TRUE_FALSE_TEMPLATE = "tf-valid-word-v1";
+
+    private final LongAdder bankHits = new LongAdder();
+    private final LongAdder bankMisses = new LongAdder();
+    private final LongAdder testOwned = new LongAdder();
+
+    // Questions written per flush; a multiple of hibernate.jdbc.batch_size keeps the batches full
+    private static final int PERSIST_CHUNK = 50;
 
     /**
-     * Generate multiple choice questions with 4 options each
+     * Progress callbacks of one generation run, also polled for cancellation.
+     * Called on the generating thread.
      */
-    private List<Question> generateMultipleChoiceQuestions(Test test, List<String> vocabularyList) {
-        List<Question> questions = new ArrayList<>();
-
-        for (int i = 0; i < test.getNumQuestions() && i < vocabularyList.size(); i++) {
-            String word = vocabularyList.get(i);
+    public interface GenerationProgress {
 
-            // Create question
-            Question question = new Question();
-            question.setTest(test);
-            question.setQuestionText("What is the meaning of '" + word + "'?");
-            question.setCorrectAnswerText(null);
+        GenerationProgress NONE = new GenerationProgress() {
+        };
 
-            question = questionRepository.save(question);
+        default void generated(int questions) {
+        }
 
-            // Create 4 answer options
-            List<AnswerOption> options = generateMultipleChoiceOptions(question, word, vocabularyList);
-            answerOptionRepository.saveAll(options);
+        default void persisted(int questions) {
+        }
 
-            questions.add(question);
+        default boolean isCancelled() {
+            return false;
         }
+    }
 
-        return questions;
+    @Transactional
+    public List<Question> generateQuestionsForTest(Test test, List<String> vocabularyList) {
+        return generateQuestionsForTest(test, vocabularyList, GenerationProgress.NONE);
     }
 
     /**
-     * Generate fill in the blank questions
+     * Generate questions for a test based on its type.
+     * Words known to the vocabulary table are served from the question bank: one question per
+     * (vocabId, testType, template), shared by every test through test_questions, so a test
+     * only creates bank items that do not exist yet. Unknown words still get questions owned
+     * by the test. New rows are built in memory first and persisted in one transaction, so
+     * the INSERTs go out as JDBC batches (hibernate.jdbc.batch_size). Rows are flushed in
+     * chunks so progress can report what has been written; a cancelled run throws
+     * CancellationException and the transaction rolls back.
+     * 
+     * @param test           The test to generate questions for
+     * @param vocabularyList List of vocabulary words to create questions from
+     * @param progress       Receives generated/persisted counts, polled for cancellation
+     * @return List of generated questions, in test order
      */
-    private List<Question> generateFillInTheBlankQuestions(Test test, List<String> vocabularyList) {
-        List<Question> questions = new ArrayList<>();
-
-        for (int i = 0; i < test.getNumQuestions() && i < vocabularyList.size(); i++) {
-            String word = vocabularyList.get(i);
-
-            // Create question
-            Question question = new Question();
-            question.setTest(test);
-            question.setQuestionText("Fill in the blank: The word '" + word + "' means __________");
-            question.setCorrectAnswerText(word); // Store the correct answer
+    @Transactional
+    public List<Question> generateQuestionsForTest(Test test, List<String> vocabularyList,
+            GenerationProgress progress) {
+        // Question.test cascades persist, which rejects a detached test: attach it to this transaction
+        if (test.getTestId() != null) {
+            test = testRepository.findById(test.getTestId()).orElse(test);
+        } else {
+            // Links to bank items need the test id up front
+            test = testRepository.save(test);
+        }
+        Test.TestType testType = test.getTestType();
+        String template = templateFor(testType);
+
+        // Resolve words against the in-memory index, then load all existing bank items in one query
+        Map<String, DistractorIndex.Entry> bankEntries = new HashMap<>();
+        for (String word : vocabularyList) {
+            DistractorIndex.Entry entry = distractorIndex.findByWord(word);
+            if (entry != null && (testType != Test.TestType.multiple_choice || entry.hasMeaning())) {
+                bankEntries.put(word, entry);
+            }
+        }
+        Map<UUID, Question> bank = new HashMap<>();
+        if (!bankEntries.isEmpty()) {
+            List<UUID> vocabIds = bankEntries.values().stream().map(DistractorIndex.Entry::getId).distinct().toList();
+            for (Question existing : questionRepository.findBankQuestions(testType, template, vocabIds)) {
+                bank.put(existing.getVocabId(), existing);
+            }
+        }
 
-            question = questionRepository.save(question);
+        List<Question> questions = new ArrayList<>();
+        Set<Question> created = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Question, List<AnswerOption>> options = new IdentityHashMap<>();
+        Set<UUID> usedVocabIds = new HashSet<>();
 
-            // No answer options needed for fill in the blank
+        for (String word : vocabularyList) {
+            if (questions.size() >= test.getNumQuestions()) {
+                break;
+            }
+            DistractorIndex.Entry entry = bankEntries.get(word);
+            Question question;
+            List<AnswerOption> questionOptions = new ArrayList<>();
+            if (entry != null) {
+                // A test links each bank item at most once
+                if (!usedVocabIds.add(entry.getId())) {
+                    continue;
+                }
+                question = bank.get(entry.getId());
+                if (question == null) {
+                    question = buildQuestion(testType, entry.getWord(), entry, questionOptions);
+                    question.setVocabId(entry.getId());
+                    question.setTestType(testType);
+                    question.setTemplate(template);
+                    created.add(question);
+                    bankMisses.increment();
+                } else {
+                    bankHits.increment();
+                }
+            } else {
+                question = buildQuestion(testType, word, null, questionOptions);
+                question.setTest(test);
+                created.add(question);
+                testOwned.increment();
+            }
+            options.put(question, questionOptions);
             questions.add(question);
+            if (questions.size() % PERSIST_CHUNK == 0) {
+                checkCancelled(progress);
+                progress.generated(questions.size());
+            }
+        }
+        progress.generated(questions.size());
+
+        // UUID ids are generated in-process on persist, so no statement is needed to obtain a key
+        // and nothing is written until flush; questions are inserted before their options and links.
+        // Two transactions creating the same bank item race on uk_questions_bank_key: the later
+        // one fails with DataIntegrityViolationException and rolls back entirely. Callers must
+        // re-run the transaction (TestGenerationJobService does so once); the retry then reuses
+        // the winner's item.
+        int position = 0;
+        for (int from = 0; from < questions.size(); from += PERSIST_CHUNK) {
+            checkCancelled(progress);
+            List<Question> chunk = questions.subList(from, Math.min(from + PERSIST_CHUNK, questions.size()));
+            List<Question> newQuestions = new ArrayList<>();
+            List<AnswerOption> newOptions = new ArrayList<>();
+            List<TestQuestion> links = new ArrayList<>();
+            for (Question question : chunk) {
+                if (created.contains(question)) {
+                    newQuestions.add(question);
+                    newOptions.addAll(options.get(question));
+                }
+                if (question.getTest() == null) {
+                    links.add(new TestQuestion(test, question, position++));
+                }
+            }
+            questionRepository.saveAll(newQuestions);
+            answerOptionRepository.saveAll(newOptions);
+            testQuestionRepository.saveAll(links);
+            questionRepository.flush();
+            progress.persisted(from + chunk.size());
         }
 
         return questions;
     }
 
+    private static void checkCancelled(GenerationProgress progress) {
+        if (progress.isCancelled()) {
+            throw new CancellationException("Question generation cancelled");
+        }
+    }
+
     /**
-     * Generate true/false questions
+     * Template name of the question built for a test type. Bump the version when the
+     * wording or options change: old bank items stay valid for the tests that link them
+     * and new tests get fresh items.
      */
-    private List<Question> generateTrueFalseQuestions(Test test, List<String> vocabularyList) {
-        List<Question> questions = new ArrayList<>();
+    static String templateFor(Test.TestType testType) {
+        switch (testType) {
+            case multiple_choice:
+                return MULTIPLE_CHOICE_TEMPLATE;
+            case fill_in_the_blank:
+                return FILL_IN_THE_BLANK_TEMPLATE;
+            case true_false:
+                return TRUE_FALSE_TEMPLATE;
+            default:
+                throw new IllegalArgumentException("Unsupported test type: " + testType);
+        }
+    }
 
-        for (int i = 0; i < test.getNumQuestions() && i < vocabularyList.size(); i++) {
-            String word = vocabularyList.get(i);
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bankHits", bankHits.sum());
+        stats.put("bankMisses", bankMisses.sum());
+        stats.put("testOwnedQuestions", testOwned.sum());
+        return stats;
+    }
 
-            // Create question
-            Question question = new Question();
-            question.setTest(test);
-            question.setQuestionText("True or False: '" + word + "' is a valid English word.");
-            question.setCorrectAnswerText(null); // Not used for T/F
+    /**
+     * Build one question of the given type; answer options are added to options
+     */
+    private Question buildQuestion(Test.TestType testType, String word, DistractorIndex.Entry entry,
+            List<AnswerOption> options) {
+        Question question = new Question();
+        switch (testType) {
+            case multiple_choice:
+                question.setQuestionText("What is the meaning of '" + word + "'?");
+                question.setCorrectAnswerText(null);
 
-            question = questionRepository.save(question);
+                // Create 4 answer options
+                options.addAll(generateMultipleChoiceOptions(question, word, entry));
+                break;
+            case fill_in_the_blank:
+                question.setQuestionText("Fill in the blank: The word '" + word + "' means __________");
+                question.setCorrectAnswerText(word); // Store the correct answer
 
-            // Create True/False options
-            List<AnswerOption> options = generateTrueFalseOptions(question, true); // Assuming true for now
-            answerOptionRepository.saveAll(options);
+                // No answer options needed for fill in the blank
+                break;
+            case true_false:
+                question.setQuestionText("True or False: '" + word + "' is a valid English word.");
+                question.setCorrectAnswerText(null); // Not used for T/F
 
-            questions.add(question);
+                // Create True/False options
+                options.addAll(generateTrueFalseOptions(question, true)); // Assuming true for now
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported test type: " + testType);
         }
-
-        return questions;
+        return question;
     }
 
     /**
-     * Generate 4 multiple choice options (1 correct, 3 incorrect)
+     * Generate 4 multiple choice options (1 correct, 3 incorrect).
+     * Meanings come from the DistractorIndex: wrong answers are other words' meanings of the
+     * same word type, level and topic where possible. Placeholders fill in for unknown words.
      */
     private List<AnswerOption> generateMultipleChoiceOptions(Question question, String correctWord,
-            List<String> vocabularyList) {
+            DistractorIndex.Entry entry) {
         List<AnswerOption> options = new ArrayList<>();
+        boolean known = entry != null && entry.hasMeaning();
 
         // Add correct answer
         AnswerOption correctOption = new AnswerOption();
         correctOption.setQuestion(question);
-        correctOption.setOptionText("Correct meaning of " + correctWord);
+        correctOption.setOptionText(known ? entry.getMeaning() : "Correct meaning of " + correctWord);
         correctOption.setCorrect(true);
         options.add(correctOption);
 
         // Add 3 incorrect options (always generate 3, regardless of vocabulary list
         // size)
+        List<String> distractors = known
+                ? distractorIndex.sample(entry, 3, ThreadLocalRandom.current())
+                : List.of();
         for (int i = 0; i < 3; i++) {
             AnswerOption incorrectOption = new AnswerOption();
             incorrectOption.setQuestion(question);
-            incorrectOption.setOptionText("Incorrect meaning " + (i + 1));
+            incorrectOption.setOptionText(i < distractors.size() ? distractors.get(i) : "Incorrect meaning " + (i + 1));
             incorrectOption.setCorrect(false);
             options.add(incorrectOption);
         }
@@ -182,7 +326,9 @@ public class QuestionGenerationService {
      * Validate user answer based on question type
      */
     public boolean validateUserAnswer(Question question, UserAnswer userAnswer) {
-        switch (question.getTest().getTestType()) {
+        // Bank items carry their own type, test-owned questions take the test's
+        Test.TestType testType = question.getTest() != null ? question.getTest().getTestType() : question.getTestType();
+        switch (testType) {
             case multiple_choice:
             case true_false:
                 return userAnswer.getSelectedOption() != null &&
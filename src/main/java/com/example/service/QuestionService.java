@@ -13,6 +13,7 @@ import com.example.dto.QuestionDTO;
 import com.example.entity.Question;
 import com.example.entity.Test;
 import com.example.repository.QuestionRepository;
+import com.example.repository.TestQuestionRepository;
 import com.example.repository.TestRepository;
 
 @Service
@@ -21,14 +22,17 @@ public class QuestionService {
     private final QuestionRepository questionRepository;
     private final TestRepository testRepository;
     private final AnswerOptionService answerOptionService;
+    private final TestQuestionRepository testQuestionRepository;
 
     @Autowired
     public QuestionService(QuestionRepository questionRepository,
             TestRepository testRepository,
-            AnswerOptionService answerOptionService) {
+            AnswerOptionService answerOptionService,
+            TestQuestionRepository testQuestionRepository) {
         this.questionRepository = questionRepository;
         this.testRepository = testRepository;
         this.answerOptionService = answerOptionService;
+        this.testQuestionRepository = testQuestionRepository;
     }
 
     public List<QuestionDTO> getAllQuestions() {
@@ -57,9 +61,15 @@ public class QuestionService {
     }
 
     public List<QuestionDTO> getQuestionsByTestId(UUID testId) {
+        // Câu hỏi riêng của bài test, sau đó là câu hỏi ngân hàng được liên kết theo thứ tự
         List<QuestionDTO> questions = questionRepository.findByTestTestId(testId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        for (Question question : testQuestionRepository.findQuestionsByTestId(testId)) {
+            QuestionDTO questionDTO = convertToDTO(question);
+            questionDTO.setTestId(testId.toString());
+            questions.add(questionDTO);
+        }
 
         for (QuestionDTO questionDTO : questions) {
             List<AnswerOptionDTO> options = answerOptionService.getAnswerOptionsByQuestionId(
@@ -71,15 +81,26 @@ public class QuestionService {
     }
 
     public List<QuestionDTO> getQuestionsWithImageByTestId(UUID testId) {
-        return questionRepository.findQuestionsWithImageByTestId(testId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return withLinkedQuestions(testId, questionRepository.findQuestionsWithImageByTestId(testId),
+                testQuestionRepository.findQuestionsWithImageByTestId(testId));
     }
 
     public List<QuestionDTO> getQuestionsWithAudioByTestId(UUID testId) {
-        return questionRepository.findQuestionsWithAudioByTestId(testId).stream()
+        return withLinkedQuestions(testId, questionRepository.findQuestionsWithAudioByTestId(testId),
+                testQuestionRepository.findQuestionsWithAudioByTestId(testId));
+    }
+
+    // Câu hỏi riêng của bài test rồi tới câu hỏi ngân hàng được liên kết, như getQuestionsByTestId
+    private List<QuestionDTO> withLinkedQuestions(UUID testId, List<Question> owned, List<Question> linked) {
+        List<QuestionDTO> questions = owned.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        for (Question question : linked) {
+            QuestionDTO questionDTO = convertToDTO(question);
+            questionDTO.setTestId(testId.toString());
+            questions.add(questionDTO);
+        }
+        return questions;
     }
 
     @Transactional
@@ -119,6 +140,11 @@ public class QuestionService {
         Question question = questionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Question not found with ID: " + id));
 
+        // Câu hỏi ngân hàng dùng chung cho nhiều bài test: sửa ở đây sẽ đổi cả các bài test khác
+        if (question.getTest() == null && question.getVocabId() != null) {
+            throw new IllegalArgumentException("Shared question bank items cannot be edited: " + id);
+        }
+
         // Cập nhật thông tin
         if (questionDTO.getQuestionText() != null) {
             question.setQuestionText(questionDTO.getQuestionText());
@@ -133,7 +159,7 @@ public class QuestionService {
         }
 
         // Nếu có yêu cầu thay đổi test
-        if (questionDTO.getTestId() != null &&
+        if (questionDTO.getTestId() != null && question.getTest() != null &&
                 !question.getTest().getTestId().toString().equals(questionDTO.getTestId())) {
 
             Test newTest = testRepository.findById(UUID.fromString(questionDTO.getTestId()))
@@ -180,6 +206,9 @@ public class QuestionService {
         // Xóa tất cả đáp án của câu hỏi
         answerOptionService.deleteAnswerOptionsByQuestionId(id);
 
+        // Gỡ câu hỏi ngân hàng khỏi các bài test đang dùng nó
+        testQuestionRepository.deleteByQuestionId(id);
+
         // Xóa câu hỏi
         questionRepository.deleteById(id);
     }
@@ -196,17 +225,20 @@ public class QuestionService {
 
         // Xóa tất cả câu hỏi
         questionRepository.deleteByTestTestId(testId);
+
+        // Câu hỏi ngân hàng được giữ lại, chỉ bỏ liên kết
+        testQuestionRepository.deleteByTestId(testId);
     }
 
     public Long countQuestionsByTestId(UUID testId) {
-        return questionRepository.countByTestTestId(testId);
+        return questionRepository.countByTestTestId(testId) + testQuestionRepository.countByTestTestId(testId);
     }
 
     // Helper method to convert Entity to DTO
     private QuestionDTO convertToDTO(Question question) {
         return new QuestionDTO(
                 question.getQuestionId().toString(),
-                question.getTest().getTestId().toString(),
+                question.getTest() != null ? question.getTest().getTestId().toString() : null,
                 question.getQuestionText(),
                 question.getImageUrl(),
                 question.getAudioUrl(),
@@ -1,13 +1,21 @@
 package com.example.service;
 
 import com.example.entity.RefreshToken;
-import com.example.entity.User;
 import com.example.repository.RefreshTokenRepository;
 import com.example.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,6 +25,11 @@ public class RefreshTokenService {
     @Value("${jwt.refreshExpirationMs}")
     private Long refreshTokenDurationMs;
 
+    @Value("${jwt.refresh.max-sessions-per-user:5}")
+    private int maxSessionsPerUser;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
 
@@ -25,16 +38,24 @@ public class RefreshTokenService {
         this.userRepository = userRepository;
     }
 
+    @Transactional
     public RefreshToken createRefreshToken(UUID userId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setUser(userRepository.findById(userId).orElseThrow());
-        refreshToken.setToken(UUID.randomUUID().toString());
+        refreshToken.setToken(rawToken);
+        refreshToken.setTokenHash(hashToken(rawToken));
         refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
+
+        evictOldestSessions(userId);
         return refreshTokenRepository.save(refreshToken);
     }
 
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenRepository.findByTokenHash(hashToken(token));
     }
 
     public RefreshToken verifyExpiration(RefreshToken token) {
@@ -45,8 +66,46 @@ public class RefreshTokenService {
         return token;
     }
 
+    @Transactional
     public int deleteByUserId(UUID userId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        return refreshTokenRepository.deleteByUser(user);
+        return refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Transactional
+    public int deleteByToken(String token) {
+        return refreshTokenRepository.deleteByTokenHash(hashToken(token));
+    }
+
+    /**
+     * Xóa tối đa batchSize token đã hết hạn trong một transaction ngắn.
+     */
+    @Transactional
+    public int deleteExpiredBatch(Instant now, int batchSize) {
+        List<UUID> ids = refreshTokenRepository.findExpiredIds(now, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return refreshTokenRepository.deleteByIdIn(ids);
+    }
+
+    // Giữ số phiên của một người dùng dưới giới hạn: bỏ các phiên cũ nhất
+    private void evictOldestSessions(UUID userId) {
+        if (maxSessionsPerUser <= 0 || refreshTokenRepository.countByUserUserId(userId) < maxSessionsPerUser) {
+            return;
+        }
+        List<UUID> ids = refreshTokenRepository.findSessionIdsNewestFirst(userId);
+        List<UUID> stale = ids.subList(maxSessionsPerUser - 1, ids.size());
+        if (!stale.isEmpty()) {
+            refreshTokenRepository.deleteByIdIn(stale);
+        }
+    }
+
+    static String hashToken(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,42 @@
+package com.example.service;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dọn định kỳ các refresh token đã hết hạn theo từng lô nhỏ, tránh một câu DELETE
+ * lớn giữ khóa lâu trên bảng refresh_token.
+ */
+@Component
+public class RefreshTokenSweeper {
+
+    private final RefreshTokenService refreshTokenService;
+
+    @Value("${jwt.refresh.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Value("${jwt.refresh.sweep-max-batches:100}")
+    private int maxBatches;
+
+    public RefreshTokenSweeper(RefreshTokenService refreshTokenService) {
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.sweep-interval-ms:3600000}",
+            initialDelayString = "${jwt.refresh.sweep-initial-delay-ms:60000}")
+    public int sweep() {
+        Instant now = Instant.now();
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int deleted = refreshTokenService.deleteExpiredBatch(now, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
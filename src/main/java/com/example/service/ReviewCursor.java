@@ -0,0 +1,49 @@
+package com.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Con trỏ phân trang keyset cho danh sách ôn tập: vị trí (nextReviewAt, vocabId) của
+ * phần tử cuối cùng đã trả về, mã hóa base64url để client coi như chuỗi mờ.
+ */
+public final class ReviewCursor {
+
+    private final OffsetDateTime nextReviewAt;
+    private final UUID vocabId;
+
+    public ReviewCursor(OffsetDateTime nextReviewAt, UUID vocabId) {
+        this.nextReviewAt = nextReviewAt;
+        this.vocabId = vocabId;
+    }
+
+    public String encode() {
+        String raw = nextReviewAt + "|" + vocabId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ReviewCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ReviewCursor(OffsetDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public OffsetDateTime getNextReviewAt() {
+        return nextReviewAt;
+    }
+
+    public UUID getVocabId() {
+        return vocabId;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.repository.ReviewEventRepository;
+
+/**
+ * Gộp định kỳ các review_event chưa xử lý vào user_learning_vocab theo từng lô.
+ * Phía đọc chấp nhận trễ tối đa khoảng projection-interval-ms khi bật async-projection.
+ */
+@Component
+public class ReviewEventProjector {
+
+    private final UserLearningVocabService userLearningVocabService;
+    private final ReviewEventRepository reviewEventRepository;
+
+    @Value("${learning.review-log.projection-batch-size:500}")
+    private int batchSize;
+
+    @Value("${learning.review-log.projection-max-batches:20}")
+    private int maxBatches;
+
+    private final LongAdder projected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private volatile long lastRunMillis;
+
+    public ReviewEventProjector(UserLearningVocabService userLearningVocabService,
+            ReviewEventRepository reviewEventRepository) {
+        this.userLearningVocabService = userLearningVocabService;
+        this.reviewEventRepository = reviewEventRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${learning.review-log.projection-interval-ms:1000}")
+    public int project() {
+        long start = System.currentTimeMillis();
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int count;
+            try {
+                count = userLearningVocabService.projectReviewEvents(batchSize);
+            } catch (OptimisticLockingFailureException e) {
+                // Lô bị rollback, sự kiện vẫn chờ và sẽ được xử lý ở lần chạy sau
+                conflicts.increment();
+                break;
+            }
+            if (count == 0) {
+                break;
+            }
+            total += count;
+            batches.increment();
+            if (count < batchSize) {
+                break;
+            }
+        }
+        projected.add(total);
+        lastRunMillis = System.currentTimeMillis() - start;
+        return total;
+    }
+
+    public Map<String, Object> stats() {
+        OffsetDateTime oldestPending = reviewEventRepository.findOldestPendingRecordedAt();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingEvents", reviewEventRepository.countByProjectedAtIsNull());
+        stats.put("lagMs", oldestPending == null ? 0 : Duration.between(oldestPending, OffsetDateTime.now()).toMillis());
+        stats.put("projectedEvents", projected.sum());
+        stats.put("batches", batches.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("lastRunMs", lastRunMillis);
+        stats.put("batchSize", batchSize);
+        return stats;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Nhật ký chỉ ghi nối (append-only) cho chế độ write-behind, mỗi dòng là một lần ôn tập đã
+ * được xác nhận. Nhật ký chia thành các đoạn (segment) đánh số tăng dần: mỗi lần flush đóng
+ * đoạn hiện tại, đoạn đó chỉ bị xóa khi dữ liệu của nó đã commit vào DB.
+ */
+final class ReviewJournal {
+
+    private static final String PREFIX = "review-journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+
+    private FileChannel channel;
+    private Path current;
+    private long nextSegment;
+
+    ReviewJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create review journal directory " + directory, e);
+        }
+        List<Path> existing = segments();
+        this.nextSegment = existing.isEmpty() ? 1 : segmentNumber(existing.get(existing.size() - 1)) + 1;
+    }
+
+    /**
+     * Ghi một dòng; chỉ trả về sau khi dữ liệu đã xuống đĩa (khi bật fsync)
+     */
+    synchronized void append(String line) {
+        try {
+            if (channel == null) {
+                current = directory.resolve(String.format("%s%012d%s", PREFIX, nextSegment++, SUFFIX));
+                channel = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write review journal", e);
+        }
+    }
+
+    /**
+     * Đóng đoạn đang ghi, lần append sau mở đoạn mới. Trả về null nếu chưa có đoạn nào mở
+     */
+    synchronized Path rotate() {
+        if (channel == null) {
+            return null;
+        }
+        Path closed = current;
+        close();
+        return closed;
+    }
+
+    synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close review journal", e);
+            } finally {
+                channel = null;
+                current = null;
+            }
+        }
+    }
+
+    void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete review journal segment " + segment, e);
+        }
+    }
+
+    /**
+     * Các đoạn trên đĩa theo thứ tự ghi
+     */
+    List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .toList());
+            segments.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list review journal directory " + directory, e);
+        }
+    }
+
+    List<String> read(Path segment) {
+        try {
+            return Files.readAllLines(segment, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read review journal segment " + segment, e);
+        }
+    }
+
+    long sizeBytes() {
+        long total = 0;
+        for (Path segment : segments()) {
+            try {
+                total += Files.size(segment);
+            } catch (IOException e) {
+                // Đoạn vừa bị xóa bởi lần flush đang chạy
+            }
+        }
+        return total;
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
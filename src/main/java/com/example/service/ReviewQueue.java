@@ -0,0 +1,284 @@
+package com.example.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.entity.UserLearningVocab;
+import com.example.event.UserAccountChangedEvent;
+import com.example.repository.UserLearningVocabRepository;
+
+/**
+ * Hàng đợi ôn tập trong bộ nhớ cho người dùng đang hoạt động: các thẻ được sắp theo
+ * nextReviewAt (cây cân bằng, hỗ trợ cập nhật một phần tử trong O(log n)), nên lấy k thẻ
+ * đến hạn tiếp theo không cần truy vấn DB. Nạp lười ở lần truy cập đầu, được
+ * UserLearningVocabService cập nhật sau khi commit, và bị bỏ khi không dùng một thời gian.
+ */
+@Component
+public class ReviewQueue {
+
+    private final UserLearningVocabRepository userLearningVocabRepository;
+
+    private final long idleTtlMs;
+    private final int maxUsers;
+
+    private final ConcurrentHashMap<UUID, UserQueue> queues = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder warmUps = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReviewQueue(UserLearningVocabRepository userLearningVocabRepository,
+            @Value("${learning.review-queue.idle-ttl-ms:1800000}") long idleTtlMs,
+            @Value("${learning.review-queue.max-users:10000}") int maxUsers) {
+        this.userLearningVocabRepository = userLearningVocabRepository;
+        this.idleTtlMs = idleTtlMs;
+        this.maxUsers = maxUsers;
+    }
+
+    public boolean isLoaded(UUID userId) {
+        UserQueue queue = queues.get(userId);
+        return queue != null && queue.loaded;
+    }
+
+    /**
+     * Trả về tối đa limit thẻ có nextReviewAt <= now, sớm nhất trước
+     */
+    public List<UserLearningVocab> nextDue(UUID userId, OffsetDateTime now, int limit) {
+        UserQueue queue = queues.get(userId);
+        if (queue == null) {
+            if (queues.size() >= maxUsers) {
+                evictIdle();
+            }
+            // Vẫn đầy: phục vụ thẳng từ DB, không giữ thêm người dùng trong bộ nhớ
+            if (queues.size() >= maxUsers) {
+                fallbacks.increment();
+                return userLearningVocabRepository.findVocabsToReview(userId, now,
+                        PageRequest.of(0, limit, Sort.by("nextReviewAt"))).getContent();
+            }
+            UserQueue created = new UserQueue();
+            queue = queues.putIfAbsent(userId, created);
+            if (queue == null) {
+                queue = created;
+            }
+        }
+
+        synchronized (queue) {
+            if (queue.loaded) {
+                hits.increment();
+            } else {
+                queue.fill(userLearningVocabRepository.findReviewQueueEntries(userId));
+                warmUps.increment();
+            }
+            queue.lastAccess = System.currentTimeMillis();
+            return queue.peekDue(now.toInstant().toEpochMilli(), limit);
+        }
+    }
+
+    /**
+     * Ghi nhận trạng thái mới của một thẻ (sau khi ôn tập hoặc vừa thêm)
+     */
+    public void update(UUID userId, UserLearningVocab entry) {
+        afterCommit(() -> {
+            UserQueue queue = queues.get(userId);
+            if (queue != null) {
+                synchronized (queue) {
+                    queue.put(entry);
+                }
+            }
+        });
+    }
+
+    public void updateAll(UUID userId, Collection<UserLearningVocab> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            UserQueue queue = queues.get(userId);
+            if (queue != null) {
+                synchronized (queue) {
+                    entries.forEach(queue::put);
+                }
+            }
+        });
+    }
+
+    public void remove(UUID userId, UUID vocabId) {
+        afterCommit(() -> {
+            UserQueue queue = queues.get(userId);
+            if (queue != null) {
+                synchronized (queue) {
+                    queue.remove(vocabId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Bỏ hàng đợi của người dùng sau khi commit, lần đọc sau sẽ nạp lại từ DB
+     */
+    public void invalidate(UUID userId) {
+        afterCommit(() -> evict(userId));
+    }
+
+    public void evict(UUID userId) {
+        if (queues.remove(userId) != null) {
+            evictions.increment();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        if (event.getChangeType() == UserAccountChangedEvent.ChangeType.DELETED) {
+            evict(event.getUserId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${learning.review-queue.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtlMs;
+        queues.forEach((userId, queue) -> {
+            if (queue.lastAccess < cutoff && queues.remove(userId, queue)) {
+                evictions.increment();
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        long cards = 0;
+        for (UserQueue queue : queues.values()) {
+            cards += queue.size;
+        }
+        long hitCount = hits.sum();
+        long total = hitCount + warmUps.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("users", queues.size());
+        stats.put("maxUsers", maxUsers);
+        stats.put("cards", cards);
+        stats.put("hits", hitCount);
+        stats.put("warmUps", warmUps.sum());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("evictions", evictions.sum());
+        stats.put("dbFallbacks", fallbacks.sum());
+        stats.put("idleTtlMs", idleTtlMs);
+        return stats;
+    }
+
+    // Chỉ áp dụng vào hàng đợi khi giao dịch đã commit, tránh lệch với DB khi rollback
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long dueAt(UserLearningVocab entry) {
+        // Giống findVocabsToReview: thẻ chưa có nextReviewAt không bao giờ đến hạn
+        return entry.getNextReviewAt() != null ? entry.getNextReviewAt().toInstant().toEpochMilli() : Long.MAX_VALUE;
+    }
+
+    private static final class Node implements Comparable<Node> {
+
+        final long dueAt;
+        final UUID vocabId;
+        final UserLearningVocab entry;
+
+        Node(UserLearningVocab entry) {
+            this.dueAt = dueAt(entry);
+            this.vocabId = entry.getVocabulary().getVocabId();
+            this.entry = entry;
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            int byDue = Long.compare(dueAt, other.dueAt);
+            return byDue != 0 ? byDue : vocabId.compareTo(other.vocabId);
+        }
+    }
+
+    /**
+     * Hàng đợi của một người dùng; mọi truy cập đều synchronized trên chính đối tượng này
+     */
+    private static final class UserQueue {
+
+        private final TreeSet<Node> order = new TreeSet<>();
+        private final Map<UUID, Node> byVocab = new HashMap<>();
+        // Thẻ bị xóa trước khi nạp xong, không được để dữ liệu nạp cũ đưa trở lại
+        private final Set<UUID> removedBeforeLoad = new HashSet<>();
+
+        volatile boolean loaded;
+        volatile int size;
+        volatile long lastAccess = System.currentTimeMillis();
+
+        void fill(List<UserLearningVocab> entries) {
+            for (UserLearningVocab entry : entries) {
+                UUID vocabId = entry.getVocabulary().getVocabId();
+                // Cập nhật đến trước khi nạp xong là mới hơn dữ liệu vừa đọc
+                if (!byVocab.containsKey(vocabId) && !removedBeforeLoad.contains(vocabId)) {
+                    put(entry);
+                }
+            }
+            removedBeforeLoad.clear();
+            loaded = true;
+        }
+
+        void put(UserLearningVocab entry) {
+            Node node = new Node(entry);
+            Node previous = byVocab.put(node.vocabId, node);
+            if (previous != null) {
+                order.remove(previous);
+            }
+            order.add(node);
+            size = byVocab.size();
+        }
+
+        void remove(UUID vocabId) {
+            Node previous = byVocab.remove(vocabId);
+            if (previous != null) {
+                order.remove(previous);
+            }
+            if (!loaded) {
+                removedBeforeLoad.add(vocabId);
+            }
+            size = byVocab.size();
+        }
+
+        List<UserLearningVocab> peekDue(long nowMillis, int limit) {
+            List<UserLearningVocab> due = new ArrayList<>(Math.min(limit, order.size()));
+            for (Node node : order) {
+                if (due.size() >= limit || node.dueAt > nowMillis) {
+                    break;
+                }
+                due.add(node.entry);
+            }
+            return due;
+        }
+    }
+}
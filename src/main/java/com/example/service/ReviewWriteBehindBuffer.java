@@ -0,0 +1,457 @@
+package com.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.entity.UserLearningVocab;
+import com.example.entity.UserLearningVocab.UserLearningVocabId;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Chế độ write-behind cho kết quả ôn tập: trạng thái mới của thẻ được giữ trong bộ nhớ
+ * (chỉ bản mới nhất cho mỗi cặp userId, vocabId) và ghi vào nhật ký trước khi xác nhận với
+ * client. Định kỳ, toàn bộ thay đổi được ghi xuống DB bằng JDBC batch trong một giao dịch.
+ * Khi khởi động, nhật ký còn sót lại (do tắt đột ngột) được phát lại; khi tắt bình thường,
+ * bộ đệm được flush hết.
+ */
+@Component
+public class ReviewWriteBehindBuffer {
+
+    private static final int LOCK_STRIPES = 256;
+
+    private static final String UPDATE_SQL = "UPDATE user_learning_vocab SET last_review_at = ?, next_review_at = ?,"
+            + " ease_factor = ?, repetition_count = ?, success_rate = ?, stability = ?, difficulty = ?,"
+            + " updated_at = ?, version = version + 1 WHERE user_id = ? AND vocab_id = ?";
+
+    // event_key là duy nhất: phát lại đoạn nhật ký đã commit (tắt giữa commit và xóa đoạn) không nhân đôi sự kiện
+    private static final String INSERT_EVENT_SQL = "INSERT INTO review_event"
+            + " (event_id, user_id, vocab_id, is_correct, reviewed_at, recorded_at, projected_at, event_key)"
+            + " VALUES (nextval('review_event_seq'), ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final ReviewJournal journal;
+
+    private final Object[] userLocks = new Object[LOCK_STRIPES];
+
+    // Khóa đọc cho mỗi lần ghi nhận, khóa ghi khi flush tách bộ đệm và xoay vòng nhật ký
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentHashMap<UserLearningVocabId, Pending> pending = new ConcurrentHashMap<>();
+    // Lô đã tách khỏi pending nhưng chưa commit; vẫn phải đọc được cho tới khi DB có dữ liệu mới
+    private volatile ConcurrentHashMap<UserLearningVocabId, Pending> flushing = new ConcurrentHashMap<>();
+    // Các đoạn nhật ký đã đóng nhưng dữ liệu chưa commit (flush trước đó lỗi)
+    private final List<Path> unflushedSegments = new ArrayList<>();
+
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder flushedReviews = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder replayedRows = new LongAdder();
+    private final LongAdder skippedJournalLines = new LongAdder();
+    private volatile long lastFlushMillis;
+
+    public ReviewWriteBehindBuffer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${learning.review-write-behind.enabled:false}") boolean enabled,
+            @Value("${learning.review-write-behind.journal-dir:./data/review-journal}") String journalDir,
+            @Value("${learning.review-write-behind.fsync:true}") boolean fsync,
+            @Value("${learning.review-write-behind.flush-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            userLocks[i] = new Object();
+        }
+        // Khi tắt chế độ này vẫn mở nhật ký cũ (nếu có) để phát lại những gì đã xác nhận
+        Path directory = Paths.get(journalDir);
+        this.journal = enabled || Files.isDirectory(directory) ? new ReviewJournal(directory, fsync) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Khóa theo người dùng: tính trạng thái mới và ghi nhận phải diễn ra liền nhau,
+     * nếu không hai lần ôn tập đồng thời sẽ cùng đọc một trạng thái cũ
+     */
+    public Object lockFor(UUID userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Trạng thái mới nhất chưa được ghi xuống DB, hoặc null. Không được sửa trực tiếp đối tượng trả về
+     */
+    public UserLearningVocab findPending(UUID userId, UUID vocabId) {
+        UserLearningVocabId key = new UserLearningVocabId(userId, vocabId);
+        // Đọc pending trước: flush gán flushing trước khi thay pending nên không có khe hở nào
+        Pending entry = pending.get(key);
+        if (entry == null) {
+            entry = flushing.get(key);
+        }
+        return entry != null ? entry.state : null;
+    }
+
+    /**
+     * Ghi nhận trạng thái mới của một thẻ cùng các lần ôn tập tạo ra nó.
+     * Khi hàm trả về, lần ôn tập đã nằm trong nhật ký và có thể xác nhận với client.
+     */
+    public void record(UserLearningVocab state, List<Outcome> outcomes) {
+        UUID userId = state.getUser().getUserId();
+        UUID vocabId = state.getVocabulary().getVocabId();
+        swapLock.readLock().lock();
+        try {
+            journal.append(toJournalLine(userId, vocabId, state, outcomes));
+            pending.compute(new UserLearningVocabId(userId, vocabId), (key, entry) -> {
+                Pending updated = entry != null ? entry : new Pending();
+                updated.state = state;
+                updated.outcomes.addAll(outcomes);
+                return updated;
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        acknowledged.add(outcomes.size());
+    }
+
+    /**
+     * Bỏ trạng thái đang chờ của một thẻ vừa bị xóa khỏi danh sách học
+     */
+    public void discard(UUID userId, UUID vocabId) {
+        UserLearningVocabId key = new UserLearningVocabId(userId, vocabId);
+        pending.remove(key);
+        flushing.remove(key);
+    }
+
+    @Scheduled(fixedDelayString = "${learning.review-write-behind.flush-interval-ms:500}")
+    public synchronized int flush() {
+        if (journal == null) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        ConcurrentHashMap<UserLearningVocabId, Pending> batch;
+        swapLock.writeLock().lock();
+        try {
+            batch = pending;
+            if (batch.isEmpty() && unflushedSegments.isEmpty()) {
+                return 0;
+            }
+            flushing = batch;
+            pending = new ConcurrentHashMap<>();
+            Path segment = journal.rotate();
+            if (segment != null) {
+                unflushedSegments.add(segment);
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        List<FlushRow> rows = new ArrayList<>(batch.size());
+        batch.forEach((key, entry) -> rows.add(FlushRow.of(entry.state, entry.outcomes)));
+        try {
+            write(rows);
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            requeue(batch);
+            flushing = new ConcurrentHashMap<>();
+            throw e;
+        }
+        flushing = new ConcurrentHashMap<>();
+
+        // Dữ liệu đã commit: các đoạn nhật ký tương ứng không còn cần cho việc phát lại
+        unflushedSegments.forEach(journal::delete);
+        unflushedSegments.clear();
+        flushes.increment();
+        lastFlushMillis = System.currentTimeMillis() - start;
+        return rows.size();
+    }
+
+    /**
+     * Phát lại nhật ký còn sót từ lần chạy trước. Trạng thái trong nhật ký là giá trị tuyệt đối
+     * nên ghi lại nhiều lần vẫn cho cùng kết quả; sự kiện ôn tập đã có trong DB được bỏ qua theo event_key.
+     */
+    @PostConstruct
+    public void replay() {
+        if (journal == null) {
+            return;
+        }
+        List<Path> segments = journal.segments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        Map<UserLearningVocabId, FlushRow> rows = new LinkedHashMap<>();
+        for (Path segment : segments) {
+            for (String line : journal.read(segment)) {
+                FlushRow row = parseJournalLine(line);
+                if (row == null) {
+                    // Dòng ghi dở khi tiến trình dừng: chưa được xác nhận với client
+                    skippedJournalLines.increment();
+                    continue;
+                }
+                rows.merge(new UserLearningVocabId(row.userId, row.vocabId), row, (older, newer) -> {
+                    newer.outcomes.addAll(0, older.outcomes);
+                    return newer;
+                });
+            }
+        }
+        write(rows.values());
+        segments.forEach(journal::delete);
+        replayedRows.add(rows.size());
+    }
+
+    @PreDestroy
+    public void drain() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            journal.close();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        ConcurrentHashMap<UserLearningVocabId, Pending> current = pending;
+        long pendingReviews = 0;
+        for (Pending entry : current.values()) {
+            pendingReviews += entry.outcomes.size();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pendingCards", current.size());
+        stats.put("pendingReviews", pendingReviews);
+        stats.put("acknowledgedReviews", acknowledged.sum());
+        stats.put("flushedRows", flushedRows.sum());
+        stats.put("flushedReviews", flushedReviews.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("lastFlushMs", lastFlushMillis);
+        stats.put("replayedRows", replayedRows.sum());
+        stats.put("skippedJournalLines", skippedJournalLines.sum());
+        stats.put("journalBytes", journal != null ? journal.sizeBytes() : 0);
+        return stats;
+    }
+
+    private void write(Collection<FlushRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Object[]> events = new ArrayList<>();
+        for (FlushRow row : rows) {
+            for (Outcome outcome : row.outcomes) {
+                events.add(new Object[] { row.userId, row.vocabId, outcome.correct, outcome.reviewedAt,
+                        outcome.eventKey });
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, rows, batchSize, (ps, row) -> {
+                setTimestamp(ps, 1, row.lastReviewAt);
+                setTimestamp(ps, 2, row.nextReviewAt);
+                ps.setFloat(3, row.easeFactor);
+                ps.setLong(4, row.repetitionCount);
+                ps.setFloat(5, row.successRate);
+                setFloat(ps, 6, row.stability);
+                setFloat(ps, 7, row.difficulty);
+                ps.setObject(8, now);
+                ps.setObject(9, row.userId);
+                ps.setObject(10, row.vocabId);
+            });
+            jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events, batchSize, (ps, event) -> {
+                ps.setObject(1, event[0]);
+                ps.setObject(2, event[1]);
+                ps.setBoolean(3, (Boolean) event[2]);
+                ps.setObject(4, event[3]);
+                ps.setObject(5, now);
+                ps.setObject(6, now);
+                ps.setObject(7, event[4]);
+            });
+        });
+        flushedRows.add(rows.size());
+        flushedReviews.add(events.size());
+    }
+
+    // Trả lô lỗi về bộ đệm; bản ghi nhận mới hơn (nếu có) vẫn giữ trạng thái của nó
+    private void requeue(Map<UserLearningVocabId, Pending> batch) {
+        swapLock.readLock().lock();
+        try {
+            batch.forEach((key, failed) -> pending.merge(key, failed, (newer, older) -> {
+                newer.outcomes.addAll(0, older.outcomes);
+                return newer;
+            }));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, OffsetDateTime value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP_WITH_TIMEZONE);
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+
+    private static void setFloat(PreparedStatement ps, int index, Float value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.REAL);
+        } else {
+            ps.setFloat(index, value);
+        }
+    }
+
+    // userId, vocabId, các trường trạng thái, rồi danh sách kết quả dạng 1@reviewedAt@eventKey;0@reviewedAt@eventKey
+    private static String toJournalLine(UUID userId, UUID vocabId, UserLearningVocab state, List<Outcome> outcomes) {
+        StringBuilder line = new StringBuilder(256)
+                .append(userId).append('\t')
+                .append(vocabId).append('\t')
+                .append(nullToEmpty(state.getLastReviewAt())).append('\t')
+                .append(nullToEmpty(state.getNextReviewAt())).append('\t')
+                .append(state.getEaseFactor()).append('\t')
+                .append(state.getRepetitionCount()).append('\t')
+                .append(state.getSuccessRate()).append('\t')
+                .append(nullToEmpty(state.getStability())).append('\t')
+                .append(nullToEmpty(state.getDifficulty())).append('\t');
+        for (int i = 0; i < outcomes.size(); i++) {
+            if (i > 0) {
+                line.append(';');
+            }
+            Outcome outcome = outcomes.get(i);
+            line.append(outcome.correct ? '1' : '0').append('@').append(outcome.reviewedAt)
+                    .append('@').append(outcome.eventKey);
+        }
+        return line.toString();
+    }
+
+    static FlushRow parseJournalLine(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 10 || fields[9].isEmpty()) {
+            return null;
+        }
+        try {
+            FlushRow row = new FlushRow();
+            row.userId = UUID.fromString(fields[0]);
+            row.vocabId = UUID.fromString(fields[1]);
+            row.lastReviewAt = fields[2].isEmpty() ? null : OffsetDateTime.parse(fields[2]);
+            row.nextReviewAt = fields[3].isEmpty() ? null : OffsetDateTime.parse(fields[3]);
+            row.easeFactor = Float.parseFloat(fields[4]);
+            row.repetitionCount = Long.parseLong(fields[5]);
+            row.successRate = Float.parseFloat(fields[6]);
+            row.stability = fields[7].isEmpty() ? null : Float.valueOf(fields[7]);
+            row.difficulty = fields[8].isEmpty() ? null : Float.valueOf(fields[8]);
+            String[] items = fields[9].split(";");
+            for (int i = 0; i < items.length; i++) {
+                String[] parts = items[i].split("@");
+                // Dòng ghi trước khi có event_key: suy ra khóa cố định từ nội dung dòng
+                UUID eventKey = parts.length > 2 ? UUID.fromString(parts[2])
+                        : UUID.nameUUIDFromBytes((line + '#' + i).getBytes(StandardCharsets.UTF_8));
+                row.outcomes.add(new Outcome(parts[0].equals("1"), OffsetDateTime.parse(parts[1]), eventKey));
+            }
+            return row;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String nullToEmpty(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Một lần ôn tập đã được xác nhận
+     */
+    public static final class Outcome {
+
+        private final boolean correct;
+        private final OffsetDateTime reviewedAt;
+        private final UUID eventKey;
+
+        public Outcome(boolean correct, OffsetDateTime reviewedAt) {
+            this(correct, reviewedAt, UUID.randomUUID());
+        }
+
+        Outcome(boolean correct, OffsetDateTime reviewedAt, UUID eventKey) {
+            this.correct = correct;
+            this.reviewedAt = reviewedAt;
+            this.eventKey = eventKey;
+        }
+
+        public boolean isCorrect() {
+            return correct;
+        }
+
+        public OffsetDateTime getReviewedAt() {
+            return reviewedAt;
+        }
+
+        public UUID getEventKey() {
+            return eventKey;
+        }
+    }
+
+    // Mọi thay đổi diễn ra trong compute/merge của ConcurrentHashMap trên cùng khóa
+    private static final class Pending {
+
+        volatile UserLearningVocab state;
+        final List<Outcome> outcomes = new ArrayList<>();
+    }
+
+    static final class FlushRow {
+
+        UUID userId;
+        UUID vocabId;
+        OffsetDateTime lastReviewAt;
+        OffsetDateTime nextReviewAt;
+        float easeFactor;
+        long repetitionCount;
+        float successRate;
+        Float stability;
+        Float difficulty;
+        final List<Outcome> outcomes = new ArrayList<>();
+
+        static FlushRow of(UserLearningVocab state, List<Outcome> outcomes) {
+            FlushRow row = new FlushRow();
+            row.userId = state.getUser().getUserId();
+            row.vocabId = state.getVocabulary().getVocabId();
+            row.lastReviewAt = state.getLastReviewAt();
+            row.nextReviewAt = state.getNextReviewAt();
+            row.easeFactor = state.getEaseFactor();
+            row.repetitionCount = state.getRepetitionCount();
+            row.successRate = state.getSuccessRate();
+            row.stability = state.getStability();
+            row.difficulty = state.getDifficulty();
+            row.outcomes.addAll(outcomes);
+            return row;
+        }
+    }
+}
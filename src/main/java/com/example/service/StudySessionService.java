@@ -0,0 +1,367 @@
+package com.example.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.dto.ReviewOutcomeDTO;
+import com.example.dto.ReviewResultDTO;
+import com.example.entity.UserLearningVocab;
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.ServiceOverloadedException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Phiên học trên server: mở phiên trả về ngay các thẻ đến hạn, mỗi lần gửi kết quả nhận luôn
+ * các thẻ tiếp theo. Kết quả được giữ trong phiên và ghi xuống DB theo lô qua
+ * UserLearningVocabService.updateAfterReviews khi đủ flush-threshold, khi đóng phiên
+ * hoặc khi phiên hết hạn. Mỗi lần ghi không vượt quá learning.review.max-batch-size.
+ */
+@Service
+public class StudySessionService {
+
+    private final UserLearningVocabService userLearningVocabService;
+
+    private final int maxCardsPerCall;
+    private final int maxOutcomesPerCall;
+    private final int maxBatchSize;
+    private final int flushThreshold;
+    private final long idleTtlMs;
+    private final int maxSessions;
+
+    private final ConcurrentHashMap<UUID, StudySession> sessions = new ConcurrentHashMap<>();
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder cardsServed = new LongAdder();
+    private final LongAdder outcomesPersisted = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder droppedOutcomes = new LongAdder();
+
+    public StudySessionService(UserLearningVocabService userLearningVocabService,
+            @Value("${learning.study-session.max-cards-per-call:50}") int maxCardsPerCall,
+            @Value("${learning.study-session.flush-threshold:10}") int flushThreshold,
+            @Value("${learning.study-session.idle-ttl-ms:1800000}") long idleTtlMs,
+            @Value("${learning.study-session.max-sessions:10000}") int maxSessions,
+            @Value("${learning.study-session.max-outcomes-per-call:100}") int maxOutcomesPerCall,
+            @Value("${learning.review.max-batch-size:500}") int maxBatchSize) {
+        this.userLearningVocabService = userLearningVocabService;
+        this.maxCardsPerCall = maxCardsPerCall;
+        this.maxOutcomesPerCall = maxOutcomesPerCall;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.flushThreshold = Math.max(1, flushThreshold);
+        this.idleTtlMs = idleTtlMs;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Mở phiên học mới và trả về tối đa size thẻ đến hạn đầu tiên
+     */
+    public Step open(UUID userId, int size) {
+        checkSize(size);
+        if (sessions.size() >= maxSessions) {
+            expireIdle();
+            if (sessions.size() >= maxSessions) {
+                throw new ServiceOverloadedException("Too many open study sessions, please retry shortly", 60);
+            }
+        }
+
+        StudySession session = new StudySession(UUID.randomUUID(), userId);
+        synchronized (session) {
+            List<UserLearningVocab> cards = nextCards(session, size);
+            sessions.put(session.sessionId, session);
+            opened.increment();
+            return session.step(cards, List.of());
+        }
+    }
+
+    /**
+     * Nhận kết quả của các thẻ đã trả lời và trả về tối đa next thẻ tiếp theo
+     */
+    public Step submit(UUID userId, UUID sessionId, List<ReviewOutcomeDTO> outcomes, int next) {
+        if (next < 0 || next > maxCardsPerCall) {
+            throw new IllegalArgumentException("next must be between 0 and " + maxCardsPerCall);
+        }
+        if (outcomes != null && outcomes.size() > maxOutcomesPerCall) {
+            throw new IllegalArgumentException("Too many outcomes in one request (max " + maxOutcomesPerCall + ")");
+        }
+        StudySession session = find(userId, sessionId);
+        synchronized (session) {
+            if (session.closed) {
+                throw new ResourceNotFoundException("Study session not found: " + sessionId);
+            }
+            List<UserLearningVocabService.ReviewItemResult> rejected = accept(session, outcomes);
+            if (session.buffer.size() >= flushThreshold) {
+                flushQuietly(session, rejected);
+            }
+            List<UserLearningVocab> cards = next > 0 ? nextCards(session, next) : List.of();
+            return session.step(cards, rejected);
+        }
+    }
+
+    /**
+     * Đóng phiên: ghi nốt các kết quả còn giữ. Nếu ghi lỗi, phiên vẫn mở để client đóng lại lần nữa
+     */
+    public Step close(UUID userId, UUID sessionId) {
+        StudySession session = find(userId, sessionId);
+        synchronized (session) {
+            List<UserLearningVocabService.ReviewItemResult> rejected = new ArrayList<>();
+            if (!session.closed) {
+                flush(session, rejected);
+                session.closed = true;
+                sessions.remove(sessionId, session);
+                closed.increment();
+            }
+            return session.step(List.of(), rejected);
+        }
+    }
+
+    /**
+     * Phiên không được dùng quá idle-ttl-ms: ghi các kết quả còn giữ rồi bỏ phiên
+     */
+    @Scheduled(fixedDelayString = "${learning.study-session.expire-interval-ms:60000}")
+    public void expireIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtlMs;
+        sessions.forEach((sessionId, session) -> {
+            if (session.lastAccess < cutoff) {
+                synchronized (session) {
+                    if (flushQuietly(session, new ArrayList<>()) && sessions.remove(sessionId, session)) {
+                        session.closed = true;
+                        expired.increment();
+                    }
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void drain() {
+        sessions.values().forEach(session -> {
+            synchronized (session) {
+                flushQuietly(session, new ArrayList<>());
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        long pending = 0;
+        for (StudySession session : sessions.values()) {
+            pending += session.buffer.size();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("openSessions", sessions.size());
+        stats.put("maxSessions", maxSessions);
+        stats.put("pendingOutcomes", pending);
+        stats.put("opened", opened.sum());
+        stats.put("closed", closed.sum());
+        stats.put("expired", expired.sum());
+        stats.put("cardsServed", cardsServed.sum());
+        stats.put("outcomesPersisted", outcomesPersisted.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("droppedOutcomes", droppedOutcomes.sum());
+        stats.put("flushThreshold", flushThreshold);
+        return stats;
+    }
+
+    private StudySession find(UUID userId, UUID sessionId) {
+        StudySession session = sessions.get(sessionId);
+        // Phiên của người khác cũng trả về "không tìm thấy"
+        if (session == null || !session.userId.equals(userId)) {
+            throw new ResourceNotFoundException("Study session not found: " + sessionId);
+        }
+        session.lastAccess = System.currentTimeMillis();
+        return session;
+    }
+
+    private void checkSize(int size) {
+        if (size <= 0 || size > maxCardsPerCall) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxCardsPerCall);
+        }
+    }
+
+    // Chỉ nhận kết quả cho thẻ đã được phát trong phiên này
+    private List<UserLearningVocabService.ReviewItemResult> accept(StudySession session, List<ReviewOutcomeDTO> outcomes) {
+        List<UserLearningVocabService.ReviewItemResult> rejected = new ArrayList<>();
+        if (outcomes == null) {
+            return rejected;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        for (ReviewOutcomeDTO outcome : outcomes) {
+            String rawId = outcome != null ? outcome.getVocabId() : null;
+            if (rawId == null || outcome.getIsCorrect() == null) {
+                rejected.add(UserLearningVocabService.ReviewItemResult.failed(rawId, ReviewResultDTO.INVALID,
+                        "vocabId and isCorrect are required"));
+                continue;
+            }
+            UUID vocabId;
+            try {
+                vocabId = UUID.fromString(rawId);
+            } catch (IllegalArgumentException e) {
+                rejected.add(UserLearningVocabService.ReviewItemResult.failed(rawId, ReviewResultDTO.INVALID,
+                        "Invalid vocabId"));
+                continue;
+            }
+            if (!session.served.contains(vocabId)) {
+                rejected.add(UserLearningVocabService.ReviewItemResult.failed(rawId, ReviewResultDTO.INVALID,
+                        "Card was not served in this session"));
+                continue;
+            }
+            // Ghi thời điểm nhận ngay bây giờ, nếu không lịch ôn sẽ tính theo lúc flush
+            OffsetDateTime reviewedAt = outcome.getReviewedAt() != null ? outcome.getReviewedAt() : now;
+            session.buffer.add(new ReviewOutcomeDTO(rawId, outcome.getIsCorrect(), reviewedAt));
+            session.submitted++;
+        }
+        return rejected;
+    }
+
+    private boolean flushQuietly(StudySession session, List<UserLearningVocabService.ReviewItemResult> rejected) {
+        try {
+            flush(session, rejected);
+            return true;
+        } catch (RuntimeException e) {
+            // Kết quả vẫn nằm trong phiên, lần flush sau sẽ thử lại
+            failedFlushes.increment();
+            return false;
+        }
+    }
+
+    // Ghi từng lô tối đa max-batch-size; lô đã commit được bỏ khỏi bộ đệm ngay nên lỗi ở lô sau không ghi lại lô trước
+    private void flush(StudySession session, List<UserLearningVocabService.ReviewItemResult> rejected) {
+        while (!session.buffer.isEmpty()) {
+            List<ReviewOutcomeDTO> chunk = session.buffer.subList(0, Math.min(maxBatchSize, session.buffer.size()));
+            List<ReviewOutcomeDTO> batch = new ArrayList<>(chunk);
+            try {
+                for (UserLearningVocabService.ReviewItemResult result
+                        : userLearningVocabService.updateAfterReviews(session.userId, batch)) {
+                    if (result.getEntry() == null) {
+                        rejected.add(result);
+                    }
+                }
+            } catch (IllegalArgumentException | ResourceNotFoundException e) {
+                // Thử lại cũng không thành công (dữ liệu sai, user đã bị xóa): bỏ lô và báo lại cho client
+                for (ReviewOutcomeDTO outcome : batch) {
+                    rejected.add(UserLearningVocabService.ReviewItemResult.failed(outcome.getVocabId(),
+                            e instanceof ResourceNotFoundException ? ReviewResultDTO.NOT_FOUND : ReviewResultDTO.INVALID,
+                            e.getMessage()));
+                }
+                droppedOutcomes.add(batch.size());
+                chunk.clear();
+                continue;
+            }
+            chunk.clear();
+            session.persisted += batch.size();
+            outcomesPersisted.add(batch.size());
+            flushes.increment();
+        }
+    }
+
+    // Thẻ đã phát trong phiên không được phát lại, kể cả khi kết quả của nó chưa xuống DB
+    private List<UserLearningVocab> nextCards(StudySession session, int limit) {
+        List<UserLearningVocab> due = userLearningVocabService.getVocabsToReview(session.userId,
+                limit + session.served.size());
+        List<UserLearningVocab> cards = new ArrayList<>(limit);
+        for (UserLearningVocab entry : due) {
+            if (cards.size() >= limit) {
+                break;
+            }
+            if (session.served.add(entry.getVocabulary().getVocabId())) {
+                cards.add(entry);
+            }
+        }
+        cardsServed.add(cards.size());
+        return cards;
+    }
+
+    /**
+     * Kết quả của một lần gọi: thẻ tiếp theo và tiến độ của phiên
+     */
+    public static class Step {
+
+        private final UUID sessionId;
+        private final List<UserLearningVocab> cards;
+        private final int submitted;
+        private final int persisted;
+        private final int pending;
+        private final List<UserLearningVocabService.ReviewItemResult> rejected;
+        private final boolean closed;
+
+        private Step(UUID sessionId, List<UserLearningVocab> cards, int submitted, int persisted, int pending,
+                List<UserLearningVocabService.ReviewItemResult> rejected, boolean closed) {
+            this.sessionId = sessionId;
+            this.cards = cards;
+            this.submitted = submitted;
+            this.persisted = persisted;
+            this.pending = pending;
+            this.rejected = rejected;
+            this.closed = closed;
+        }
+
+        public UUID getSessionId() {
+            return sessionId;
+        }
+
+        public List<UserLearningVocab> getCards() {
+            return cards;
+        }
+
+        public int getSubmitted() {
+            return submitted;
+        }
+
+        public int getPersisted() {
+            return persisted;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        public List<UserLearningVocabService.ReviewItemResult> getRejected() {
+            return rejected;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+    }
+
+    /**
+     * Mọi truy cập đều synchronized trên chính phiên
+     */
+    private static final class StudySession {
+
+        final UUID sessionId;
+        final UUID userId;
+        final Set<UUID> served = new LinkedHashSet<>();
+        final List<ReviewOutcomeDTO> buffer = new ArrayList<>();
+        int submitted;
+        int persisted;
+        boolean closed;
+        volatile long lastAccess = System.currentTimeMillis();
+
+        StudySession(UUID sessionId, UUID userId) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+        }
+
+        Step step(List<UserLearningVocab> cards, List<UserLearningVocabService.ReviewItemResult> rejected) {
+            return new Step(sessionId, cards, submitted, persisted, buffer.size(), rejected, closed);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dto.TestGenerationJobDTO;
+import com.example.dto.TestGenerationRequestDTO;
+import com.example.entity.Test;
+import com.example.entity.Topic;
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.ServiceOverloadedException;
+import com.example.repository.TopicRepository;
+import com.example.repository.VocabularyRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sinh bài test ở chế độ nền: request trả về job id ngay, việc tạo test và sinh câu hỏi chạy
+ * trên một pool có giới hạn. Mỗi job giữ một kết nối DB trong suốt giao dịch của nó nên
+ * max-concurrent-jobs cũng là số kết nối tối đa mà việc sinh test chiếm; khi hàng đợi đầy
+ * thì từ chối bằng ServiceOverloadedException (503 + Retry-After). Job bị hủy hoặc lỗi
+ * được rollback toàn bộ, kể cả bài test.
+ */
+@Service
+public class TestGenerationJobService {
+
+    // Thua cuộc đua tạo cùng một câu hỏi ngân hàng (uk_questions_bank_key): chạy lại một lần là dùng câu của bên thắng
+    private static final int MAX_ATTEMPTS = 2;
+
+    public enum JobStatus {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    private final TestService testService;
+    private final QuestionGenerationService questionGenerationService;
+    private final TopicRepository topicRepository;
+    private final VocabularyRepository vocabularyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolExecutor executor;
+    private final int maxQuestions;
+    private final long retentionMs;
+    private final long retryAfterSeconds;
+
+    private final ConcurrentHashMap<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+
+    public TestGenerationJobService(TestService testService, QuestionGenerationService questionGenerationService,
+            TopicRepository topicRepository, VocabularyRepository vocabularyRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${learning.test-generation.max-concurrent-jobs:2}") int maxConcurrentJobs,
+            @Value("${learning.test-generation.queue-capacity:20}") int queueCapacity,
+            @Value("${learning.test-generation.max-questions:5000}") int maxQuestions,
+            @Value("${learning.test-generation.retention-ms:600000}") long retentionMs,
+            @Value("${learning.test-generation.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.testService = testService;
+        this.questionGenerationService = questionGenerationService;
+        this.topicRepository = topicRepository;
+        this.vocabularyRepository = vocabularyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxQuestions = maxQuestions;
+        this.retentionMs = retentionMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        int poolSize = Math.max(1, maxConcurrentJobs);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "test-generation-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Kiểm tra yêu cầu, đưa job vào hàng đợi và trả về trạng thái QUEUED
+     */
+    public TestGenerationJobDTO submit(TestGenerationRequestDTO request) {
+        if (request.getTestType() == null) {
+            throw new IllegalArgumentException("Test type must not be null");
+        }
+        if (request.getNumQuestions() == null || request.getNumQuestions() <= 0
+                || request.getNumQuestions() > maxQuestions) {
+            throw new IllegalArgumentException("Number of Questions must be between 1 and " + maxQuestions);
+        }
+        UUID topicId = request.getTopicId() != null ? UUID.fromString(request.getTopicId()) : null;
+        if (topicId != null && !topicRepository.existsById(topicId)) {
+            throw new ResourceNotFoundException("Topic not found with id: " + topicId);
+        }
+
+        List<String> words = request.getWords() != null && !request.getWords().isEmpty()
+                ? new ArrayList<>(request.getWords())
+                : topicId != null ? vocabularyRepository.findWordsByTopicId(topicId) : List.of();
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("No words to generate questions from");
+        }
+
+        Job job = new Job(UUID.randomUUID(), request.getTestType(), request.getNumQuestions(), topicId, words);
+        synchronized (job) {
+            jobs.put(job.jobId, job);
+            try {
+                job.future = executor.submit(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.jobId);
+                rejected.increment();
+                throw new ServiceOverloadedException("Too many test generation jobs, please retry shortly",
+                        retryAfterSeconds);
+            }
+            submitted.increment();
+            return toDTO(job);
+        }
+    }
+
+    public TestGenerationJobDTO status(UUID jobId) {
+        Job job = find(jobId);
+        synchronized (job) {
+            return toDTO(job);
+        }
+    }
+
+    /**
+     * Job còn trong hàng đợi bị hủy ngay; job đang chạy dừng ở lần kiểm tra tiếp theo rồi rollback
+     */
+    public TestGenerationJobDTO cancel(UUID jobId) {
+        Job job = find(jobId);
+        synchronized (job) {
+            if (job.status == JobStatus.QUEUED) {
+                job.future.cancel(false);
+                executor.remove((Runnable) job.future);
+                finish(job, JobStatus.CANCELLED, null);
+            } else if (job.status == JobStatus.RUNNING) {
+                job.cancelRequested = true;
+            }
+            return toDTO(job);
+        }
+    }
+
+    /**
+     * Bỏ các job đã kết thúc quá retention-ms
+     */
+    @Scheduled(fixedDelayString = "${learning.test-generation.purge-interval-ms:60000}")
+    public void purgeFinished() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minusNanos(retentionMs * 1_000_000L);
+        jobs.values().removeIf(job -> {
+            OffsetDateTime finishedAt = job.finishedAt;
+            return finishedAt != null && finishedAt.isBefore(cutoff);
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("runningJobs", executor.getActiveCount());
+        stats.put("queuedJobs", executor.getQueue().size());
+        stats.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        stats.put("retainedJobs", jobs.size());
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("cancelled", cancelled.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Job đang chạy rollback ở lần kiểm tra tiếp theo thay vì bị ngắt giữa lúc ghi
+        jobs.values().forEach(job -> job.cancelRequested = true);
+        executor.shutdown();
+    }
+
+    private Job find(UUID jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Test generation job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.status != JobStatus.QUEUED) {
+                return;
+            }
+            job.status = JobStatus.RUNNING;
+            job.startedAt = OffsetDateTime.now();
+        }
+
+        try {
+            UUID testId = generate(job);
+            synchronized (job) {
+                job.testId = testId;
+                finish(job, JobStatus.SUCCEEDED, null);
+            }
+        } catch (CancellationException e) {
+            synchronized (job) {
+                finish(job, JobStatus.CANCELLED, null);
+            }
+        } catch (RuntimeException e) {
+            synchronized (job) {
+                finish(job, JobStatus.FAILED, e.getMessage());
+            }
+        }
+    }
+
+    private UUID generate(Job job) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(tx -> {
+                    Test test = new Test();
+                    test.setTestType(job.testType);
+                    test.setNumQuestions(job.numQuestions);
+                    if (job.topicId != null) {
+                        Topic topic = new Topic();
+                        topic.setTopicId(job.topicId);
+                        test.setTopic(topic);
+                    }
+                    Test created = testService.createTest(test);
+                    questionGenerationService.generateQuestionsForTest(created, job.words, job);
+                    return created.getTestId();
+                });
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_ATTEMPTS || job.cancelRequested) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void finish(Job job, JobStatus status, String error) {
+        job.status = status;
+        job.error = error;
+        job.finishedAt = OffsetDateTime.now();
+        if (status != JobStatus.SUCCEEDED) {
+            // Giao dịch đã rollback nên không còn câu nào được ghi
+            job.persisted = 0;
+        }
+        if (status == JobStatus.SUCCEEDED) {
+            succeeded.increment();
+        } else if (status == JobStatus.CANCELLED) {
+            cancelled.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    private static TestGenerationJobDTO toDTO(Job job) {
+        return new TestGenerationJobDTO(
+                job.jobId.toString(),
+                job.status.name(),
+                job.testId != null ? job.testId.toString() : null,
+                job.numQuestions,
+                job.generated,
+                job.persisted,
+                job.error,
+                job.submittedAt,
+                job.startedAt,
+                job.finishedAt);
+    }
+
+    /**
+     * Trạng thái được đổi trong synchronized trên chính job; tiến độ được ghi từ luồng sinh câu hỏi
+     */
+    private static final class Job implements QuestionGenerationService.GenerationProgress {
+
+        final UUID jobId;
+        final Test.TestType testType;
+        final int numQuestions;
+        final UUID topicId;
+        final List<String> words;
+        final OffsetDateTime submittedAt = OffsetDateTime.now();
+
+        Future<?> future;
+        volatile JobStatus status = JobStatus.QUEUED;
+        volatile boolean cancelRequested;
+        volatile UUID testId;
+        volatile int generated;
+        volatile int persisted;
+        volatile String error;
+        volatile OffsetDateTime startedAt;
+        volatile OffsetDateTime finishedAt;
+
+        Job(UUID jobId, Test.TestType testType, int numQuestions, UUID topicId, List<String> words) {
+            this.jobId = jobId;
+            this.testType = testType;
+            this.numQuestions = numQuestions;
+            this.topicId = topicId;
+            this.words = words;
+        }
+
+        @Override
+        public void generated(int questions) {
+            generated = questions;
+        }
+
+        @Override
+        public void persisted(int questions) {
+            persisted = questions;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelRequested;
+        }
+    }
+}
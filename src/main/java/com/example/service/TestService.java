@@ -14,6 +14,7 @@ import com.example.entity.Test;
 import com.example.entity.Test.TestType;
 import com.example.entity.Topic;
 import com.example.repository.QuestionRepository;
+import com.example.repository.TestQuestionRepository;
 import com.example.repository.TestRepository;
 import com.example.repository.TopicRepository;
 
@@ -23,15 +24,18 @@ public class TestService {
     private final TestRepository testRepository;
     private final TopicRepository topicRepository;
     private final QuestionRepository questionRepository;
+    private final TestQuestionRepository testQuestionRepository;
     
     @Autowired
     public TestService(
             TestRepository testRepository,
             TopicRepository topicRepository,
-            QuestionRepository questionRepository) {
+            QuestionRepository questionRepository,
+            TestQuestionRepository testQuestionRepository) {
         this.testRepository = testRepository;
         this.topicRepository = topicRepository;
         this.questionRepository = questionRepository;
+        this.testQuestionRepository = testQuestionRepository;
     }
     
     /**
@@ -104,8 +108,9 @@ public class TestService {
             throw new RuntimeException("Test not found with id: " + id);
         }
         
-        // Xóa các câu hỏi của bài test trước
+        // Xóa các câu hỏi của bài test trước; câu hỏi ngân hàng chỉ bị gỡ liên kết
         questionRepository.deleteByTestTestId(id);
+        testQuestionRepository.deleteByTestId(id);
         
         // Xóa bài test
         testRepository.deleteById(id);
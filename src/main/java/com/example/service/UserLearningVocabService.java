@@ -2,38 +2,85 @@ package com.example.service;
 
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.dto.CursorPageDTO;
+import com.example.dto.ReviewOutcomeDTO;
+import com.example.dto.ReviewResultDTO;
+import com.example.dto.TopicEnrollmentDTO;
+import com.example.entity.ReviewEvent;
 import com.example.entity.User;
 import com.example.entity.UserLearningVocab;
 import com.example.entity.Vocabulary;
+import com.example.exception.ResourceNotFoundException;
 import com.example.repository.UserLearningVocabRepository;
+import com.example.repository.ReviewEventRepository;
+import com.example.repository.TopicRepository;
 import com.example.repository.UserRepository;
 import com.example.repository.VocabularyRepository;
+import com.example.service.scheduling.ReviewScheduler;
+import com.example.service.scheduling.ReviewState;
 
 @Service
 public class UserLearningVocabService {
 
+    private static final double SECONDS_PER_DAY = 86_400.0;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserLearningVocabRepository userLearningVocabRepository;
     private final UserRepository userRepository;
     private final VocabularyRepository vocabularyRepository;
+    private final TopicRepository topicRepository;
+    private final ReviewEventRepository reviewEventRepository;
+    private final ReviewQueue reviewQueue;
+    private final ReviewScheduler reviewScheduler;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final ReviewWriteBehindBuffer reviewWriteBehindBuffer;
+
+    @Value("${learning.review.max-batch-size:500}")
+    private int maxBatchReviews;
+
+    // true: chỉ ghi review_event, việc cập nhật user_learning_vocab do ReviewEventProjector làm
+    @Value("${learning.review-log.async-projection:false}")
+    private boolean asyncProjection;
 
     @Autowired
     public UserLearningVocabService(
             UserLearningVocabRepository userLearningVocabRepository,
             UserRepository userRepository,
-            VocabularyRepository vocabularyRepository) {
+            VocabularyRepository vocabularyRepository,
+            TopicRepository topicRepository,
+            ReviewEventRepository reviewEventRepository,
+            ReviewQueue reviewQueue,
+            ReviewScheduler reviewScheduler,
+            OptimisticLockRetry optimisticLockRetry,
+            ReviewWriteBehindBuffer reviewWriteBehindBuffer) {
         this.userLearningVocabRepository = userLearningVocabRepository;
         this.userRepository = userRepository;
         this.vocabularyRepository = vocabularyRepository;
+        this.topicRepository = topicRepository;
+        this.reviewEventRepository = reviewEventRepository;
+        this.reviewQueue = reviewQueue;
+        this.reviewScheduler = reviewScheduler;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.reviewWriteBehindBuffer = reviewWriteBehindBuffer;
     }
 
     /**
@@ -58,11 +105,39 @@ public class UserLearningVocabService {
 
         // Tạo mối quan hệ mới
         UserLearningVocab userLearningVocab = new UserLearningVocab(user, vocabulary);
+        // Chưa ôn lần nào; lần ôn đầu tiên không tính khoảng cách từ lúc thêm từ
+        userLearningVocab.setLastReviewAt(null);
 
         // Thiết lập thời gian ôn tập tiếp theo (ví dụ: 1 ngày sau)
         userLearningVocab.setNextReviewAt(OffsetDateTime.now().plus(1, ChronoUnit.DAYS));
 
-        return userLearningVocabRepository.save(userLearningVocab);
+        UserLearningVocab saved = userLearningVocabRepository.save(userLearningVocab);
+        reviewQueue.update(userId, saved);
+        return saved;
+    }
+
+    /**
+     * Thêm toàn bộ từ vựng của một chủ đề vào danh sách học bằng một câu INSERT ... SELECT,
+     * bỏ qua những từ người dùng đã học
+     */
+    @Transactional
+    public TopicEnrollmentDTO enrollTopic(UUID userId, UUID topicId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        if (!topicRepository.existsById(topicId)) {
+            throw new RuntimeException("Topic not found with id: " + topicId);
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        long topicWords = vocabularyRepository.countByTopicTopicId(topicId);
+        int enrolled = userLearningVocabRepository.enrollTopic(userId, topicId, now, now.plus(1, ChronoUnit.DAYS));
+
+        if (enrolled > 0) {
+            reviewQueue.invalidate(userId);
+        }
+        return new TopicEnrollmentDTO(userId.toString(), topicId.toString(), topicWords, enrolled,
+                Math.max(0, topicWords - enrolled));
     }
 
     /**
@@ -101,57 +176,321 @@ public class UserLearningVocabService {
         return userLearningVocabRepository.findVocabsToReview(userId, OffsetDateTime.now());
     }
 
+    /**
+     * Lấy tối đa limit từ vựng đến hạn ôn tập sớm nhất từ hàng đợi trong bộ nhớ
+     */
+    public List<UserLearningVocab> getVocabsToReview(UUID userId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        // Chỉ hỏi DB khi hàng đợi của người dùng chưa được nạp
+        if (!reviewQueue.isLoaded(userId) && !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+
+        return reviewQueue.nextDue(userId, OffsetDateTime.now(), limit);
+    }
+
+    /**
+     * Lấy các từ vựng cần ôn tập theo trang, dùng con trỏ (nextReviewAt, vocabId) thay cho OFFSET
+     * để trang sâu vẫn chỉ tốn O(size)
+     */
+    public CursorPageDTO<UserLearningVocab> getVocabsToReviewPage(UUID userId, String cursor, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        // Lấy dư một phần tử để biết còn trang sau hay không
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<UserLearningVocab> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userLearningVocabRepository.findVocabsToReviewFirstPage(userId, now, limit);
+        } else {
+            ReviewCursor after = ReviewCursor.decode(cursor);
+            rows = userLearningVocabRepository.findVocabsToReviewAfter(userId, now,
+                    after.getNextReviewAt(), after.getVocabId(), limit);
+        }
+
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<UserLearningVocab> page = rows.subList(0, size);
+        UserLearningVocab last = page.get(size - 1);
+        String nextCursor = new ReviewCursor(last.getNextReviewAt(), last.getVocabulary().getVocabId()).encode();
+        return new CursorPageDTO<>(page, nextCursor);
+    }
+
     /**
      * Cập nhật thông tin học từ vựng sau khi ôn tập
      */
-    @Transactional
     public UserLearningVocab updateAfterReview(UUID userId, UUID vocabId, boolean isCorrect) {
+        if (reviewWriteBehindBuffer.isEnabled()) {
+            return updateAfterReviewBuffered(userId, vocabId, isCorrect);
+        }
+        return optimisticLockRetry.execute(() -> updateAfterReviewOnce(userId, vocabId, isCorrect));
+    }
+
+    /**
+     * Chế độ write-behind: tính trên trạng thái mới nhất trong bộ nhớ (hoặc bản ghi DB nếu chưa có),
+     * ghi nhật ký rồi trả về ngay; ReviewWriteBehindBuffer ghi xuống DB theo lô sau đó
+     */
+    private UserLearningVocab updateAfterReviewBuffered(UUID userId, UUID vocabId, boolean isCorrect) {
+        UserLearningVocab state;
+        synchronized (reviewWriteBehindBuffer.lockFor(userId)) {
+            UserLearningVocab current = reviewWriteBehindBuffer.findPending(userId, vocabId);
+            if (current == null) {
+                current = userLearningVocabRepository.findByUserUserIdAndVocabularyVocabId(userId, vocabId)
+                        .orElseThrow(() -> new RuntimeException("Learning relationship not found"));
+            }
+            OffsetDateTime now = OffsetDateTime.now();
+            state = copyOf(current);
+            applyReview(state, isCorrect, now);
+            reviewWriteBehindBuffer.record(state, List.of(new ReviewWriteBehindBuffer.Outcome(isCorrect, now)));
+        }
+        reviewQueue.update(userId, state);
+        return state;
+    }
+
+    private UserLearningVocab updateAfterReviewOnce(UUID userId, UUID vocabId, boolean isCorrect) {
         // Tìm mối quan hệ
         UserLearningVocab userLearningVocab = userLearningVocabRepository
                 .findByUserUserIdAndVocabularyVocabId(userId, vocabId)
                 .orElseThrow(() -> new RuntimeException("Learning relationship not found"));
 
-        // Cập nhật thông tin
-        userLearningVocab.setLastReviewAt(OffsetDateTime.now());
-        userLearningVocab.setRepetitionCount(userLearningVocab.getRepetitionCount() + 1);
+        OffsetDateTime now = OffsetDateTime.now();
+        ReviewEvent event = new ReviewEvent(userId, vocabId, isCorrect, now);
+        if (asyncProjection) {
+            // Chỉ ghi sự kiện; ReviewEventProjector sẽ cập nhật bản ghi sau
+            reviewEventRepository.save(event);
+            UserLearningVocab preview = copyOf(userLearningVocab);
+            applyReview(preview, isCorrect, now);
+            return preview;
+        }
 
-        float oldSuccessRate = userLearningVocab.getSuccessRate();
-        long repetitionCount = userLearningVocab.getRepetitionCount();
-        float newSuccessRate = (oldSuccessRate * (repetitionCount - 1) + (isCorrect ? 1.0f : 0.0f)) / repetitionCount;
-        userLearningVocab.setSuccessRate(newSuccessRate);
+        applyReview(userLearningVocab, isCorrect, now);
+        event.setProjectedAt(now);
+        reviewEventRepository.save(event);
 
-        // Điều chỉnh hệ số dễ dàng dựa trên kết quả
-        float easeFactor = userLearningVocab.getEaseFactor();
-        if (isCorrect) {
-            // Tăng hệ số nếu trả lời đúng
-            easeFactor = Math.min(easeFactor + 0.1f, 3.0f);
-        } else {
-            // Giảm hệ số nếu trả lời sai
-            easeFactor = Math.max(easeFactor - 0.2f, 1.3f);
+        UserLearningVocab saved = userLearningVocabRepository.save(userLearningVocab);
+        reviewQueue.update(userId, saved);
+        return saved;
+    }
+
+    /**
+     * Cập nhật nhiều từ vựng sau một phiên ôn tập trong một giao dịch.
+     * Tải tất cả bản ghi bằng một truy vấn, tính toán trong bộ nhớ rồi để Hibernate
+     * flush các câu UPDATE theo lô (hibernate.jdbc.batch_size) khi commit.
+     * Kết quả trả về theo đúng thứ tự đầu vào. Xung đột phiên bản làm cả lô được thử lại.
+     * Ở chế độ write-behind, kết quả chỉ được ghi nhật ký và đưa vào bộ đệm.
+     */
+    public List<ReviewItemResult> updateAfterReviews(UUID userId, List<ReviewOutcomeDTO> outcomes) {
+        if (reviewWriteBehindBuffer.isEnabled()) {
+            synchronized (reviewWriteBehindBuffer.lockFor(userId)) {
+                return optimisticLockRetry.execute(() -> updateAfterReviewsOnce(userId, outcomes));
+            }
         }
-        userLearningVocab.setEaseFactor(easeFactor);
+        return optimisticLockRetry.execute(() -> updateAfterReviewsOnce(userId, outcomes));
+    }
 
-        // Tính toán thời gian ôn tập tiếp theo dựa trên hệ số
-        int daysUntilNextReview;
-        if (repetitionCount <= 1) {
-            daysUntilNextReview = 1;
-        } else if (repetitionCount == 2) {
-            daysUntilNextReview = 3;
-        } else {
-            daysUntilNextReview = (int) Math.round(userLearningVocab.getEaseFactor() *
-                    ChronoUnit.DAYS.between(userLearningVocab.getLastReviewAt(),
-                            userLearningVocab.getNextReviewAt()));
-            daysUntilNextReview = Math.max(1, daysUntilNextReview);
+    private List<ReviewItemResult> updateAfterReviewsOnce(UUID userId, List<ReviewOutcomeDTO> outcomes) {
+        if (outcomes == null || outcomes.isEmpty()) {
+            throw new IllegalArgumentException("Review list must not be empty");
+        }
+        if (outcomes.size() > maxBatchReviews) {
+            throw new IllegalArgumentException("Too many reviews in one request (max " + maxBatchReviews + ")");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        ReviewItemResult[] results = new ReviewItemResult[outcomes.size()];
+        UUID[] vocabIds = new UUID[outcomes.size()];
+        OffsetDateTime[] reviewedAts = new OffsetDateTime[outcomes.size()];
+        Set<UUID> distinctIds = new HashSet<>();
+
+        // Kiểm tra dữ liệu từng phần tử trước khi truy vấn
+        for (int i = 0; i < outcomes.size(); i++) {
+            ReviewOutcomeDTO outcome = outcomes.get(i);
+            String rawId = outcome != null ? outcome.getVocabId() : null;
+            if (rawId == null || outcome.getIsCorrect() == null) {
+                results[i] = ReviewItemResult.failed(rawId, ReviewResultDTO.INVALID, "vocabId and isCorrect are required");
+                continue;
+            }
+            try {
+                vocabIds[i] = UUID.fromString(rawId);
+            } catch (IllegalArgumentException e) {
+                results[i] = ReviewItemResult.failed(rawId, ReviewResultDTO.INVALID, "Invalid vocabId");
+                continue;
+            }
+            // Không chấp nhận thời điểm ôn tập trong tương lai
+            OffsetDateTime reviewedAt = outcome.getReviewedAt();
+            reviewedAts[i] = reviewedAt == null || reviewedAt.isAfter(now) ? now : reviewedAt;
+            distinctIds.add(vocabIds[i]);
+        }
+
+        Map<UUID, UserLearningVocab> entries = new HashMap<>();
+        if (!distinctIds.isEmpty()) {
+            for (UserLearningVocab entry : userLearningVocabRepository.findByUserIdAndVocabIds(userId, distinctIds)) {
+                entries.put(entry.getVocabulary().getVocabId(), entry);
+            }
+        }
+
+        // Một từ có thể xuất hiện nhiều lần trong lô: áp dụng theo thứ tự thời gian ôn tập.
+        // Các lần đó dùng chung một bản ghi nên kết quả từng phần tử là bản chụp ngay sau khi áp dụng
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < outcomes.size(); i++) {
+            if (results[i] == null) {
+                order.add(i);
+            }
+        }
+        order.sort(Comparator.comparing(i -> reviewedAts[i]));
+
+        boolean writeBehind = reviewWriteBehindBuffer.isEnabled();
+        List<ReviewEvent> events = new ArrayList<>(order.size());
+        Map<UUID, UserLearningVocab> previews = new HashMap<>();
+        Map<UUID, List<ReviewWriteBehindBuffer.Outcome>> buffered = new HashMap<>();
+        for (int i : order) {
+            UserLearningVocab entry = entries.get(vocabIds[i]);
+            if (entry == null) {
+                results[i] = ReviewItemResult.failed(outcomes.get(i).getVocabId(), ReviewResultDTO.NOT_FOUND,
+                        "Learning relationship not found");
+                continue;
+            }
+            boolean isCorrect = outcomes.get(i).getIsCorrect();
+            if (writeBehind) {
+                // Bắt đầu từ trạng thái chưa ghi xuống DB nếu có, bản ghi vừa tải có thể đã cũ
+                entry = previews.computeIfAbsent(vocabIds[i], id -> {
+                    UserLearningVocab current = reviewWriteBehindBuffer.findPending(userId, id);
+                    return copyOf(current != null ? current : entries.get(id));
+                });
+                applyReview(entry, isCorrect, reviewedAts[i]);
+                buffered.computeIfAbsent(vocabIds[i], id -> new ArrayList<>())
+                        .add(new ReviewWriteBehindBuffer.Outcome(isCorrect, reviewedAts[i]));
+                results[i] = ReviewItemResult.updated(outcomes.get(i).getVocabId(), copyOf(entry));
+                continue;
+            }
+            ReviewEvent event = new ReviewEvent(userId, vocabIds[i], isCorrect, reviewedAts[i]);
+            if (asyncProjection) {
+                entry = previews.computeIfAbsent(vocabIds[i], id -> copyOf(entries.get(id)));
+            } else {
+                event.setProjectedAt(now);
+            }
+            applyReview(entry, isCorrect, reviewedAts[i]);
+            events.add(event);
+            results[i] = ReviewItemResult.updated(outcomes.get(i).getVocabId(), copyOf(entry));
+        }
+
+        if (writeBehind) {
+            buffered.forEach((vocabId, items) -> reviewWriteBehindBuffer.record(previews.get(vocabId), items));
+            reviewQueue.updateAll(userId, previews.values());
+            return Arrays.asList(results);
         }
 
-        // Nếu trả lời sai, ôn tập sớm hơn
-        if (!isCorrect) {
-            daysUntilNextReview = Math.max(1, daysUntilNextReview / 2);
+        reviewEventRepository.saveAll(events);
+        if (!asyncProjection) {
+            reviewQueue.updateAll(userId, entries.values());
         }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Áp dụng tối đa batchSize sự kiện ôn tập chưa xử lý vào user_learning_vocab
+     * trong một giao dịch. Trả về số sự kiện đã xử lý.
+     */
+    @Transactional
+    public int projectReviewEvents(int batchSize) {
+        List<ReviewEvent> events = reviewEventRepository.findPendingForProjection(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        // Tải bản ghi theo từng người dùng, mỗi người một truy vấn
+        Map<UUID, Set<UUID>> vocabIdsByUser = new HashMap<>();
+        for (ReviewEvent event : events) {
+            vocabIdsByUser.computeIfAbsent(event.getUserId(), id -> new HashSet<>()).add(event.getVocabId());
+        }
+        Map<UUID, Map<UUID, UserLearningVocab>> rowsByUser = new HashMap<>();
+        vocabIdsByUser.forEach((userId, ids) -> {
+            Map<UUID, UserLearningVocab> rows = new HashMap<>();
+            for (UserLearningVocab row : userLearningVocabRepository.findByUserIdAndVocabIds(userId, ids)) {
+                rows.put(row.getVocabulary().getVocabId(), row);
+            }
+            rowsByUser.put(userId, rows);
+        });
+
+        List<ReviewEvent> ordered = new ArrayList<>(events);
+        ordered.sort(Comparator.comparing(ReviewEvent::getReviewedAt).thenComparing(ReviewEvent::getEventId));
+        List<Long> ids = new ArrayList<>(ordered.size());
+        for (ReviewEvent event : ordered) {
+            // Từ đã bị xóa khỏi danh sách học: sự kiện vẫn được đánh dấu để không xử lý lại
+            UserLearningVocab row = rowsByUser.get(event.getUserId()).get(event.getVocabId());
+            if (row != null) {
+                applyReview(row, event.isCorrect(), event.getReviewedAt());
+            }
+            ids.add(event.getEventId());
+        }
+
+        reviewEventRepository.markProjected(ids, OffsetDateTime.now());
+        rowsByUser.forEach((userId, rows) -> reviewQueue.updateAll(userId, rows.values()));
+        return ids.size();
+    }
+
+    // Bản sao tạm (không được quản lý bởi JPA) để tính trước kết quả khi chưa project
+    private static UserLearningVocab copyOf(UserLearningVocab source) {
+        UserLearningVocab copy = new UserLearningVocab(source.getUser(), source.getVocabulary());
+        copy.setLastReviewAt(source.getLastReviewAt());
+        copy.setNextReviewAt(source.getNextReviewAt());
+        copy.setEaseFactor(source.getEaseFactor());
+        copy.setRepetitionCount(source.getRepetitionCount());
+        copy.setSuccessRate(source.getSuccessRate());
+        copy.setStability(source.getStability());
+        copy.setDifficulty(source.getDifficulty());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
 
-        userLearningVocab.setNextReviewAt(OffsetDateTime.now().plus(daysUntilNextReview, ChronoUnit.DAYS));
+    /**
+     * Áp dụng kết quả ôn tập lên một bản ghi đã tải (chỉ tính toán, không lưu)
+     */
+    private void applyReview(UserLearningVocab userLearningVocab, boolean isCorrect, OffsetDateTime reviewedAt) {
+        OffsetDateTime lastReviewAt = userLearningVocab.getLastReviewAt();
+        OffsetDateTime nextReviewAt = userLearningVocab.getNextReviewAt();
+
+        // Khoảng cách đã lên lịch lần trước phải lấy trước khi ghi đè lastReviewAt
+        double intervalDays = lastReviewAt != null && nextReviewAt != null
+                ? Math.max(0, ChronoUnit.DAYS.between(lastReviewAt, nextReviewAt))
+                : 0;
+        double elapsedDays = lastReviewAt != null
+                ? Math.max(0, ChronoUnit.SECONDS.between(lastReviewAt, reviewedAt)) / SECONDS_PER_DAY
+                : 0;
+
+        ReviewState state = new ReviewState(
+                userLearningVocab.getEaseFactor(),
+                intervalDays,
+                userLearningVocab.getRepetitionCount(),
+                userLearningVocab.getStability() != null ? userLearningVocab.getStability() : 0,
+                userLearningVocab.getDifficulty() != null ? userLearningVocab.getDifficulty() : 0);
+        reviewScheduler.schedule(state, isCorrect, elapsedDays);
+
+        long repetitionCount = state.getRepetitions();
+        float oldSuccessRate = userLearningVocab.getSuccessRate();
+        float newSuccessRate = (oldSuccessRate * (repetitionCount - 1) + (isCorrect ? 1.0f : 0.0f)) / repetitionCount;
 
-        return userLearningVocabRepository.save(userLearningVocab);
+        userLearningVocab.setRepetitionCount(repetitionCount);
+        userLearningVocab.setSuccessRate(newSuccessRate);
+        userLearningVocab.setEaseFactor((float) state.getEaseFactor());
+        if (state.getStability() > 0) {
+            userLearningVocab.setStability((float) state.getStability());
+            userLearningVocab.setDifficulty((float) state.getDifficulty());
+        }
+        userLearningVocab.setLastReviewAt(reviewedAt);
+        userLearningVocab.setNextReviewAt(reviewedAt.plus((long) state.getIntervalDays(), ChronoUnit.DAYS));
     }
 
     /**
@@ -165,6 +504,8 @@ public class UserLearningVocabService {
         }
 
         userLearningVocabRepository.deleteByUserUserIdAndVocabularyVocabId(userId, vocabId);
+        reviewWriteBehindBuffer.discard(userId, vocabId);
+        reviewQueue.remove(userId, vocabId);
     }
 
     /**
@@ -190,4 +531,46 @@ public class UserLearningVocabService {
 
         return userLearningVocabRepository.findVocabsWithLowSuccessRate(userId, maxSuccessRate);
     }
+
+    /**
+     * Kết quả xử lý một phần tử trong lô ôn tập
+     */
+    public static class ReviewItemResult {
+
+        private final String vocabId;
+        private final String status;
+        private final String message;
+        private final UserLearningVocab entry;
+
+        private ReviewItemResult(String vocabId, String status, String message, UserLearningVocab entry) {
+            this.vocabId = vocabId;
+            this.status = status;
+            this.message = message;
+            this.entry = entry;
+        }
+
+        static ReviewItemResult updated(String vocabId, UserLearningVocab entry) {
+            return new ReviewItemResult(vocabId, ReviewResultDTO.UPDATED, null, entry);
+        }
+
+        static ReviewItemResult failed(String vocabId, String status, String message) {
+            return new ReviewItemResult(vocabId, status, message, null);
+        }
+
+        public String getVocabId() {
+            return vocabId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public UserLearningVocab getEntry() {
+            return entry;
+        }
+    }
 }
\ No newline at end of file
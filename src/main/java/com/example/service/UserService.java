@@ -6,21 +6,44 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.dto.UserDTO;
+import com.example.entity.DeletedUser;
 import com.example.entity.User;
+import com.example.event.UserAccountChangedEvent;
+import com.example.event.UserAccountChangedEvent.ChangeType;
+import com.example.repository.DeletedUserRepository;
 import com.example.repository.UserRepository;
+import com.example.security.BanIndex;
+import com.example.security.JwtService;
+import com.example.security.PasswordHashingExecutor;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final JwtService jwtService;
+    private final BanIndex banIndex;
+    private final UsernameBloomFilter usernameBloomFilter;
+    private final DeletedUserRepository deletedUserRepository;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+            PasswordHashingExecutor passwordHashingExecutor, JwtService jwtService, BanIndex banIndex,
+            UsernameBloomFilter usernameBloomFilter, DeletedUserRepository deletedUserRepository) {
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.jwtService = jwtService;
+        this.banIndex = banIndex;
+        this.usernameBloomFilter = usernameBloomFilter;
+        this.deletedUserRepository = deletedUserRepository;
     }
 
     public List<UserDTO> getAllUsers() {
@@ -38,7 +61,9 @@ public class UserService {
     public void changeRole(UUID id, User.UserRole newRole) {
         User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found!"));
         user.setRole(newRole);
+        user.setTokensValidAfter(OffsetDateTime.now());
         userRepository.save(user);
+        publishChange(user, ChangeType.ROLE_CHANGED);
     }
 
     public void banUser(UUID id, OffsetDateTime banUntil, String reason) {
@@ -50,6 +75,8 @@ public class UserService {
         user.setBanUtil(banUntil);
         user.setReason(reason);
         userRepository.save(user);
+        banIndex.ban(user.getUserId(), banUntil);
+        publishChange(user, ChangeType.BANNED);
     }
 
     public void unbanUser(UUID id) {
@@ -64,13 +91,18 @@ public class UserService {
         user.setBanUtil(null);
         user.setReason(null);
         userRepository.save(user);
+        banIndex.unban(user.getUserId());
+        publishChange(user, ChangeType.UNBANNED);
     }
 
 
     @Transactional
     public UserDTO createUser(UserDTO userDTO) {
+        if (userDTO.getPassword() == null || userDTO.getPassword().isEmpty()) {
+            throw new RuntimeException("Password is required");
+        }
         // Kiểm tra username đã tồn tại chưa
-        if (userRepository.existsByUsername(userDTO.getUsername())) {
+        if (usernameBloomFilter.isTaken(userDTO.getUsername())) {
             throw new RuntimeException("Username exists: " + userDTO.getUsername());
         }
 
@@ -79,10 +111,9 @@ public class UserService {
         user.setUsername(userDTO.getUsername());
         user.setName(userDTO.getName());
         user.setRole(userDTO.getRole());
-        // Trong thực tế, bạn cần mã hóa mật khẩu tại đây
-        user.setPasswordHash("default_password_hash");
+        user.setPasswordHash(passwordHashingExecutor.encode(userDTO.getPassword()));
 
-        User savedUser = userRepository.save(user);
+        User savedUser = insertUser(user, "Username exists: " + userDTO.getUsername());
         return convertToDTO(savedUser);
     }
 
@@ -93,27 +124,33 @@ public class UserService {
 
         // Cập nhật thông tin
         user.setName(userDTO.getName());
-        if (userDTO.getRole() != null) {
+        boolean roleChanged = userDTO.getRole() != null && userDTO.getRole() != user.getRole();
+        if (roleChanged) {
             user.setRole(userDTO.getRole());
+            user.setTokensValidAfter(OffsetDateTime.now());
         }
 
         User updatedUser = userRepository.save(user);
+        // Đổi quyền làm claim role trong token cũ sai nên phải thu hồi; đổi tên thì không
+        publishChange(updatedUser, roleChanged ? ChangeType.ROLE_CHANGED : ChangeType.UPDATED);
         return convertToDTO(updatedUser);
     }
 
     @Transactional
     public void deleteUser(UUID id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with ID: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
+        userRepository.delete(user);
+        // Hàng users đã mất nên các node khác chỉ biết tài khoản bị xóa qua bảng này
+        deletedUserRepository.save(new DeletedUser(user.getUserId(), OffsetDateTime.now()));
+        banIndex.unban(user.getUserId());
+        publishChange(user, ChangeType.DELETED);
     }
 
     public UserDTO login(String username, String password) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Invalid username or password"));
-        // In a real application, you would check the password hash here
-        if (password == null || !password.equals(user.getPasswordHash())) {
+        if (!jwtService.verifyPassword(user, password)) {
             throw new RuntimeException("Invalid username or password");
         }
         return convertToDTO(user);
@@ -124,18 +161,35 @@ public class UserService {
         if (userDTO.getUsername() == null || userDTO.getPassword() == null) {
             throw new RuntimeException("Username and password are required");
         }
-        if (userRepository.existsByUsername(userDTO.getUsername())) {
+        if (usernameBloomFilter.isTaken(userDTO.getUsername())) {
             throw new RuntimeException("Username already exists");
         }
         User user = new User();
         user.setUsername(userDTO.getUsername());
         user.setName(userDTO.getName());
         user.setRole(userDTO.getRole());
-        user.setPasswordHash(userDTO.getPassword());
-        User savedUser = userRepository.save(user);
+        user.setPasswordHash(passwordHashingExecutor.encode(userDTO.getPassword()));
+        User savedUser = insertUser(user, "Username already exists");
         return convertToDTO(savedUser);
     }
 
+    // Flush ngay để vi phạm unique constraint (đăng ký trùng tên song song) lộ ra tại đây
+    private User insertUser(User user, String conflictMessage) {
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException(conflictMessage);
+        }
+        usernameBloomFilter.put(savedUser.getUsername());
+        return savedUser;
+    }
+
+    // Báo cho các cache xác thực (UserDetailsCache, ...) biết tài khoản đã thay đổi
+    private void publishChange(User user, ChangeType changeType) {
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getUserId(), user.getUsername(), changeType));
+    }
+
     // Helper method to convert Entity to DTO
     private UserDTO convertToDTO(User user) {
         return new UserDTO(
@@ -0,0 +1,142 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.example.repository.UserRepository;
+
+/**
+ * Bloom filter trên users.username để kiểm tra nhanh tên còn trống khi đăng ký.
+ * "Không có" là chắc chắn; "có thể có" mới cần hỏi DB. Unique constraint trong DB
+ * vẫn là chốt chặn cuối cùng khi hai người đăng ký cùng lúc.
+ */
+@Component
+public class UsernameBloomFilter {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    // Chưa nạp xong thì mọi tên đều coi là "có thể có" để rơi xuống DB
+    private volatile boolean ready;
+
+    private final LongAdder definitelyFree = new LongAdder();
+    private final LongAdder probableHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public UsernameBloomFilter(UserRepository userRepository,
+            @Value("${security.username-bloom.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${security.username-bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64L, m));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int page = 0;
+        Slice<String> slice;
+        do {
+            slice = userRepository.findAllUsernames(PageRequest.of(page++, LOAD_PAGE_SIZE, Sort.by("userId")));
+            slice.forEach(this::put);
+        } while (slice.hasNext());
+        ready = true;
+    }
+
+    public void put(String username) {
+        if (username == null) {
+            return;
+        }
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            int index = bit >>> 6;
+            long mask = 1L << (bit & 63);
+            long current;
+            do {
+                current = bits.get(index);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(index, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String username) {
+        if (!ready || username == null) {
+            return true;
+        }
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            if ((bits.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                definitelyFree.increment();
+                return false;
+            }
+        }
+        probableHits.increment();
+        return true;
+    }
+
+    /**
+     * Trả về true nếu username đã tồn tại; chỉ truy vấn DB khi Bloom filter báo "có thể có".
+     */
+    public boolean isTaken(String username) {
+        if (!mightContain(username)) {
+            return false;
+        }
+        boolean exists = userRepository.existsByUsername(username);
+        if (!exists && ready) {
+            falsePositives.increment();
+        }
+        return exists;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("bits", numBits);
+        stats.put("hashFunctions", numHashes);
+        stats.put("definitelyFree", definitelyFree.sum());
+        stats.put("probableHits", probableHits.sum());
+        stats.put("falsePositives", falsePositives.sum());
+        return stats;
+    }
+
+    // FNV-1a 64 bit trên username viết thường (cột username trong DB là CITEXT)
+    private static long hash(String username) {
+        String normalized = username.toLowerCase(Locale.ROOT);
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            h ^= normalized.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // Trộn thêm để hai nửa 32 bit độc lập hơn
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return h;
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dto.TestResultDTO;
+import com.example.dto.VirtualAnswerDTO;
+import com.example.dto.VirtualQuestionDTO;
+import com.example.dto.VirtualTestDTO;
+import com.example.dto.VirtualTestSubmissionDTO;
+import com.example.entity.Test;
+import com.example.entity.TestResult;
+import com.example.entity.User;
+import com.example.entity.VirtualTestAnswer;
+import com.example.entity.Vocabulary;
+import com.example.exception.ResourceNotFoundException;
+import com.example.repository.TestRepository;
+import com.example.repository.TestResultRepository;
+import com.example.repository.UserRepository;
+import com.example.repository.VirtualTestAnswerRepository;
+import com.example.repository.VocabularyRepository;
+
+/**
+ * Bài test ảo: câu hỏi không được lưu mà sinh trong bộ nhớ từ định nghĩa bài test (loại bài,
+ * số câu, topic) và một seed. Cùng seed và cùng kho từ của topic luôn cho cùng thứ tự câu hỏi,
+ * thứ tự đáp án và đáp án nhiễu, nên khi chấm chỉ cần sinh lại bài từ seed. Chỉ lưu seed (trong
+ * TestResult) và các câu trả lời. Khi nộp bài, dấu vân tay của kho từ phải khớp với lúc sinh,
+ * nếu không seed đã sinh ra một bài khác với bài người học đã làm.
+ */
+@Service
+public class VirtualTestService {
+
+    // Số lần bốc ngẫu nhiên mỗi đáp án nhiễu trước khi quét tuần tự
+    private static final int ATTEMPTS_PER_PICK = 4;
+    private static final int DISTRACTORS = 3;
+
+    private final TestRepository testRepository;
+    private final VocabularyRepository vocabularyRepository;
+    private final UserRepository userRepository;
+    private final TestResultRepository testResultRepository;
+    private final VirtualTestAnswerRepository virtualTestAnswerRepository;
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder submissions = new LongAdder();
+    private final LongAdder staleSubmissions = new LongAdder();
+    private final LongAdder answersPersisted = new LongAdder();
+
+    public VirtualTestService(TestRepository testRepository, VocabularyRepository vocabularyRepository,
+            UserRepository userRepository, TestResultRepository testResultRepository,
+            VirtualTestAnswerRepository virtualTestAnswerRepository) {
+        this.testRepository = testRepository;
+        this.vocabularyRepository = vocabularyRepository;
+        this.userRepository = userRepository;
+        this.testResultRepository = testResultRepository;
+        this.virtualTestAnswerRepository = virtualTestAnswerRepository;
+    }
+
+    /**
+     * Sinh bài test ảo cho người học; không có seed thì chọn seed ngẫu nhiên. Không ghi gì xuống DB
+     */
+    public VirtualTestDTO createInstance(UUID testId, Long seed) {
+        Instance instance = load(testId, seed != null ? seed : ThreadLocalRandom.current().nextLong());
+        generated.increment();
+
+        List<VirtualQuestionDTO> questions = new ArrayList<>(instance.items.size());
+        for (Item item : instance.items) {
+            questions.add(new VirtualQuestionDTO(item.position, item.vocabId.toString(), item.questionText,
+                    item.options));
+        }
+        return new VirtualTestDTO(testId.toString(), instance.testType, instance.seed, instance.poolFingerprint,
+                questions);
+    }
+
+    /**
+     * Chấm bài bằng cách sinh lại bài từ seed, rồi lưu kết quả (kèm seed) và các câu trả lời
+     */
+    @Transactional
+    public TestResultDTO submit(UUID testId, VirtualTestSubmissionDTO submission) {
+        if (submission.getUserId() == null || submission.getSeed() == null || submission.getPoolFingerprint() == null) {
+            throw new IllegalArgumentException("userId, seed and poolFingerprint are required");
+        }
+        User user = userRepository.findById(UUID.fromString(submission.getUserId()))
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + submission.getUserId()));
+        Instance instance = load(testId, submission.getSeed());
+        // Kho từ của topic đã đổi từ lúc sinh bài: seed không còn sinh lại đúng bài đã làm
+        if (!instance.poolFingerprint.equals(submission.getPoolFingerprint())) {
+            staleSubmissions.increment();
+            throw new IllegalArgumentException("Test content changed since this instance was generated");
+        }
+
+        Map<Integer, VirtualAnswerDTO> answers = new HashMap<>();
+        if (submission.getAnswers() != null) {
+            for (VirtualAnswerDTO answer : submission.getAnswers()) {
+                Integer position = answer != null ? answer.getPosition() : null;
+                if (position == null || position < 0 || position >= instance.items.size()) {
+                    throw new IllegalArgumentException("Invalid question position: " + position);
+                }
+                if (answer.getVocabId() == null) {
+                    throw new IllegalArgumentException("vocabId is required for position " + position);
+                }
+                if (answers.put(position, answer) != null) {
+                    throw new IllegalArgumentException("Duplicate answer for position " + position);
+                }
+            }
+        }
+
+        TestResult testResult = new TestResult();
+        testResult.setUser(user);
+        testResult.setTest(instance.test);
+        testResult.setSeed(instance.seed);
+        testResult.setTakenAt(OffsetDateTime.now());
+
+        int correctAnswers = 0;
+        List<VirtualTestAnswer> rows = new ArrayList<>(answers.size());
+        for (Item item : instance.items) {
+            VirtualAnswerDTO answer = answers.get(item.position);
+            if (answer == null) {
+                continue;
+            }
+            if (!item.vocabId.toString().equals(answer.getVocabId())) {
+                staleSubmissions.increment();
+                throw new IllegalArgumentException("Test content changed since this instance was generated");
+            }
+            if (answer.getSelectedIndex() != null
+                    && (answer.getSelectedIndex() < 0 || answer.getSelectedIndex() >= item.options.size())) {
+                throw new IllegalArgumentException("Invalid option index for position " + item.position);
+            }
+            boolean correct = item.isCorrect(answer.getSelectedIndex(), answer.getTextAnswer());
+            if (correct) {
+                correctAnswers++;
+            }
+            rows.add(new VirtualTestAnswer(testResult, item.position, item.vocabId, answer.getSelectedIndex(),
+                    answer.getTextAnswer(), correct));
+        }
+
+        // Tính điểm số dựa trên số câu đúng / tổng số câu
+        testResult.setCorrectAnswers(correctAnswers);
+        testResult.setTotalQuestions(instance.items.size());
+        testResult.setScore((int) Math.round((double) correctAnswers * 100 / instance.items.size()));
+
+        TestResult saved = testResultRepository.save(testResult);
+        virtualTestAnswerRepository.saveAll(rows);
+        submissions.increment();
+        answersPersisted.add(rows.size());
+
+        return new TestResultDTO(
+                saved.getResultId().toString(),
+                user.getUserId().toString(),
+                user.getUsername(),
+                testId.toString(),
+                instance.testType.toString(),
+                instance.test.getTopic().getName(),
+                saved.getScore(),
+                saved.getCorrectAnswers(),
+                saved.getTotalQuestions(),
+                saved.getTakenAt());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("instancesGenerated", generated.sum());
+        stats.put("submissions", submissions.sum());
+        stats.put("staleSubmissions", staleSubmissions.sum());
+        stats.put("answersPersisted", answersPersisted.sum());
+        return stats;
+    }
+
+    private Instance load(UUID testId, long seed) {
+        Test test = testRepository.findById(testId)
+                .orElseThrow(() -> new ResourceNotFoundException("Test not found with id: " + testId));
+        if (test.getTopic() == null) {
+            throw new IllegalArgumentException("Virtual tests need a topic to draw words from");
+        }
+        List<Vocabulary> pool = vocabularyRepository.findByTopicTopicId(test.getTopic().getTopicId());
+        Instance instance = generate(test, pool, seed);
+        if (instance.items.isEmpty()) {
+            throw new IllegalArgumentException("Topic has no vocabulary to build the test from");
+        }
+        return instance;
+    }
+
+    /**
+     * Sinh bài từ kho từ và seed. Kho từ được sắp theo vocabId và mọi lựa chọn ngẫu nhiên đều lấy
+     * từ một SplittableRandom(seed), nên kết quả không phụ thuộc thứ tự DB trả về
+     */
+    static Instance generate(Test test, List<Vocabulary> pool, long seed) {
+        Test.TestType testType = test.getTestType();
+        List<Vocabulary> sorted = new ArrayList<>(pool);
+        sorted.sort(Comparator.comparing(Vocabulary::getVocabId));
+
+        List<Vocabulary> candidates = new ArrayList<>();
+        List<String> meanings = new ArrayList<>();
+        Set<String> distinctMeanings = new HashSet<>();
+        for (Vocabulary vocabulary : sorted) {
+            boolean hasMeaning = !normalize(vocabulary.getMeaning()).isEmpty();
+            if (hasMeaning && distinctMeanings.add(normalize(vocabulary.getMeaning()))) {
+                meanings.add(vocabulary.getMeaning());
+            }
+            if (vocabulary.getWord() != null && !vocabulary.getWord().isBlank()
+                    && (testType != Test.TestType.multiple_choice || hasMeaning)) {
+                candidates.add(vocabulary);
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        shuffle(candidates, random);
+
+        int count = Math.min(test.getNumQuestions(), candidates.size());
+        List<Item> items = new ArrayList<>(count);
+        for (int position = 0; position < count; position++) {
+            Vocabulary vocabulary = candidates.get(position);
+            String word = vocabulary.getWord();
+            switch (testType) {
+                case multiple_choice: {
+                    List<String> options = new ArrayList<>(DISTRACTORS + 1);
+                    options.add(vocabulary.getMeaning());
+                    options.addAll(pickDistractors(vocabulary.getMeaning(), meanings, random));
+                    String correct = options.get(0);
+                    shuffle(options, random);
+                    items.add(new Item(position, vocabulary.getVocabId(),
+                            "What is the meaning of '" + word + "'?", options, options.indexOf(correct), null));
+                    break;
+                }
+                case fill_in_the_blank:
+                    items.add(new Item(position, vocabulary.getVocabId(),
+                            "Fill in the blank: The word '" + word + "' means __________", List.of(), -1, word));
+                    break;
+                case true_false:
+                    // Giữ thứ tự True/False cố định như câu hỏi đúng/sai lưu trong DB
+                    items.add(new Item(position, vocabulary.getVocabId(),
+                            "True or False: '" + word + "' is a valid English word.", List.of("True", "False"), 0,
+                            null));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported test type: " + testType);
+            }
+        }
+        return new Instance(test, testType, seed, fingerprint(testType, test.getNumQuestions(), sorted), items);
+    }
+
+    // 64 bit đầu của SHA-256 trên loại bài, số câu và vocabId, từ, nghĩa của kho từ đã sắp xếp:
+    // đổi bất kỳ giá trị nào trong số đó thì cùng seed cũng cho ra bài khác
+    static String fingerprint(Test.TestType testType, int numQuestions, List<Vocabulary> sorted) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        digest.update((testType + "\t" + numQuestions + "\n").getBytes(StandardCharsets.UTF_8));
+        for (Vocabulary vocabulary : sorted) {
+            String line = vocabulary.getVocabId() + "\t" + vocabulary.getWord() + "\t" + vocabulary.getMeaning()
+                    + "\n";
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 8);
+    }
+
+    // Nghĩa sai khác nhau và khác nghĩa đúng; kho từ quá nhỏ thì bù bằng đáp án giữ chỗ
+    private static List<String> pickDistractors(String correctMeaning, List<String> meanings, SplittableRandom random) {
+        List<String> picked = new ArrayList<>(DISTRACTORS);
+        Set<String> seen = new HashSet<>();
+        seen.add(normalize(correctMeaning));
+        if (!meanings.isEmpty()) {
+            for (int i = 0; i < DISTRACTORS * ATTEMPTS_PER_PICK && picked.size() < DISTRACTORS; i++) {
+                String meaning = meanings.get(random.nextInt(meanings.size()));
+                if (seen.add(normalize(meaning))) {
+                    picked.add(meaning);
+                }
+            }
+            int start = random.nextInt(meanings.size());
+            for (int i = 0; i < meanings.size() && picked.size() < DISTRACTORS; i++) {
+                String meaning = meanings.get((start + i) % meanings.size());
+                if (seen.add(normalize(meaning))) {
+                    picked.add(meaning);
+                }
+            }
+        }
+        for (int i = picked.size(); i < DISTRACTORS; i++) {
+            picked.add("Incorrect meaning " + (i + 1));
+        }
+        return picked;
+    }
+
+    private static <T> void shuffle(List<T> list, SplittableRandom random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            Collections.swap(list, i, random.nextInt(i + 1));
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Một bài test ảo đã sinh, kèm đáp án đúng để chấm
+     */
+    static final class Instance {
+
+        final Test test;
+        final Test.TestType testType;
+        final long seed;
+        final String poolFingerprint;
+        final List<Item> items;
+
+        Instance(Test test, Test.TestType testType, long seed, String poolFingerprint, List<Item> items) {
+            this.test = test;
+            this.testType = testType;
+            this.seed = seed;
+            this.poolFingerprint = poolFingerprint;
+            this.items = items;
+        }
+    }
+
+    static final class Item {
+
+        final int position;
+        final UUID vocabId;
+        final String questionText;
+        final List<String> options;
+        // -1 với câu điền vào chỗ trống
+        final int correctIndex;
+        final String correctAnswerText;
+
+        Item(int position, UUID vocabId, String questionText, List<String> options, int correctIndex,
+                String correctAnswerText) {
+            this.position = position;
+            this.vocabId = vocabId;
+            this.questionText = questionText;
+            this.options = options;
+            this.correctIndex = correctIndex;
+            this.correctAnswerText = correctAnswerText;
+        }
+
+        boolean isCorrect(Integer selectedIndex, String textAnswer) {
+            if (correctAnswerText != null) {
+                return textAnswer != null && textAnswer.trim().equalsIgnoreCase(correctAnswerText.trim());
+            }
+            return selectedIndex != null && selectedIndex == correctIndex;
+        }
+    }
+}
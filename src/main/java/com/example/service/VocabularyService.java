@@ -5,6 +5,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -12,6 +13,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.example.entity.Vocabulary;
 import com.example.entity.Vocabulary.WordType;
+import com.example.event.VocabularyChangedEvent;
+import com.example.event.VocabularyChangedEvent.ChangeType;
 import com.example.repository.TopicRepository;
 import com.example.repository.VocabularyRepository;
 
@@ -20,11 +23,14 @@ public class VocabularyService {
 
     private final VocabularyRepository vocabularyRepository;
     private final TopicRepository topicRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public VocabularyService(VocabularyRepository vocabularyRepository, TopicRepository topicRepository) {
+    public VocabularyService(VocabularyRepository vocabularyRepository, TopicRepository topicRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.vocabularyRepository = vocabularyRepository;
         this.topicRepository = topicRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -40,7 +46,9 @@ public class VocabularyService {
             throw new RuntimeException("Vocabulary already exists with the same word and word type");
         }
 
-        return vocabularyRepository.save(vocabulary);
+        Vocabulary saved = vocabularyRepository.save(vocabulary);
+        publishChange(saved.getVocabId(), ChangeType.CREATED);
+        return saved;
     }
 
     /**
@@ -80,7 +88,9 @@ public class VocabularyService {
             vocabulary.setTopic(vocabularyDetails.getTopic());
         }
 
-        return vocabularyRepository.save(vocabulary);
+        Vocabulary saved = vocabularyRepository.save(vocabulary);
+        publishChange(saved.getVocabId(), ChangeType.UPDATED);
+        return saved;
     }
 
     /**
@@ -92,6 +102,7 @@ public class VocabularyService {
             throw new RuntimeException("Vocabulary not found with id: " + id);
         }
         vocabularyRepository.deleteById(id);
+        publishChange(id, ChangeType.DELETED);
     }
 
     /**
@@ -164,4 +175,9 @@ public class VocabularyService {
     public Page<Vocabulary> getVocabulariesByTopicAndLevelPaginated(String topic, String level, Pageable pageable) {
         return vocabularyRepository.findByTopicNameAndLevel(topic, level, pageable);
     }
-}
\ No newline at end of file
+
+    // Báo cho các chỉ mục trong bộ nhớ (DistractorIndex, ...) biết từ vựng đã thay đổi
+    private void publishChange(UUID vocabId, ChangeType changeType) {
+        eventPublisher.publishEvent(new VocabularyChangedEvent(vocabId, changeType));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.service.scheduling;
+
+/**
+ * FSRS (Free Spaced Repetition Scheduler, trọng số mặc định của FSRS-4.5) với đánh giá
+ * nhị phân: đúng = Good, sai = Again. Khoảng cách được chọn sao cho xác suất nhớ tại
+ * lần ôn tiếp theo bằng requestRetention.
+ */
+public class FsrsReviewScheduler implements ReviewScheduler {
+
+    public static final String NAME = "fsrs";
+
+    private static final double[] DEFAULT_WEIGHTS = {
+            0.4872, 1.4003, 3.7145, 13.8206, 5.1618, 1.2298, 0.8975, 0.031, 1.6474,
+            0.1367, 1.0461, 2.1072, 0.0793, 0.3246, 1.587, 0.2272, 2.8755
+    };
+
+    private static final double DECAY = -0.5;
+    private static final double FACTOR = 19.0 / 81.0;
+
+    private static final int AGAIN = 1;
+    private static final int GOOD = 3;
+
+    private final double[] w;
+    private final double intervalModifier;
+    private final double maxIntervalDays;
+
+    public FsrsReviewScheduler(double requestRetention, double maxIntervalDays) {
+        this(DEFAULT_WEIGHTS, requestRetention, maxIntervalDays);
+    }
+
+    public FsrsReviewScheduler(double[] weights, double requestRetention, double maxIntervalDays) {
+        if (weights.length != DEFAULT_WEIGHTS.length) {
+            throw new IllegalArgumentException("FSRS needs " + DEFAULT_WEIGHTS.length + " weights");
+        }
+        if (requestRetention <= 0 || requestRetention >= 1) {
+            throw new IllegalArgumentException("requestRetention must be in (0, 1)");
+        }
+        this.w = weights.clone();
+        this.intervalModifier = (Math.pow(requestRetention, 1 / DECAY) - 1) / FACTOR;
+        this.maxIntervalDays = maxIntervalDays;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void schedule(ReviewState state, boolean correct, double elapsedDays) {
+        int grade = correct ? GOOD : AGAIN;
+        double stability = state.getStability();
+        double difficulty = state.getDifficulty();
+
+        if (stability <= 0) {
+            // Lần ôn đầu tiên (hoặc thẻ chuyển sang từ thuật toán khác)
+            stability = w[grade - 1];
+            difficulty = initialDifficulty(grade);
+        } else {
+            double retrievability = Math.pow(1 + FACTOR * Math.max(0, elapsedDays) / stability, DECAY);
+            double nextDifficulty = difficulty - w[6] * (grade - 3);
+            nextDifficulty = w[7] * initialDifficulty(GOOD) + (1 - w[7]) * nextDifficulty;
+            stability = correct
+                    ? recallStability(difficulty, stability, retrievability)
+                    : forgetStability(difficulty, stability, retrievability);
+            difficulty = clampDifficulty(nextDifficulty);
+        }
+
+        double days = Math.round(stability * intervalModifier);
+        days = Math.min(Math.max(1, days), maxIntervalDays);
+
+        state.setRepetitions(state.getRepetitions() + 1);
+        state.setStability(stability);
+        state.setDifficulty(difficulty);
+        state.setIntervalDays(days);
+    }
+
+    private double initialDifficulty(int grade) {
+        return clampDifficulty(w[4] - (grade - 3) * w[5]);
+    }
+
+    private double recallStability(double d, double s, double r) {
+        return s * (Math.exp(w[8]) * (11 - d) * Math.pow(s, -w[9]) * (Math.exp((1 - r) * w[10]) - 1) + 1);
+    }
+
+    private double forgetStability(double d, double s, double r) {
+        double next = w[11] * Math.pow(d, -w[12]) * (Math.pow(s + 1, w[13]) - 1) * Math.exp((1 - r) * w[14]);
+        // Quên thì độ ổn định không được tăng
+        return Math.min(next, s);
+    }
+
+    private static double clampDifficulty(double d) {
+        return Math.min(Math.max(d, 1), 10);
+    }
+}
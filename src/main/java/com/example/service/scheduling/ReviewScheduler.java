@@ -0,0 +1,23 @@
+package com.example.service.scheduling;
+
+/**
+ * SPI cho thuật toán lặp lại ngắt quãng. Mỗi triển khai chỉ đọc và ghi các trường
+ * nguyên thủy của ReviewState (không cấp phát đối tượng), nên có thể dùng cho cả
+ * một lần ôn tập lẫn việc lập lịch lại hàng loạt khi đổi thuật toán.
+ */
+public interface ReviewScheduler {
+
+    /**
+     * Tên thuật toán, trùng với giá trị của learning.scheduler.algorithm
+     */
+    String name();
+
+    /**
+     * Cập nhật state tại chỗ sau một lần ôn tập.
+     *
+     * @param state       trạng thái trước lần ôn tập; intervalDays là khoảng đã lên lịch lần trước
+     * @param correct     người dùng trả lời đúng hay không
+     * @param elapsedDays số ngày thực tế kể từ lần ôn tập trước (có thể lẻ)
+     */
+    void schedule(ReviewState state, boolean correct, double elapsedDays);
+}
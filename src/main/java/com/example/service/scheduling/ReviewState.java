@@ -0,0 +1,75 @@
+package com.example.service.scheduling;
+
+/**
+ * Trạng thái lập lịch của một thẻ dưới dạng nguyên thủy. Có thể dùng lại giữa các lần
+ * gọi ReviewScheduler.schedule để tránh cấp phát khi lập lịch hàng loạt.
+ */
+public class ReviewState {
+
+    private double easeFactor;
+
+    // Khoảng cách (ngày) giữa lần ôn tập trước và lần ôn tập đã hẹn
+    private double intervalDays;
+
+    private long repetitions;
+
+    // Chỉ dùng bởi FSRS; 0 nghĩa là chưa khởi tạo
+    private double stability;
+
+    private double difficulty;
+
+    public ReviewState() {
+    }
+
+    public ReviewState(double easeFactor, double intervalDays, long repetitions, double stability, double difficulty) {
+        set(easeFactor, intervalDays, repetitions, stability, difficulty);
+    }
+
+    public void set(double easeFactor, double intervalDays, long repetitions, double stability, double difficulty) {
+        this.easeFactor = easeFactor;
+        this.intervalDays = intervalDays;
+        this.repetitions = repetitions;
+        this.stability = stability;
+        this.difficulty = difficulty;
+    }
+
+    public double getEaseFactor() {
+        return easeFactor;
+    }
+
+    public void setEaseFactor(double easeFactor) {
+        this.easeFactor = easeFactor;
+    }
+
+    public double getIntervalDays() {
+        return intervalDays;
+    }
+
+    public void setIntervalDays(double intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+
+    public long getRepetitions() {
+        return repetitions;
+    }
+
+    public void setRepetitions(long repetitions) {
+        this.repetitions = repetitions;
+    }
+
+    public double getStability() {
+        return stability;
+    }
+
+    public void setStability(double stability) {
+        this.stability = stability;
+    }
+
+    public double getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(double difficulty) {
+        this.difficulty = difficulty;
+    }
+}
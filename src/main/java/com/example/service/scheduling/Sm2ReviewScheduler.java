@@ -0,0 +1,46 @@
+package com.example.service.scheduling;
+
+/**
+ * Biến thể SM-2 mà ứng dụng vẫn dùng: hệ số dễ +0.1 khi đúng (tối đa 3.0), -0.2 khi sai
+ * (tối thiểu 1.3); lần 1 cách 1 ngày, lần 2 cách 3 ngày, sau đó nhân khoảng cách trước
+ * với hệ số dễ; trả lời sai thì rút khoảng cách còn một nửa.
+ */
+public class Sm2ReviewScheduler implements ReviewScheduler {
+
+    public static final String NAME = "sm2";
+
+    private static final double MIN_EASE = 1.3;
+    private static final double MAX_EASE = 3.0;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void schedule(ReviewState state, boolean correct, double elapsedDays) {
+        long repetitions = state.getRepetitions() + 1;
+
+        double easeFactor = correct
+                ? Math.min(state.getEaseFactor() + 0.1, MAX_EASE)
+                : Math.max(state.getEaseFactor() - 0.2, MIN_EASE);
+
+        long days;
+        if (repetitions <= 1) {
+            days = 1;
+        } else if (repetitions == 2) {
+            days = 3;
+        } else {
+            // Dựa trên khoảng cách đã lên lịch lần trước, không phải thời điểm vừa ôn
+            days = Math.max(1, Math.round(easeFactor * state.getIntervalDays()));
+        }
+
+        if (!correct) {
+            days = Math.max(1, days / 2);
+        }
+
+        state.setRepetitions(repetitions);
+        state.setEaseFactor(easeFactor);
+        state.setIntervalDays(days);
+    }
+}
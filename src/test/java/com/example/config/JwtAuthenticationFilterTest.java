@@ -0,0 +1,94 @@
+package com.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.security.AccessTokenDenyList;
+import com.example.security.BanIndex;
+import com.example.security.JwtUtils;
+import com.example.security.JwtVerifier;
+import com.example.security.TokenRevocationSet;
+import com.example.security.UserDetailsCache;
+import com.example.security.VerifiedToken;
+
+class JwtAuthenticationFilterTest {
+
+    private JwtVerifier jwtVerifier;
+
+    private UserDetailsCache userDetailsCache;
+
+    private TokenRevocationSet revocationSet;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setup() {
+        jwtVerifier = mock(JwtVerifier.class);
+        userDetailsCache = mock(UserDetailsCache.class);
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        when(jwtUtils.isStatelessClaimsEnabled()).thenReturn(true);
+        revocationSet = mock(TokenRevocationSet.class);
+        filter = new JwtAuthenticationFilter(jwtVerifier, userDetailsCache, jwtUtils, revocationSet,
+                mock(AccessTokenDenyList.class), mock(BanIndex.class));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void claimsOnlyTokenAuthenticatesWithoutDatabase() throws Exception {
+        VerifiedToken token = claimsToken(UUID.randomUUID());
+        when(jwtVerifier.verify("good")).thenReturn(token);
+
+        filter.doFilter(bearer("good"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(auth);
+        assertEquals("ROLE_USER", auth.getAuthorities().iterator().next().getAuthority());
+        verify(userDetailsCache, never()).get(anyString());
+    }
+
+    @Test
+    void revokedClaimsOnlyTokenIsNotAuthenticated() throws Exception {
+        UUID userId = UUID.randomUUID();
+        VerifiedToken token = claimsToken(userId);
+        when(jwtVerifier.verify("revoked")).thenReturn(token);
+        when(revocationSet.isRevoked(userId, token.getIssuedAt())).thenReturn(true);
+
+        filter.doFilter(bearer("revoked"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsCache, never()).get(anyString());
+    }
+
+    private static VerifiedToken claimsToken(UUID userId) {
+        Instant now = Instant.now();
+        return new VerifiedToken("jti-" + userId, "alice", now, now.plusSeconds(600), userId, "ROLE_USER", false);
+    }
+
+    private static MockHttpServletRequest bearer(String jwt) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + jwt);
+        return request;
+    }
+}
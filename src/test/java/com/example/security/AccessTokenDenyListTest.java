@@ -0,0 +1,55 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+class AccessTokenDenyListTest {
+
+    private final AccessTokenDenyList denyList = new AccessTokenDenyList();
+
+    private static VerifiedToken token(String jti, Instant expiresAt) {
+        return new VerifiedToken(jti, "alice", Instant.now(), expiresAt, null, null, false);
+    }
+
+    @Test
+    void entryLivesUntilTheTokenExpires() throws Exception {
+        Instant expiresAt = Instant.now().plusMillis(300);
+        denyList.deny(token("short", expiresAt));
+        denyList.deny(token("long", Instant.now().plusSeconds(600)));
+
+        assertTrue(denyList.isDenied("short"));
+
+        Thread.sleep(Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis()) + 50);
+
+        // Token đã tự hết hạn: không cần chặn nữa và entry được dọn
+        assertFalse(denyList.isDenied("short"));
+        assertTrue(denyList.isDenied("long"));
+        assertEquals(1, denyList.stats().get("size"));
+    }
+
+    @Test
+    void purgeDropsOnlyExpiredEntries() throws Exception {
+        denyList.deny(token("short", Instant.now().plusMillis(100)));
+        denyList.deny(token("long", Instant.now().plusSeconds(600)));
+
+        Thread.sleep(150);
+        denyList.purgeExpired();
+
+        assertEquals(1, denyList.stats().get("size"));
+        assertTrue(denyList.isDenied("long"));
+    }
+
+    @Test
+    void alreadyExpiredOrAnonymousTokensAreNotStored() {
+        denyList.deny(token("expired", Instant.now().minusSeconds(1)));
+        denyList.deny(token(null, Instant.now().plusSeconds(600)));
+
+        assertFalse(denyList.isDenied("expired"));
+        assertEquals(0, denyList.stats().get("size"));
+    }
+}
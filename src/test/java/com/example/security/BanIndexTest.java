@@ -0,0 +1,69 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.repository.UserRepository;
+
+class BanIndexTest {
+
+    private UserRepository userRepository;
+
+    private BanIndex banIndex;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        banIndex = new BanIndex(userRepository);
+    }
+
+    @Test
+    void banAppliedDuringReloadSurvivesTheMerge() {
+        UUID bannedMidReload = UUID.randomUUID();
+        UUID unbannedMidReload = UUID.randomUUID();
+        banIndex.ban(unbannedMidReload, null);
+        // Kết quả truy vấn được đọc trước khi hai thay đổi dưới đây commit
+        when(userRepository.findActiveBans(any())).thenAnswer(invocation -> {
+            banIndex.ban(bannedMidReload, OffsetDateTime.now().plusDays(1));
+            banIndex.unban(unbannedMidReload);
+            return List.<Object[]>of(new Object[] { unbannedMidReload, null });
+        });
+
+        banIndex.reload();
+
+        assertTrue(banIndex.isBanned(bannedMidReload));
+        assertFalse(banIndex.isBanned(unbannedMidReload));
+    }
+
+    @Test
+    void reloadReplacesEntriesNotChangedLocally() {
+        UUID stale = UUID.randomUUID();
+        UUID bannedElsewhere = UUID.randomUUID();
+        banIndex.ban(stale, null);
+        when(userRepository.findActiveBans(any()))
+                .thenReturn(List.<Object[]>of(new Object[] { bannedElsewhere, OffsetDateTime.now().plusHours(1) }));
+
+        banIndex.reload();
+
+        assertFalse(banIndex.isBanned(stale));
+        assertTrue(banIndex.isBanned(bannedElsewhere));
+    }
+
+    @Test
+    void expiredBanIsNotReported() {
+        UUID userId = UUID.randomUUID();
+        banIndex.ban(userId, OffsetDateTime.now().minusMinutes(1));
+
+        assertFalse(banIndex.isBanned(userId));
+    }
+}
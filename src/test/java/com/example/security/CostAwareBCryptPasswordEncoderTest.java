@@ -0,0 +1,25 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class CostAwareBCryptPasswordEncoderTest {
+
+    @Test
+    void hashWithDifferentCostNeedsUpgrade() {
+        CostAwareBCryptPasswordEncoder encoder = new CostAwareBCryptPasswordEncoder(5);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    @Test
+    void plainTextIsNotRecognisedAsHash() {
+        assertFalse(CostAwareBCryptPasswordEncoder.isBCryptHash("password123"));
+        assertTrue(CostAwareBCryptPasswordEncoder.isBCryptHash(new BCryptPasswordEncoder(4).encode("password123")));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+class JwtVerifierTest {
+
+    private static final String SECRET = "MDc4MzcyNTAtMWVjYi00MjcwLThlMjEtMGNmYzFmYjc2OWNiYTYwZTA2NmQtNTU4NC00N2RmLWE5ZTAtMTIwZjUyNjY4Yjg3";
+
+    private JwtUtils jwtUtils;
+
+    private JwtVerifier jwtVerifier;
+
+    @BeforeEach
+    void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 60_000L);
+        jwtVerifier = new JwtVerifier(jwtUtils, 2);
+    }
+
+    @Test
+    void repeatedTokenIsServedFromCache() {
+        String token = jwtUtils.generateToken("jwtuser");
+
+        VerifiedToken first = jwtVerifier.verify(token);
+        VerifiedToken second = jwtVerifier.verify(token);
+
+        assertEquals("jwtuser", first.getUsername());
+        assertSame(first, second);
+        assertEquals(1L, jwtVerifier.stats().get("hits"));
+        assertEquals(1L, jwtVerifier.stats().get("verifications"));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String expired = Jwts.builder()
+                .subject("jwtuser")
+                .issuedAt(new Date(System.currentTimeMillis() - 60_000))
+                .expiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtVerifier.verify(expired));
+        assertNull(jwtVerifier.verifyOrNull("invalid.header.payload"));
+    }
+
+    @Test
+    void cacheStaysWithinMaxSize() {
+        jwtVerifier.verify(jwtUtils.generateToken("a"));
+        jwtVerifier.verify(jwtUtils.generateToken("b"));
+        jwtVerifier.verify(jwtUtils.generateToken("c"));
+
+        assertEquals(2, jwtVerifier.stats().get("size"));
+    }
+
+    @Test
+    void oldestTokenIsEvictedFirst() {
+        String a = jwtUtils.generateToken("a");
+        jwtVerifier.verify(a);
+        jwtVerifier.verify(jwtUtils.generateToken("b"));
+        jwtVerifier.verify(jwtUtils.generateToken("c"));
+
+        jwtVerifier.verify(a);
+
+        assertEquals(0L, jwtVerifier.stats().get("hits"));
+        assertEquals(4L, jwtVerifier.stats().get("verifications"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class KeyedRateLimiterTest {
+
+    @Test
+    void burstIsAllowedThenRejectedUntilRefill() {
+        AtomicLong clock = new AtomicLong(1_000_000L);
+        KeyedRateLimiter limiter = new KeyedRateLimiter(3, 60, 100, clock::get);
+
+        assertTrue(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("bob"));
+
+        // 60 token/phút = 1 token mỗi giây
+        clock.addAndGet(1000);
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+
+        assertEquals(2, limiter.getRejected());
+    }
+
+    @Test
+    void trackedKeysAreBounded() {
+        AtomicLong clock = new AtomicLong(0L);
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 60, 10, clock::get);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire("user-" + i);
+        }
+
+        assertTrue(limiter.getTrackedKeys() <= 10);
+    }
+
+    @Test
+    void hasTokenDoesNotConsume() {
+        AtomicLong clock = new AtomicLong(0L);
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 60, 100, clock::get);
+
+        assertTrue(limiter.hasToken("alice"));
+        assertTrue(limiter.hasToken("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.hasToken("alice"));
+        assertEquals(0, limiter.getRejected());
+    }
+
+    @Test
+    void evictionLeavesHeadroomBeforeNextSweep() {
+        AtomicLong clock = new AtomicLong(0L);
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 60, 100, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("user-" + i);
+        }
+        limiter.tryAcquire("user-100");
+
+        // Không bucket nào rảnh nên lần dọn hạ xuống 90 rồi mới thêm khóa mới
+        assertEquals(91, limiter.getTrackedKeys());
+    }
+}
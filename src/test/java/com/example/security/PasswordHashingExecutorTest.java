@@ -0,0 +1,83 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.exception.ServiceOverloadedException;
+
+class PasswordHashingExecutorTest {
+
+    private PasswordHashingExecutor hashingExecutor;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+        if (hashingExecutor != null) {
+            hashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void saturatedPoolRejectsImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.matches(any(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        // Một luồng, hàng đợi một chỗ
+        hashingExecutor = new PasswordHashingExecutor(encoder, 1, 1, 5000, 3);
+
+        Future<Boolean> running = callers.submit(() -> hashingExecutor.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Boolean> queued = callers.submit(() -> hashingExecutor.matches("b", "hash"));
+        while ((Integer) hashingExecutor.stats().get("queueDepth") < 1) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+                () -> hashingExecutor.matches("c", "hash"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(3, e.getRetryAfterSeconds());
+        assertEquals(1L, hashingExecutor.stats().get("rejected"));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void onlyBCryptHashesCountAsEncoded() {
+        hashingExecutor = new PasswordHashingExecutor(mock(PasswordEncoder.class), 1, 1, 5000, 3);
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(hashingExecutor.isEncoded(hash));
+        assertTrue(hashingExecutor.isEncoded("{bcrypt}" + hash));
+        // Mật khẩu plain text bắt đầu bằng "{" không được coi là đã mã hóa
+        assertFalse(hashingExecutor.isEncoded("{secret}"));
+        assertFalse(hashingExecutor.isEncoded("{bcrypt}secret"));
+        assertFalse(hashingExecutor.isEncoded("{noop}" + hash));
+        assertFalse(hashingExecutor.isEncoded(null));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.entity.DeletedUser;
+import com.example.event.UserAccountChangedEvent;
+import com.example.event.UserAccountChangedEvent.ChangeType;
+import com.example.repository.DeletedUserRepository;
+import com.example.repository.UserRepository;
+
+class TokenRevocationSetTest {
+
+    private BanIndex banIndex;
+
+    private UserRepository userRepository;
+
+    private DeletedUserRepository deletedUserRepository;
+
+    private TokenRevocationSet revocationSet;
+
+    @BeforeEach
+    void setup() {
+        banIndex = mock(BanIndex.class);
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        when(jwtUtils.isStatelessClaimsEnabled()).thenReturn(true);
+        userRepository = mock(UserRepository.class);
+        deletedUserRepository = mock(DeletedUserRepository.class);
+        revocationSet = new TokenRevocationSet(banIndex, jwtUtils, userRepository, deletedUserRepository, 3_600_000L);
+    }
+
+    @Test
+    void cutoffLoadedFromDatabaseRevokesOlderTokens() {
+        UUID userId = UUID.randomUUID();
+        Instant cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(60).plusMillis(400);
+        when(userRepository.findTokenCutoffsSince(any()))
+                .thenReturn(List.<Object[]>of(new Object[] { userId, OffsetDateTime.ofInstant(cutoff, ZoneOffset.UTC) }));
+
+        revocationSet.refresh();
+
+        assertTrue(revocationSet.isRevoked(userId, cutoff.minusSeconds(5)));
+        // iat bị cắt về giây: token cùng giây với mốc không phân biệt được trước/sau nên bị từ chối
+        assertTrue(revocationSet.isRevoked(userId, cutoff.truncatedTo(ChronoUnit.SECONDS)));
+        assertFalse(revocationSet.isRevoked(userId, cutoff.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1)));
+        assertFalse(revocationSet.isRevoked(UUID.randomUUID(), cutoff.minusSeconds(5)));
+    }
+
+    @Test
+    void deletedUsersAreRevokedAfterRestart() {
+        UUID userId = UUID.randomUUID();
+        OffsetDateTime deletedAt = OffsetDateTime.now().minusMinutes(1);
+        when(deletedUserRepository.findByDeletedAtAfter(any()))
+                .thenReturn(List.of(new DeletedUser(userId, deletedAt)));
+
+        revocationSet.loadOnStartup();
+
+        assertTrue(revocationSet.isRevoked(userId, deletedAt.toInstant().minusSeconds(30)));
+    }
+
+    @Test
+    void refreshKeepsLaterCutoffFromLocalEvent() {
+        UUID userId = UUID.randomUUID();
+        revocationSet.onUserAccountChanged(new UserAccountChangedEvent(userId, "alice", ChangeType.ROLE_CHANGED));
+        Instant afterEvent = Instant.now();
+        // DB trả về mốc cũ hơn (node khác đọc trước khi transaction commit)
+        OffsetDateTime stale = OffsetDateTime.now().minusMinutes(10);
+        when(userRepository.findTokenCutoffsSince(any()))
+                .thenReturn(List.<Object[]>of(new Object[] { userId, stale }));
+
+        revocationSet.refresh();
+
+        assertTrue(revocationSet.isRevoked(userId, afterEvent.minusSeconds(60)));
+    }
+
+    @Test
+    void bannedUserIsRevokedWithoutCutoff() {
+        UUID userId = UUID.randomUUID();
+        when(banIndex.isBanned(userId)).thenReturn(true);
+
+        assertTrue(revocationSet.isRevoked(userId, Instant.now()));
+    }
+}
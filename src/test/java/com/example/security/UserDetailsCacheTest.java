@@ -0,0 +1,72 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+class UserDetailsCacheTest {
+
+    private JwtService jwtService;
+
+    private UserDetailsCache cache;
+
+    @BeforeEach
+    void setup() {
+        jwtService = mock(JwtService.class);
+        cache = new UserDetailsCache(jwtService, 60_000L, 100);
+    }
+
+    private static UserDetails withRole(String role) {
+        return User.withUsername("alice").password("hash").authorities(role).build();
+    }
+
+    @Test
+    void secondLookupIsServedFromCache() {
+        when(jwtService.loadUserByUsername("alice")).thenReturn(withRole("ROLE_USER"));
+
+        cache.get("alice");
+        cache.get("alice");
+
+        verify(jwtService, times(1)).loadUserByUsername("alice");
+        assertEquals(1L, cache.stats().get("hits"));
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotCached() {
+        // Quyền bị đổi trong lúc đang nạp: kết quả nạp mang quyền cũ
+        when(jwtService.loadUserByUsername("alice"))
+                .thenAnswer(invocation -> {
+                    cache.invalidate("alice");
+                    return withRole("ROLE_ADMIN");
+                })
+                .thenReturn(withRole("ROLE_USER"));
+
+        cache.get("alice");
+        UserDetails after = cache.get("alice");
+
+        verify(jwtService, times(2)).loadUserByUsername("alice");
+        assertEquals("ROLE_USER", after.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void loadRacingInvalidateAllIsNotCached() {
+        when(jwtService.loadUserByUsername("alice"))
+                .thenAnswer(invocation -> {
+                    cache.invalidateAll();
+                    return withRole("ROLE_ADMIN");
+                })
+                .thenReturn(withRole("ROLE_USER"));
+
+        cache.get("alice");
+        cache.get("alice");
+
+        verify(jwtService, times(2)).loadUserByUsername("alice");
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.entity.Topic;
+import com.example.entity.Vocabulary;
+import com.example.entity.Vocabulary.WordType;
+import com.example.event.VocabularyChangedEvent;
+import com.example.event.VocabularyChangedEvent.ChangeType;
+import com.example.repository.VocabularyRepository;
+
+class DistractorIndexTest {
+
+    private VocabularyRepository vocabularyRepository;
+
+    private DistractorIndex index;
+
+    private final List<Vocabulary> vocabularies = new ArrayList<>();
+
+    private final Topic fruit = topic("fruit");
+
+    private final Topic animals = topic("animals");
+
+    @BeforeEach
+    void setup() {
+        vocabularyRepository = mock(VocabularyRepository.class);
+        when(vocabularyRepository.findAllWithTopic()).thenReturn(vocabularies);
+        index = new DistractorIndex(vocabularyRepository);
+
+        vocabularies.add(vocabulary(fruit, "apple", "quả táo", WordType.noun, "A1"));
+        vocabularies.add(vocabulary(fruit, "banana", "quả chuối", WordType.noun, "A1"));
+        vocabularies.add(vocabulary(fruit, "cherry", "quả anh đào", WordType.noun, "A1"));
+        vocabularies.add(vocabulary(fruit, "grape", "quả nho", WordType.noun, "A1"));
+        vocabularies.add(vocabulary(animals, "cat", "con mèo", WordType.noun, "A1"));
+        vocabularies.add(vocabulary(animals, "run", "chạy", WordType.verb, "A1"));
+    }
+
+    private static Topic topic(String name) {
+        Topic topic = new Topic(name, name);
+        topic.setTopicId(UUID.randomUUID());
+        return topic;
+    }
+
+    private static Vocabulary vocabulary(Topic topic, String word, String meaning, WordType type, String level) {
+        Vocabulary vocabulary = new Vocabulary(topic, word, meaning, type, null, null);
+        vocabulary.setVocabId(UUID.randomUUID());
+        vocabulary.setLevel(level);
+        return vocabulary;
+    }
+
+    @Test
+    void prefersWordsFromTheSameTopicTypeAndLevel() {
+        DistractorIndex.Entry apple = index.findByWord("Apple");
+
+        List<String> distractors = index.sample(apple, 3, new SplittableRandom(1));
+
+        assertEquals(3, distractors.size());
+        assertTrue(List.of("quả chuối", "quả anh đào", "quả nho").containsAll(distractors));
+        assertEquals(3, new HashSet<>(distractors).size());
+    }
+
+    @Test
+    void widensToCoarserPartitionsWhenTheTopicIsTooSmall() {
+        DistractorIndex.Entry cat = index.findByWord("cat");
+
+        List<String> distractors = index.sample(cat, 3, new SplittableRandom(7));
+
+        assertEquals(3, distractors.size());
+        assertFalse(distractors.contains("con mèo"));
+        // Danh từ cùng level được chọn trước động từ
+        assertFalse(distractors.contains("chạy"));
+    }
+
+    @Test
+    void neverRepeatsTheCorrectMeaningOrASynonym() {
+        vocabularies.add(vocabulary(fruit, "pome", "Quả táo ", WordType.noun, "A1"));
+        DistractorIndex.Entry apple = index.findByWord("apple");
+
+        for (long seed = 0; seed < 50; seed++) {
+            List<String> distractors = index.sample(apple, 3, new SplittableRandom(seed));
+            assertFalse(distractors.stream().anyMatch(m -> m.trim().equalsIgnoreCase("quả táo")));
+        }
+    }
+
+    @Test
+    void returnsFewerWhenNotEnoughDistinctMeanings() {
+        vocabularies.clear();
+        vocabularies.add(vocabulary(fruit, "apple", "quả táo", WordType.noun, "A1"));
+        vocabularies.add(vocabulary(fruit, "banana", "quả chuối", WordType.noun, "A1"));
+
+        List<String> distractors = index.sample(index.findByWord("apple"), 3, new SplittableRandom(3));
+
+        assertEquals(List.of("quả chuối"), distractors);
+        assertEquals(1L, index.stats().get("shortfalls"));
+    }
+
+    @Test
+    void appliesVocabularyChangesWithoutRebuilding() {
+        index.findByWord("apple");
+        Vocabulary kiwi = vocabulary(fruit, "kiwi", "quả kiwi", WordType.noun, "A1");
+        when(vocabularyRepository.findById(kiwi.getVocabId())).thenReturn(Optional.of(kiwi));
+
+        index.onVocabularyChanged(new VocabularyChangedEvent(kiwi.getVocabId(), ChangeType.CREATED));
+        index.onVocabularyChanged(new VocabularyChangedEvent(vocabularies.get(1).getVocabId(), ChangeType.DELETED));
+
+        assertEquals("quả kiwi", index.findByWord("kiwi").getMeaning());
+        assertNull(index.findByWord("banana"));
+        for (long seed = 0; seed < 20; seed++) {
+            assertFalse(index.sample(index.findByWord("apple"), 3, new SplittableRandom(seed)).contains("quả chuối"));
+        }
+        verify(vocabularyRepository, times(1)).findAllWithTopic();
+    }
+
+    @Test
+    void sameWordInAnotherTopicStaysFindableAfterRemoval() {
+        Vocabulary batFruit = vocabulary(fruit, "bat", "quả dơi", WordType.noun, "A1");
+        Vocabulary batAnimal = vocabulary(animals, "bat", "con dơi", WordType.noun, "A1");
+        vocabularies.add(batFruit);
+        vocabularies.add(batAnimal);
+        assertEquals("quả dơi", index.findByWord("bat").getMeaning());
+
+        index.remove(batFruit.getVocabId());
+
+        assertEquals("con dơi", index.findByWord("bat").getMeaning());
+        index.remove(batAnimal.getVocabId());
+        assertNull(index.findByWord("bat"));
+    }
+
+    @Test
+    void changeDuringTheInitialLoadIsNotLost() {
+        Vocabulary kiwi = vocabulary(fruit, "kiwi", "quả kiwi", WordType.noun, "A1");
+        when(vocabularyRepository.findById(kiwi.getVocabId())).thenReturn(Optional.of(kiwi));
+        // Sự kiện đến sau khi rebuild đã đọc DB nhưng trước khi nạp xong
+        when(vocabularyRepository.findAllWithTopic()).thenAnswer(invocation -> {
+            List<Vocabulary> snapshot = new ArrayList<>(vocabularies);
+            index.onVocabularyChanged(new VocabularyChangedEvent(kiwi.getVocabId(), ChangeType.CREATED));
+            return snapshot;
+        });
+
+        assertEquals("quả kiwi", index.findByWord("kiwi").getMeaning());
+    }
+}
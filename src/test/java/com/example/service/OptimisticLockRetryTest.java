@@ -0,0 +1,61 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.entity.UserLearningVocab;
+
+class OptimisticLockRetryTest {
+
+    private final OptimisticLockRetry retry = new OptimisticLockRetry(mock(PlatformTransactionManager.class), 3, 1, 2);
+
+    @Test
+    void retriesConflictsUntilTheWorkSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(UserLearningVocab.class, "id");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2L, retry.stats().get("conflicts"));
+        assertEquals(2L, retry.stats().get("retries"));
+        assertEquals(0L, retry.stats().get("exhausted"));
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(UserLearningVocab.class, "id");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1L, retry.stats().get("exhausted"));
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("bad input");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+}
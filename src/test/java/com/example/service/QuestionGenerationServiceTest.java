@@ -0,0 +1,182 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.entity.AnswerOption;
+import com.example.entity.Question;
+import com.example.entity.TestQuestion;
+import com.example.entity.UserAnswer;
+import com.example.entity.Vocabulary;
+import com.example.entity.Vocabulary.WordType;
+import com.example.repository.AnswerOptionRepository;
+import com.example.repository.QuestionRepository;
+import com.example.repository.TestQuestionRepository;
+import com.example.repository.TestRepository;
+import com.example.repository.VocabularyRepository;
+
+class QuestionGenerationServiceTest {
+
+    private QuestionRepository questionRepository;
+
+    private TestRepository testRepository;
+
+    private QuestionGenerationService service;
+
+    // Đóng vai bảng questions và test_questions
+    private final List<Question> savedQuestions = new ArrayList<>();
+
+    private final List<AnswerOption> savedOptions = new ArrayList<>();
+
+    private final List<TestQuestion> savedLinks = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        List<Vocabulary> vocabularies = List.of(
+                vocabulary("apple", "quả táo"),
+                vocabulary("banana", "quả chuối"),
+                vocabulary("cherry", "quả anh đào"),
+                vocabulary("grape", "quả nho"),
+                vocabulary("lemon", "quả chanh"));
+        VocabularyRepository vocabularyRepository = mock(VocabularyRepository.class);
+        when(vocabularyRepository.findAllWithTopic()).thenReturn(vocabularies);
+
+        questionRepository = mock(QuestionRepository.class);
+        when(questionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Question> questions = invocation.getArgument(0);
+            for (Question question : questions) {
+                question.setQuestionId(UUID.randomUUID());
+                savedQuestions.add(question);
+            }
+            return questions;
+        });
+        when(questionRepository.findBankQuestions(any(), anyString(), anyList())).thenAnswer(invocation -> {
+            List<UUID> vocabIds = invocation.getArgument(2);
+            return savedQuestions.stream()
+                    .filter(q -> q.getTestType() == invocation.getArgument(0)
+                            && invocation.getArgument(1).equals(q.getTemplate())
+                            && vocabIds.contains(q.getVocabId()))
+                    .toList();
+        });
+
+        AnswerOptionRepository answerOptionRepository = mock(AnswerOptionRepository.class);
+        when(answerOptionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            savedOptions.addAll((List<AnswerOption>) invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        TestQuestionRepository testQuestionRepository = mock(TestQuestionRepository.class);
+        when(testQuestionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            savedLinks.addAll((List<TestQuestion>) invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        testRepository = mock(TestRepository.class);
+        when(testRepository.findById(any())).thenReturn(Optional.empty());
+
+        service = new QuestionGenerationService();
+        ReflectionTestUtils.setField(service, "questionRepository", questionRepository);
+        ReflectionTestUtils.setField(service, "answerOptionRepository", answerOptionRepository);
+        ReflectionTestUtils.setField(service, "testRepository", testRepository);
+        ReflectionTestUtils.setField(service, "testQuestionRepository", testQuestionRepository);
+        ReflectionTestUtils.setField(service, "distractorIndex", new DistractorIndex(vocabularyRepository));
+    }
+
+    private static Vocabulary vocabulary(String word, String meaning) {
+        Vocabulary vocabulary = new Vocabulary(null, word, meaning, WordType.noun, null, null);
+        vocabulary.setVocabId(UUID.randomUUID());
+        vocabulary.setLevel("A1");
+        return vocabulary;
+    }
+
+    private static com.example.entity.Test test(com.example.entity.Test.TestType type, int numQuestions) {
+        com.example.entity.Test test = new com.example.entity.Test(null, type, numQuestions, null);
+        test.setTestId(UUID.randomUUID());
+        return test;
+    }
+
+    @Test
+    void secondTestReusesBankItemsInsteadOfCreatingRows() {
+        com.example.entity.Test first = test(com.example.entity.Test.TestType.multiple_choice, 3);
+        List<Question> firstQuestions = service.generateQuestionsForTest(first, List.of("apple", "banana", "cherry"));
+        int questionRows = savedQuestions.size();
+        int optionRows = savedOptions.size();
+
+        com.example.entity.Test second = test(com.example.entity.Test.TestType.multiple_choice, 3);
+        List<Question> secondQuestions = service.generateQuestionsForTest(second, List.of("Cherry", "apple", "banana"));
+
+        assertEquals(3, questionRows);
+        assertEquals(12, optionRows);
+        assertEquals(questionRows, savedQuestions.size());
+        assertEquals(optionRows, savedOptions.size());
+        assertSame(firstQuestions.get(2), secondQuestions.get(0));
+        assertEquals(6, savedLinks.size());
+        assertEquals(3L, service.stats().get("bankHits"));
+        assertEquals(3L, service.stats().get("bankMisses"));
+    }
+
+    @Test
+    void bankItemsAreKeyedByTestType() {
+        service.generateQuestionsForTest(test(com.example.entity.Test.TestType.multiple_choice, 1), List.of("apple"));
+        service.generateQuestionsForTest(test(com.example.entity.Test.TestType.true_false, 1), List.of("apple"));
+
+        assertEquals(2, savedQuestions.size());
+        assertEquals("mc-meaning-v1", savedQuestions.get(0).getTemplate());
+        assertEquals("tf-valid-word-v1", savedQuestions.get(1).getTemplate());
+    }
+
+    @Test
+    void unknownWordsGetQuestionsOwnedByTheTest() {
+        com.example.entity.Test test = test(com.example.entity.Test.TestType.fill_in_the_blank, 3);
+
+        List<Question> questions = service.generateQuestionsForTest(test, List.of("apple", "zyzzyva"));
+
+        assertEquals(2, questions.size());
+        assertNull(questions.get(0).getTest());
+        assertEquals("apple", questions.get(0).getCorrectAnswerText());
+        assertSame(test, questions.get(1).getTest());
+        assertNull(questions.get(1).getVocabId());
+        assertEquals(1, savedLinks.size());
+        assertEquals(0, savedLinks.get(0).getPosition());
+    }
+
+    @Test
+    void duplicateWordsAreLinkedOnce() {
+        com.example.entity.Test test = test(com.example.entity.Test.TestType.true_false, 3);
+
+        List<Question> questions = service.generateQuestionsForTest(test, List.of("apple", "APPLE", "lemon"));
+
+        assertEquals(2, questions.size());
+        assertEquals(2, savedLinks.size());
+    }
+
+    @Test
+    void gradesBankItemsByTheirOwnTestType() {
+        List<Question> questions = service.generateQuestionsForTest(
+                test(com.example.entity.Test.TestType.fill_in_the_blank, 1), List.of("grape"));
+        Question question = questions.get(0);
+
+        UserAnswer answer = new UserAnswer();
+        answer.setTextAnswer(" Grape ");
+
+        assertNull(question.getTest());
+        assertTrue(service.validateUserAnswer(question, answer));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.entity.RefreshToken;
+import com.example.entity.User;
+import com.example.repository.RefreshTokenRepository;
+import com.example.repository.UserRepository;
+
+class RefreshTokenServiceTest {
+
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        UserRepository userRepository = mock(UserRepository.class);
+        User user = new User();
+        user.setUserId(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenDurationMs", 60_000L);
+        ReflectionTestUtils.setField(refreshTokenService, "maxSessionsPerUser", 3);
+    }
+
+    @Test
+    void storesOnlyTheHashAndLooksUpByIt() {
+        RefreshToken created = refreshTokenService.createRefreshToken(userId);
+
+        assertNotEquals(created.getToken(), created.getTokenHash());
+        assertEquals(RefreshTokenService.hashToken(created.getToken()), created.getTokenHash());
+
+        refreshTokenService.findByToken(created.getToken());
+        verify(refreshTokenRepository).findByTokenHash(created.getTokenHash());
+    }
+
+    @Test
+    void evictsOldestSessionsAtTheLimit() {
+        UUID newest = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+        UUID oldest = UUID.randomUUID();
+        when(refreshTokenRepository.countByUserUserId(userId)).thenReturn(3L);
+        when(refreshTokenRepository.findSessionIdsNewestFirst(userId)).thenReturn(List.of(newest, middle, oldest));
+
+        refreshTokenService.createRefreshToken(userId);
+
+        // Còn chỗ cho phiên vừa tạo: chỉ giữ maxSessionsPerUser - 1 phiên cũ
+        verify(refreshTokenRepository).deleteByIdIn(List.of(oldest));
+    }
+
+    @Test
+    void belowTheLimitNothingIsEvicted() {
+        when(refreshTokenRepository.countByUserUserId(userId)).thenReturn(1L);
+
+        refreshTokenService.createRefreshToken(userId);
+
+        verify(refreshTokenRepository, never()).deleteByIdIn(anyList());
+    }
+
+    @Test
+    void expiredTokenIsDeletedOnVerification() {
+        RefreshToken expired = new RefreshToken();
+        expired.setExpiryDate(Instant.now().minusSeconds(1));
+
+        assertThrows(RuntimeException.class, () -> refreshTokenService.verifyExpiration(expired));
+        verify(refreshTokenRepository).delete(expired);
+    }
+
+    @Test
+    void emptyExpiredBatchSkipsTheDelete() {
+        Instant now = Instant.now();
+        when(refreshTokenRepository.findExpiredIds(now, PageRequest.of(0, 50))).thenReturn(List.of());
+
+        assertEquals(0, refreshTokenService.deleteExpiredBatch(now, 50));
+        verify(refreshTokenRepository, never()).deleteByIdIn(anyList());
+    }
+}
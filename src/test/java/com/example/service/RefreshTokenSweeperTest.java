@@ -0,0 +1,46 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RefreshTokenSweeperTest {
+
+    private RefreshTokenService refreshTokenService;
+
+    private RefreshTokenSweeper sweeper;
+
+    @BeforeEach
+    void setup() {
+        refreshTokenService = mock(RefreshTokenService.class);
+        sweeper = new RefreshTokenSweeper(refreshTokenService);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 10);
+        ReflectionTestUtils.setField(sweeper, "maxBatches", 3);
+    }
+
+    @Test
+    void stopsAfterAPartialBatch() {
+        when(refreshTokenService.deleteExpiredBatch(any(Instant.class), eq(10))).thenReturn(10, 4);
+
+        assertEquals(14, sweeper.sweep());
+        verify(refreshTokenService, times(2)).deleteExpiredBatch(any(Instant.class), eq(10));
+    }
+
+    @Test
+    void boundsTheNumberOfBatchesPerRun() {
+        when(refreshTokenService.deleteExpiredBatch(any(Instant.class), eq(10))).thenReturn(10);
+
+        assertEquals(30, sweeper.sweep());
+        verify(refreshTokenService, times(3)).deleteExpiredBatch(any(Instant.class), eq(10));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.entity.User;
+import com.example.entity.UserLearningVocab;
+import com.example.entity.Vocabulary;
+import com.example.repository.UserLearningVocabRepository;
+
+class ReviewQueueTest {
+
+    private final UUID userId = UUID.randomUUID();
+
+    private final OffsetDateTime now = OffsetDateTime.now();
+
+    private UserLearningVocabRepository repository;
+
+    private ReviewQueue queue;
+
+    private UserLearningVocab dueInTwoHours;
+    private UserLearningVocab dueHourAgo;
+    private UserLearningVocab dueDayAgo;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(UserLearningVocabRepository.class);
+        queue = new ReviewQueue(repository, 60_000, 100);
+
+        dueInTwoHours = entry(now.plusHours(2));
+        dueHourAgo = entry(now.minusHours(1));
+        dueDayAgo = entry(now.minusDays(1));
+        when(repository.findReviewQueueEntries(userId)).thenReturn(List.of(dueInTwoHours, dueHourAgo, dueDayAgo));
+    }
+
+    private UserLearningVocab entry(OffsetDateTime nextReviewAt) {
+        User user = new User();
+        user.setUserId(userId);
+        Vocabulary vocabulary = new Vocabulary();
+        vocabulary.setVocabId(UUID.randomUUID());
+        UserLearningVocab entry = new UserLearningVocab(user, vocabulary);
+        entry.setNextReviewAt(nextReviewAt);
+        return entry;
+    }
+
+    @Test
+    void returnsDueCardsEarliestFirstAndLoadsOnlyOnce() {
+        assertFalse(queue.isLoaded(userId));
+
+        assertEquals(List.of(dueDayAgo, dueHourAgo), queue.nextDue(userId, now, 20));
+        assertEquals(List.of(dueDayAgo), queue.nextDue(userId, now, 1));
+
+        assertTrue(queue.isLoaded(userId));
+        verify(repository, times(1)).findReviewQueueEntries(userId);
+    }
+
+    @Test
+    void updatesAndRemovalsReorderTheQueue() {
+        queue.nextDue(userId, now, 20);
+
+        // Ôn xong thẻ cũ nhất: được đẩy ra sau, không còn đến hạn
+        dueDayAgo.setNextReviewAt(now.plusDays(3));
+        queue.update(userId, dueDayAgo);
+        assertEquals(List.of(dueHourAgo), queue.nextDue(userId, now, 20));
+
+        queue.remove(userId, dueHourAgo.getVocabulary().getVocabId());
+        assertEquals(List.of(), queue.nextDue(userId, now, 20));
+
+        assertEquals(List.of(dueInTwoHours, dueDayAgo), queue.nextDue(userId, now.plusDays(4), 20));
+    }
+
+    @Test
+    void idleUsersAreEvictedAndReloaded() {
+        ReviewQueue shortLived = new ReviewQueue(repository, -1, 100);
+        shortLived.nextDue(userId, now, 20);
+
+        shortLived.evictIdle();
+        assertFalse(shortLived.isLoaded(userId));
+
+        shortLived.nextDue(userId, now, 20);
+        verify(repository, times(2)).findReviewQueueEntries(userId);
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.entity.User;
+import com.example.entity.UserLearningVocab;
+import com.example.entity.Vocabulary;
+
+class ReviewWriteBehindBufferTest {
+
+    @TempDir
+    Path journalDir;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+
+    private final UUID vocabId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+    }
+
+    private ReviewWriteBehindBuffer buffer() {
+        return new ReviewWriteBehindBuffer(jdbcTemplate, mock(PlatformTransactionManager.class), true,
+                journalDir.toString(), false, 100);
+    }
+
+    private UserLearningVocab state(long repetitions) {
+        User user = new User();
+        user.setUserId(userId);
+        Vocabulary vocabulary = new Vocabulary();
+        vocabulary.setVocabId(vocabId);
+        UserLearningVocab state = new UserLearningVocab(user, vocabulary);
+        state.setRepetitionCount(repetitions);
+        state.setNextReviewAt(OffsetDateTime.now().plusDays(repetitions));
+        return state;
+    }
+
+    private static List<ReviewWriteBehindBuffer.Outcome> correct() {
+        return List.of(new ReviewWriteBehindBuffer.Outcome(true, OffsetDateTime.now()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Collection<?>> batchArgs(int calls) {
+        ArgumentCaptor<Collection<?>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(calls)).batchUpdate(any(String.class), rows.capture(), eq(100),
+                any(ParameterizedPreparedStatementSetter.class));
+        return rows.getAllValues();
+    }
+
+    @Test
+    void coalescesToTheLatestStateAndKeepsEveryReview() {
+        ReviewWriteBehindBuffer buffer = buffer();
+        buffer.record(state(1), correct());
+        UserLearningVocab latest = state(2);
+        buffer.record(latest, correct());
+
+        assertSame(latest, buffer.findPending(userId, vocabId));
+        assertEquals(1, buffer.flush());
+
+        List<Collection<?>> args = batchArgs(2);
+        assertEquals(1, args.get(0).size());
+        assertEquals(2, args.get(1).size());
+        assertNull(buffer.findPending(userId, vocabId));
+        assertEquals(0L, buffer.stats().get("journalBytes"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void inFlightBatchStaysReadableUntilCommit() {
+        ReviewWriteBehindBuffer buffer = buffer();
+        UserLearningVocab latest = state(2);
+        buffer.record(latest, correct());
+        UserLearningVocab[] seenDuringWrite = new UserLearningVocab[1];
+        when(jdbcTemplate.batchUpdate(any(String.class), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    seenDuringWrite[0] = buffer.findPending(userId, vocabId);
+                    return new int[0][];
+                });
+
+        buffer.flush();
+
+        assertSame(latest, seenDuringWrite[0]);
+        assertNull(buffer.findPending(userId, vocabId));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedFlushKeepsEntriesAndJournal() throws Exception {
+        when(jdbcTemplate.batchUpdate(any(String.class), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        ReviewWriteBehindBuffer buffer = buffer();
+        buffer.record(state(1), correct());
+
+        assertThrows(DataAccessResourceFailureException.class, buffer::flush);
+
+        assertEquals(1, buffer.stats().get("pendingCards"));
+        assertEquals(1L, buffer.stats().get("failedFlushes"));
+        try (var files = Files.list(journalDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replaysJournalLeftByACrash() {
+        ReviewWriteBehindBuffer crashed = buffer();
+        crashed.record(state(1), correct());
+        crashed.record(state(3), correct());
+        // Không flush, không drain: mô phỏng tiến trình bị dừng đột ngột
+
+        ReviewWriteBehindBuffer restarted = buffer();
+        restarted.replay();
+
+        List<Collection<?>> args = batchArgs(2);
+        ReviewWriteBehindBuffer.FlushRow row = (ReviewWriteBehindBuffer.FlushRow) args.get(0).iterator().next();
+        assertEquals(3L, row.repetitionCount);
+        assertEquals(2, row.outcomes.size());
+        assertEquals(1L, restarted.stats().get("replayedRows"));
+        assertEquals(0L, restarted.stats().get("journalBytes"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replayingACommittedSegmentReusesEventKeys() throws Exception {
+        ReviewWriteBehindBuffer crashed = buffer();
+        crashed.record(state(1), correct());
+        Path segment;
+        try (var files = Files.list(journalDir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        String content = Files.readString(segment);
+
+        buffer().replay();
+        // Tiến trình dừng sau khi commit nhưng trước khi xóa đoạn nhật ký: đoạn đó được phát lại lần nữa
+        Files.writeString(segment, content);
+        buffer().replay();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection<?>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(4)).batchUpdate(sql.capture(), rows.capture(), eq(100),
+                any(ParameterizedPreparedStatementSetter.class));
+        Object[] first = (Object[]) rows.getAllValues().get(1).iterator().next();
+        Object[] second = (Object[]) rows.getAllValues().get(3).iterator().next();
+        assertTrue(sql.getAllValues().get(1).endsWith("ON CONFLICT DO NOTHING"));
+        assertEquals(first[4], second[4]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void skipsTornJournalLine() throws Exception {
+        ReviewWriteBehindBuffer crashed = buffer();
+        crashed.record(state(1), correct());
+        Path segment;
+        try (var files = Files.list(journalDir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        Files.writeString(segment, userId + "\t" + vocabId + "\t", java.nio.file.StandardOpenOption.APPEND);
+
+        ReviewWriteBehindBuffer restarted = buffer();
+        restarted.replay();
+
+        assertEquals(1L, restarted.stats().get("replayedRows"));
+        assertEquals(1L, restarted.stats().get("skippedJournalLines"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nothingToFlushDoesNotTouchTheDatabase() {
+        assertEquals(0, buffer().flush());
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+}
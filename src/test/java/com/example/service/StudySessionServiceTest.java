@@ -0,0 +1,189 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.dto.ReviewOutcomeDTO;
+import com.example.dto.ReviewResultDTO;
+import com.example.entity.User;
+import com.example.entity.UserLearningVocab;
+import com.example.entity.Vocabulary;
+import com.example.exception.ResourceNotFoundException;
+
+class StudySessionServiceTest {
+
+    private UserLearningVocabService userLearningVocabService;
+
+    private StudySessionService service;
+
+    private final UUID userId = UUID.randomUUID();
+
+    private final List<UserLearningVocab> due = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        userLearningVocabService = mock(UserLearningVocabService.class);
+        service = new StudySessionService(userLearningVocabService, 50, 4, 1_800_000, 100, 100, 500);
+
+        User user = new User();
+        user.setUserId(userId);
+        for (int i = 0; i < 10; i++) {
+            Vocabulary vocabulary = new Vocabulary();
+            vocabulary.setVocabId(UUID.randomUUID());
+            UserLearningVocab entry = new UserLearningVocab(user, vocabulary);
+            entry.setNextReviewAt(OffsetDateTime.now().minusHours(10 - i));
+            due.add(entry);
+        }
+        // Chưa flush thì mọi thẻ vẫn còn đến hạn
+        when(userLearningVocabService.getVocabsToReview(eq(userId), anyInt()))
+                .thenAnswer(invocation -> due.subList(0, Math.min(due.size(), invocation.<Integer>getArgument(1))));
+        when(userLearningVocabService.updateAfterReviews(eq(userId), anyList()))
+                .thenAnswer(invocation -> invocation.<List<ReviewOutcomeDTO>>getArgument(1).stream()
+                        .map(o -> UserLearningVocabService.ReviewItemResult.updated(o.getVocabId(), due.get(0)))
+                        .toList());
+    }
+
+    private static List<ReviewOutcomeDTO> answers(List<UserLearningVocab> cards) {
+        List<ReviewOutcomeDTO> outcomes = new ArrayList<>();
+        for (UserLearningVocab card : cards) {
+            outcomes.add(new ReviewOutcomeDTO(card.getVocabulary().getVocabId().toString(), true, null));
+        }
+        return outcomes;
+    }
+
+    @Test
+    void servesEachDueCardOnceAcrossCalls() {
+        StudySessionService.Step first = service.open(userId, 3);
+        StudySessionService.Step second = service.submit(userId, first.getSessionId(), answers(first.getCards()), 3);
+
+        assertEquals(due.subList(0, 3), first.getCards());
+        assertEquals(due.subList(3, 6), second.getCards());
+        assertEquals(3, second.getSubmitted());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void buffersOutcomesUntilThresholdThenPersistsInOneBatch() {
+        StudySessionService.Step step = service.open(userId, 3);
+        step = service.submit(userId, step.getSessionId(), answers(step.getCards()), 3);
+        verify(userLearningVocabService, never()).updateAfterReviews(any(), anyList());
+        assertEquals(3, step.getPending());
+
+        step = service.submit(userId, step.getSessionId(), answers(step.getCards()), 0);
+
+        ArgumentCaptor<List<ReviewOutcomeDTO>> batch = ArgumentCaptor.forClass(List.class);
+        verify(userLearningVocabService, times(1)).updateAfterReviews(eq(userId), batch.capture());
+        assertEquals(6, batch.getValue().size());
+        // Thời điểm ôn tập được ghi lúc nhận, không phải lúc flush
+        assertNotNull(batch.getValue().get(0).getReviewedAt());
+        assertEquals(6, step.getPersisted());
+        assertEquals(0, step.getPending());
+    }
+
+    @Test
+    void closeFlushesRemainingOutcomesAndEndsTheSession() {
+        StudySessionService.Step step = service.open(userId, 2);
+        step = service.submit(userId, step.getSessionId(), answers(step.getCards()), 0);
+        UUID sessionId = step.getSessionId();
+
+        StudySessionService.Step closed = service.close(userId, sessionId);
+
+        assertTrue(closed.isClosed());
+        assertEquals(2, closed.getPersisted());
+        assertThrows(ResourceNotFoundException.class, () -> service.submit(userId, sessionId, List.of(), 1));
+    }
+
+    @Test
+    void rejectsCardsThatWereNotServed() {
+        StudySessionService.Step step = service.open(userId, 1);
+
+        step = service.submit(userId, step.getSessionId(),
+                List.of(new ReviewOutcomeDTO(due.get(5).getVocabulary().getVocabId().toString(), true, null)), 1);
+
+        assertEquals(1, step.getRejected().size());
+        assertEquals(ReviewResultDTO.INVALID, step.getRejected().get(0).getStatus());
+        assertEquals(0, step.getSubmitted());
+    }
+
+    @Test
+    void failedFlushKeepsOutcomesForTheNextAttempt() {
+        when(userLearningVocabService.updateAfterReviews(eq(userId), anyList()))
+                .thenThrow(new IllegalStateException("database unavailable"));
+        StudySessionService.Step step = service.open(userId, 4);
+
+        step = service.submit(userId, step.getSessionId(), answers(step.getCards()), 0);
+
+        assertEquals(4, step.getPending());
+        assertEquals(0, step.getPersisted());
+        assertEquals(1L, service.stats().get("failedFlushes"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushNeverExceedsTheReviewBatchLimit() {
+        service = new StudySessionService(userLearningVocabService, 50, 4, 1_800_000, 100, 100, 2);
+        StudySessionService.Step step = service.open(userId, 3);
+        step = service.submit(userId, step.getSessionId(), answers(step.getCards()), 0);
+
+        StudySessionService.Step closed = service.close(userId, step.getSessionId());
+
+        ArgumentCaptor<List<ReviewOutcomeDTO>> batch = ArgumentCaptor.forClass(List.class);
+        verify(userLearningVocabService, times(2)).updateAfterReviews(eq(userId), batch.capture());
+        assertEquals(2, batch.getAllValues().get(0).size());
+        assertEquals(1, batch.getAllValues().get(1).size());
+        assertEquals(3, closed.getPersisted());
+    }
+
+    @Test
+    void rejectsTooManyOutcomesInOneCall() {
+        service = new StudySessionService(userLearningVocabService, 50, 4, 1_800_000, 100, 2, 500);
+        StudySessionService.Step step = service.open(userId, 3);
+        UUID sessionId = step.getSessionId();
+        List<ReviewOutcomeDTO> outcomes = answers(step.getCards());
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(userId, sessionId, outcomes, 0));
+    }
+
+    @Test
+    void nonRetryableFailureIsReportedAndDoesNotBlockClose() {
+        when(userLearningVocabService.updateAfterReviews(eq(userId), anyList()))
+                .thenThrow(new ResourceNotFoundException("User not found with id: " + userId));
+        StudySessionService.Step step = service.open(userId, 2);
+        step = service.submit(userId, step.getSessionId(), answers(step.getCards()), 0);
+
+        StudySessionService.Step closed = service.close(userId, step.getSessionId());
+
+        assertTrue(closed.isClosed());
+        assertEquals(0, closed.getPending());
+        assertEquals(2, closed.getRejected().size());
+        assertEquals(ReviewResultDTO.NOT_FOUND, closed.getRejected().get(0).getStatus());
+    }
+
+    @Test
+    void sessionsAreNotVisibleToOtherUsers() {
+        StudySessionService.Step step = service.open(userId, 1);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.close(UUID.randomUUID(), step.getSessionId()));
+    }
+}
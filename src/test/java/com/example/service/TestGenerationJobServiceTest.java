@@ -0,0 +1,198 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.dto.TestGenerationJobDTO;
+import com.example.dto.TestGenerationRequestDTO;
+import com.example.entity.Test.TestType;
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.ServiceOverloadedException;
+import com.example.repository.TopicRepository;
+import com.example.repository.VocabularyRepository;
+
+class TestGenerationJobServiceTest {
+
+    private QuestionGenerationService questionGenerationService;
+
+    private TopicRepository topicRepository;
+
+    private VocabularyRepository vocabularyRepository;
+
+    private PlatformTransactionManager transactionManager;
+
+    private TestGenerationJobService service;
+
+    // Giữ job đầu tiên ở trạng thái RUNNING cho tới khi test cho phép chạy tiếp
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final UUID testId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        TestService testService = mock(TestService.class);
+        when(testService.createTest(any())).thenAnswer(invocation -> {
+            com.example.entity.Test test = invocation.getArgument(0);
+            test.setTestId(testId);
+            return test;
+        });
+
+        questionGenerationService = mock(QuestionGenerationService.class);
+        when(questionGenerationService.generateQuestionsForTest(any(), anyList(), any())).thenAnswer(invocation -> {
+            QuestionGenerationService.GenerationProgress progress = invocation.getArgument(2);
+            progress.generated(2);
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            if (progress.isCancelled()) {
+                throw new java.util.concurrent.CancellationException();
+            }
+            progress.persisted(2);
+            return List.of();
+        });
+
+        topicRepository = mock(TopicRepository.class);
+        vocabularyRepository = mock(VocabularyRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        service = new TestGenerationJobService(testService, questionGenerationService, topicRepository,
+                vocabularyRepository, transactionManager, 1, 1, 100, 600_000, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    private static TestGenerationRequestDTO request(String topicId, List<String> words) {
+        return new TestGenerationRequestDTO(topicId, TestType.multiple_choice, 2, words);
+    }
+
+    private TestGenerationJobDTO awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            TestGenerationJobDTO job = service.status(UUID.fromString(jobId));
+            if (job.getFinishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job did not finish: " + jobId);
+    }
+
+    @Test
+    void returnsRightAwayAndReportsProgressUntilCommitted() throws InterruptedException {
+        TestGenerationJobDTO submitted = service.submit(request(null, List.of("apple", "banana")));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        TestGenerationJobDTO running = service.status(UUID.fromString(submitted.getJobId()));
+        release.countDown();
+        TestGenerationJobDTO done = awaitFinished(submitted.getJobId());
+
+        assertEquals("RUNNING", running.getStatus());
+        assertEquals(2, running.getGenerated());
+        assertEquals("SUCCEEDED", done.getStatus());
+        assertEquals(2, done.getPersisted());
+        assertEquals(testId.toString(), done.getTestId());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void cancellingARunningJobRollsItBack() throws InterruptedException {
+        TestGenerationJobDTO submitted = service.submit(request(null, List.of("apple", "banana")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        service.cancel(UUID.fromString(submitted.getJobId()));
+        release.countDown();
+        TestGenerationJobDTO done = awaitFinished(submitted.getJobId());
+
+        assertEquals("CANCELLED", done.getStatus());
+        assertEquals(0, done.getPersisted());
+        assertNull(done.getTestId());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void queuedJobIsCancelledWithoutRunning() throws InterruptedException {
+        service.submit(request(null, List.of("apple")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        TestGenerationJobDTO queued = service.submit(request(null, List.of("banana")));
+
+        TestGenerationJobDTO cancelled = service.cancel(UUID.fromString(queued.getJobId()));
+        release.countDown();
+
+        assertEquals("QUEUED", queued.getStatus());
+        assertEquals("CANCELLED", cancelled.getStatus());
+        awaitFinished(queued.getJobId());
+        verify(questionGenerationService, times(1)).generateQuestionsForTest(any(), anyList(), any());
+    }
+
+    @Test
+    void rejectsJobsBeyondThePoolAndQueue() throws InterruptedException {
+        service.submit(request(null, List.of("apple")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        service.submit(request(null, List.of("banana")));
+
+        ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+                () -> service.submit(request(null, List.of("cherry"))));
+
+        assertEquals(5, e.getRetryAfterSeconds());
+        assertEquals(1L, service.stats().get("rejected"));
+    }
+
+    @Test
+    void usesTopicWordsWhenNoneAreGiven() throws InterruptedException {
+        UUID topicId = UUID.randomUUID();
+        when(topicRepository.existsById(topicId)).thenReturn(true);
+        when(vocabularyRepository.findWordsByTopicId(topicId)).thenReturn(List.of("apple", "banana"));
+
+        TestGenerationJobDTO submitted = service.submit(request(topicId.toString(), null));
+        release.countDown();
+        awaitFinished(submitted.getJobId());
+
+        verify(questionGenerationService).generateQuestionsForTest(any(), eq(List.of("apple", "banana")), any());
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.submit(request(UUID.randomUUID().toString(), null)));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(request(null, List.of())));
+    }
+
+    @Test
+    void retriesOnceWhenABankItemRaceIsLost() throws InterruptedException {
+        release.countDown();
+        doThrow(new DataIntegrityViolationException("uk_questions_bank_key"))
+                .doReturn(List.of())
+                .when(questionGenerationService).generateQuestionsForTest(any(), anyList(), any());
+
+        TestGenerationJobDTO done = awaitFinished(service.submit(request(null, List.of("apple"))).getJobId());
+
+        assertEquals("SUCCEEDED", done.getStatus());
+        verify(questionGenerationService, times(2)).generateQuestionsForTest(any(), anyList(), any());
+        verify(transactionManager).rollback(any());
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.dto.CursorPageDTO;
+import com.example.dto.ReviewOutcomeDTO;
+import com.example.dto.ReviewResultDTO;
+import com.example.dto.TopicEnrollmentDTO;
+import com.example.entity.ReviewEvent;
+import com.example.entity.User;
+import com.example.entity.UserLearningVocab;
+import com.example.entity.Vocabulary;
+import com.example.repository.ReviewEventRepository;
+import com.example.repository.TopicRepository;
+import com.example.repository.UserLearningVocabRepository;
+import com.example.repository.UserRepository;
+import com.example.repository.VocabularyRepository;
+import com.example.service.scheduling.Sm2ReviewScheduler;
+
+class UserLearningVocabServiceTest {
+
+    private UserLearningVocabRepository userLearningVocabRepository;
+
+    private VocabularyRepository vocabularyRepository;
+
+    private TopicRepository topicRepository;
+
+    private ReviewQueue reviewQueue;
+
+    private ReviewEventRepository reviewEventRepository;
+
+    private UserLearningVocabService service;
+
+    private final UUID userId = UUID.randomUUID();
+
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        userLearningVocabRepository = mock(UserLearningVocabRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.existsById(userId)).thenReturn(true);
+        vocabularyRepository = mock(VocabularyRepository.class);
+        topicRepository = mock(TopicRepository.class);
+        reviewQueue = mock(ReviewQueue.class);
+        reviewEventRepository = mock(ReviewEventRepository.class);
+        service = new UserLearningVocabService(userLearningVocabRepository, userRepository,
+                vocabularyRepository, topicRepository, reviewEventRepository, reviewQueue,
+                new Sm2ReviewScheduler(), new OptimisticLockRetry(mock(PlatformTransactionManager.class), 3, 0, 0),
+                mock(ReviewWriteBehindBuffer.class));
+        ReflectionTestUtils.setField(service, "maxBatchReviews", 10);
+
+        user = new User();
+        user.setUserId(userId);
+    }
+
+    private UserLearningVocab entry(UUID vocabId) {
+        Vocabulary vocabulary = new Vocabulary();
+        vocabulary.setVocabId(vocabId);
+        UserLearningVocab entry = new UserLearningVocab(user, vocabulary);
+        entry.setNextReviewAt(OffsetDateTime.now());
+        return entry;
+    }
+
+    @Test
+    void batchLoadsRowsOnceAndReportsEachItemInInputOrder() {
+        UUID known = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        UserLearningVocab row = entry(known);
+        when(userLearningVocabRepository.findByUserIdAndVocabIds(eq(userId), anyCollection()))
+                .thenReturn(List.of(row));
+
+        List<ReviewOutcomeDTO> outcomes = new ArrayList<>();
+        outcomes.add(new ReviewOutcomeDTO(known.toString(), true, null));
+        outcomes.add(new ReviewOutcomeDTO(missing.toString(), false, null));
+        outcomes.add(new ReviewOutcomeDTO("not-a-uuid", true, null));
+        outcomes.add(new ReviewOutcomeDTO(known.toString(), null, null));
+
+        List<UserLearningVocabService.ReviewItemResult> results = service.updateAfterReviews(userId, outcomes);
+
+        assertEquals(4, results.size());
+        assertEquals(ReviewResultDTO.UPDATED, results.get(0).getStatus());
+        assertEquals(ReviewResultDTO.NOT_FOUND, results.get(1).getStatus());
+        assertEquals(ReviewResultDTO.INVALID, results.get(2).getStatus());
+        assertEquals(ReviewResultDTO.INVALID, results.get(3).getStatus());
+        assertNull(results.get(1).getEntry());
+
+        assertEquals(1L, row.getRepetitionCount());
+        verify(userLearningVocabRepository, times(1)).findByUserIdAndVocabIds(eq(userId), anyCollection());
+        verify(userLearningVocabRepository, never()).save(any());
+    }
+
+    @Test
+    void repeatedWordIsAppliedInReviewTimeOrder() {
+        UUID vocabId = UUID.randomUUID();
+        UserLearningVocab row = entry(vocabId);
+        when(userLearningVocabRepository.findByUserIdAndVocabIds(eq(userId), anyCollection()))
+                .thenReturn(List.of(row));
+
+        OffsetDateTime earlier = OffsetDateTime.now().minusHours(2);
+        OffsetDateTime later = OffsetDateTime.now().minusHours(1);
+        List<ReviewOutcomeDTO> outcomes = List.of(
+                new ReviewOutcomeDTO(vocabId.toString(), false, later),
+                new ReviewOutcomeDTO(vocabId.toString(), true, earlier));
+
+        service.updateAfterReviews(userId, outcomes);
+
+        assertEquals(2L, row.getRepetitionCount());
+        assertEquals(later, row.getLastReviewAt());
+        assertEquals(0.5f, row.getSuccessRate(), 1e-6);
+    }
+
+    @Test
+    void repeatedWordReportsTheStateAfterEachOfItsReviews() {
+        UUID vocabId = UUID.randomUUID();
+        when(userLearningVocabRepository.findByUserIdAndVocabIds(eq(userId), anyCollection()))
+                .thenReturn(List.of(entry(vocabId)));
+
+        OffsetDateTime earlier = OffsetDateTime.now().minusHours(2);
+        OffsetDateTime later = OffsetDateTime.now().minusHours(1);
+        List<UserLearningVocabService.ReviewItemResult> results = service.updateAfterReviews(userId, List.of(
+                new ReviewOutcomeDTO(vocabId.toString(), false, later),
+                new ReviewOutcomeDTO(vocabId.toString(), true, earlier)));
+
+        // Phần tử thứ hai được áp dụng trước (ôn sớm hơn)
+        assertEquals(2L, results.get(0).getEntry().getRepetitionCount());
+        assertEquals(later, results.get(0).getEntry().getLastReviewAt());
+        assertEquals(1L, results.get(1).getEntry().getRepetitionCount());
+        assertEquals(earlier, results.get(1).getEntry().getLastReviewAt());
+    }
+
+    @Test
+    void nextIntervalGrowsFromPreviouslyScheduledInterval() {
+        UUID vocabId = UUID.randomUUID();
+        UserLearningVocab row = entry(vocabId);
+        OffsetDateTime reviewedAt = OffsetDateTime.now().minusMinutes(1);
+        row.setRepetitionCount(2L);
+        row.setEaseFactor(2.0f);
+        row.setLastReviewAt(reviewedAt.minusDays(4));
+        row.setNextReviewAt(reviewedAt.minusDays(1));
+        when(userLearningVocabRepository.findByUserIdAndVocabIds(eq(userId), anyCollection()))
+                .thenReturn(List.of(row));
+
+        service.updateAfterReviews(userId, List.of(new ReviewOutcomeDTO(vocabId.toString(), true, reviewedAt)));
+
+        // Khoảng trước là 3 ngày, hệ số mới 2.1 -> 6 ngày
+        assertEquals(reviewedAt.plusDays(6), row.getNextReviewAt());
+    }
+
+    @Test
+    void topicEnrollmentReportsInsertedAndSkippedWords() {
+        UUID topicId = UUID.randomUUID();
+        when(topicRepository.existsById(topicId)).thenReturn(true);
+        when(vocabularyRepository.countByTopicTopicId(topicId)).thenReturn(2000L);
+        when(userLearningVocabRepository.enrollTopic(eq(userId), eq(topicId), any(), any())).thenReturn(1950);
+
+        TopicEnrollmentDTO result = service.enrollTopic(userId, topicId);
+
+        assertEquals(2000L, result.getTopicWords());
+        assertEquals(1950L, result.getEnrolled());
+        assertEquals(50L, result.getAlreadyEnrolled());
+        verify(reviewQueue).invalidate(userId);
+    }
+
+    @Test
+    void asyncModeOnlyAppendsEventsAndLeavesRowsToTheProjector() {
+        ReflectionTestUtils.setField(service, "asyncProjection", true);
+        UUID vocabId = UUID.randomUUID();
+        UserLearningVocab row = entry(vocabId);
+        when(userLearningVocabRepository.findByUserIdAndVocabIds(eq(userId), anyCollection()))
+                .thenReturn(List.of(row));
+
+        List<UserLearningVocabService.ReviewItemResult> results = service.updateAfterReviews(userId,
+                List.of(new ReviewOutcomeDTO(vocabId.toString(), true, null)));
+
+        // Kết quả trả về là bản xem trước, bản ghi thật chưa đổi
+        assertEquals(1L, results.get(0).getEntry().getRepetitionCount());
+        assertEquals(0L, row.getRepetitionCount());
+        verify(reviewEventRepository).saveAll(anyCollection());
+        verify(reviewQueue, never()).updateAll(any(), any());
+    }
+
+    @Test
+    void projectorFoldsPendingEventsInReviewOrder() {
+        UUID vocabId = UUID.randomUUID();
+        UserLearningVocab row = entry(vocabId);
+        OffsetDateTime later = OffsetDateTime.now().minusHours(1);
+        ReviewEvent second = event(1L, vocabId, true, later);
+        ReviewEvent first = event(2L, vocabId, false, later.minusHours(1));
+        when(reviewEventRepository.findPendingForProjection(any())).thenReturn(List.of(second, first));
+        when(userLearningVocabRepository.findByUserIdAndVocabIds(eq(userId), anyCollection()))
+                .thenReturn(List.of(row));
+
+        assertEquals(2, service.projectReviewEvents(100));
+
+        assertEquals(2L, row.getRepetitionCount());
+        assertEquals(later, row.getLastReviewAt());
+        verify(reviewEventRepository).markProjected(eq(List.of(2L, 1L)), any());
+    }
+
+    private ReviewEvent event(long id, UUID vocabId, boolean correct, OffsetDateTime reviewedAt) {
+        ReviewEvent event = new ReviewEvent(userId, vocabId, correct, reviewedAt);
+        ReflectionTestUtils.setField(event, "eventId", id);
+        return event;
+    }
+
+    @Test
+    void keysetPageReturnsCursorOfLastRowAndSeeksPastIt() {
+        List<UserLearningVocab> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(entry(UUID.randomUUID()));
+        }
+        when(userLearningVocabRepository.findVocabsToReviewFirstPage(eq(userId), any(), any())).thenReturn(rows);
+
+        CursorPageDTO<UserLearningVocab> first = service.getVocabsToReviewPage(userId, null, 2);
+
+        assertEquals(2, first.getItems().size());
+        ReviewCursor cursor = ReviewCursor.decode(first.getNextCursor());
+        assertEquals(rows.get(1).getVocabulary().getVocabId(), cursor.getVocabId());
+        assertEquals(rows.get(1).getNextReviewAt(), cursor.getNextReviewAt());
+
+        when(userLearningVocabRepository.findVocabsToReviewAfter(eq(userId), any(), eq(cursor.getNextReviewAt()),
+                eq(cursor.getVocabId()), any())).thenReturn(List.of(rows.get(2)));
+
+        CursorPageDTO<UserLearningVocab> second = service.getVocabsToReviewPage(userId, first.getNextCursor(), 2);
+
+        assertEquals(List.of(rows.get(2)), second.getItems());
+        assertNull(second.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> service.getVocabsToReviewPage(userId, "%%%", 2));
+    }
+
+    @Test
+    void oversizedBatchIsRejected() {
+        List<ReviewOutcomeDTO> outcomes = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            outcomes.add(new ReviewOutcomeDTO(UUID.randomUUID().toString(), true, null));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> service.updateAfterReviews(userId, outcomes));
+    }
+}
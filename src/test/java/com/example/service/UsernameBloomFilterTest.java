@@ -0,0 +1,59 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import com.example.repository.UserRepository;
+
+class UsernameBloomFilterTest {
+
+    private UserRepository userRepository;
+
+    private UsernameBloomFilter filter;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findAllUsernames(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of("alice", "Bob")));
+        filter = new UsernameBloomFilter(userRepository, 1000, 0.01);
+        filter.load();
+    }
+
+    @Test
+    void loadedAndInsertedNamesAreNeverReportedFree() {
+        filter.put("charlie");
+
+        assertTrue(filter.mightContain("alice"));
+        assertTrue(filter.mightContain("bob"));
+        assertTrue(filter.mightContain("charlie"));
+    }
+
+    @Test
+    void freeNameSkipsDatabase() {
+        int free = 0;
+        for (int i = 0; i < 100; i++) {
+            if (!filter.isTaken("new-learner-" + i)) {
+                free++;
+            }
+        }
+
+        assertEquals(100, free);
+        assertFalse(filter.mightContain("definitely-not-registered-yet"));
+        verify(userRepository, never()).existsByUsername(anyString());
+    }
+}
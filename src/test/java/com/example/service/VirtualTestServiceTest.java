@@ -0,0 +1,216 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.dto.TestResultDTO;
+import com.example.dto.VirtualAnswerDTO;
+import com.example.dto.VirtualQuestionDTO;
+import com.example.dto.VirtualTestDTO;
+import com.example.dto.VirtualTestSubmissionDTO;
+import com.example.entity.TestResult;
+import com.example.entity.Topic;
+import com.example.entity.User;
+import com.example.entity.VirtualTestAnswer;
+import com.example.entity.Vocabulary;
+import com.example.entity.Vocabulary.WordType;
+import com.example.repository.TestRepository;
+import com.example.repository.TestResultRepository;
+import com.example.repository.UserRepository;
+import com.example.repository.VirtualTestAnswerRepository;
+import com.example.repository.VocabularyRepository;
+
+class VirtualTestServiceTest {
+
+    private VocabularyRepository vocabularyRepository;
+
+    private TestResultRepository testResultRepository;
+
+    private VirtualTestAnswerRepository virtualTestAnswerRepository;
+
+    private VirtualTestService service;
+
+    private final Topic topic = new Topic("fruit", "fruit");
+
+    private final com.example.entity.Test test = new com.example.entity.Test(topic,
+            com.example.entity.Test.TestType.multiple_choice, 5, null);
+
+    private final List<Vocabulary> pool = new ArrayList<>();
+
+    private final User user = new User();
+
+    @BeforeEach
+    void setup() {
+        topic.setTopicId(UUID.randomUUID());
+        test.setTestId(UUID.randomUUID());
+        user.setUserId(UUID.randomUUID());
+        String[][] words = {
+                { "apple", "quả táo" }, { "banana", "quả chuối" }, { "cherry", "quả anh đào" },
+                { "grape", "quả nho" }, { "lemon", "quả chanh" }, { "mango", "quả xoài" },
+                { "peach", "quả đào" }, { "pear", "quả lê" } };
+        for (String[] word : words) {
+            Vocabulary vocabulary = new Vocabulary(topic, word[0], word[1], WordType.noun, null, null);
+            vocabulary.setVocabId(UUID.randomUUID());
+            pool.add(vocabulary);
+        }
+
+        TestRepository testRepository = mock(TestRepository.class);
+        when(testRepository.findById(test.getTestId())).thenReturn(Optional.of(test));
+        vocabularyRepository = mock(VocabularyRepository.class);
+        when(vocabularyRepository.findByTopicTopicId(topic.getTopicId())).thenAnswer(invocation -> {
+            // DB không đảm bảo thứ tự trả về
+            List<Vocabulary> copy = new ArrayList<>(pool);
+            Collections.shuffle(copy);
+            return copy;
+        });
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(user.getUserId())).thenReturn(Optional.of(user));
+        testResultRepository = mock(TestResultRepository.class);
+        when(testResultRepository.save(any())).thenAnswer(invocation -> {
+            TestResult result = invocation.getArgument(0);
+            result.setResultId(UUID.randomUUID());
+            return result;
+        });
+        virtualTestAnswerRepository = mock(VirtualTestAnswerRepository.class);
+
+        service = new VirtualTestService(testRepository, vocabularyRepository, userRepository,
+                testResultRepository, virtualTestAnswerRepository);
+    }
+
+    private static String describe(VirtualTestDTO instance) {
+        StringBuilder text = new StringBuilder();
+        for (VirtualQuestionDTO question : instance.getQuestions()) {
+            text.append(question.getVocabId()).append(question.getOptions()).append('|');
+        }
+        return text.toString();
+    }
+
+    @Test
+    void sameSeedAlwaysProducesTheSameInstance() {
+        VirtualTestDTO first = service.createInstance(test.getTestId(), 42L);
+        VirtualTestDTO second = service.createInstance(test.getTestId(), 42L);
+
+        assertEquals(5, first.getQuestions().size());
+        assertEquals(describe(first), describe(second));
+    }
+
+    @Test
+    void differentSeedsShuffleQuestionsAndOptions() {
+        HashSet<String> instances = new HashSet<>();
+        for (long seed = 0; seed < 10; seed++) {
+            instances.add(describe(service.createInstance(test.getTestId(), seed)));
+        }
+
+        assertTrue(instances.size() > 1);
+    }
+
+    @Test
+    void multipleChoiceOptionsHoldOneCorrectMeaningAndDistinctDistractors() {
+        VirtualTestService.Instance instance = VirtualTestService.generate(test, pool, new Random(3).nextLong());
+
+        for (VirtualTestService.Item item : instance.items) {
+            Vocabulary vocabulary = pool.stream().filter(v -> v.getVocabId().equals(item.vocabId)).findFirst()
+                    .orElseThrow();
+            assertEquals(4, item.options.size());
+            assertEquals(4, new HashSet<>(item.options).size());
+            assertEquals(vocabulary.getMeaning(), item.options.get(item.correctIndex));
+        }
+    }
+
+    @Test
+    void gradesByRegeneratingFromTheSeedAndStoresOnlyAnswers() {
+        VirtualTestDTO instance = service.createInstance(test.getTestId(), 7L);
+        VirtualTestService.Instance expected = VirtualTestService.generate(test, pool, 7L);
+        List<VirtualAnswerDTO> answers = new ArrayList<>();
+        for (VirtualTestService.Item item : expected.items.subList(0, 3)) {
+            answers.add(new VirtualAnswerDTO(item.position, item.vocabId.toString(), item.correctIndex, null));
+        }
+        // Câu thứ tư trả lời sai, câu thứ năm bỏ trống
+        VirtualTestService.Item wrong = expected.items.get(3);
+        answers.add(new VirtualAnswerDTO(wrong.position, wrong.vocabId.toString(), (wrong.correctIndex + 1) % 4, null));
+
+        TestResultDTO result = service.submit(test.getTestId(),
+                new VirtualTestSubmissionDTO(user.getUserId().toString(), instance.getSeed(),
+                        instance.getPoolFingerprint(), answers));
+
+        ArgumentCaptor<TestResult> saved = ArgumentCaptor.forClass(TestResult.class);
+        verify(testResultRepository).save(saved.capture());
+        assertEquals(7L, saved.getValue().getSeed());
+        assertEquals(3, result.getCorrectAnswers());
+        assertEquals(5, result.getTotalQuestions());
+        assertEquals(60, result.getScore());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<VirtualTestAnswer>> rows = ArgumentCaptor.forClass(List.class);
+        verify(virtualTestAnswerRepository).saveAll(rows.capture());
+        assertEquals(4, rows.getValue().size());
+        assertFalse(rows.getValue().get(3).isCorrect());
+    }
+
+    @Test
+    void rejectsAnswersForAnInstanceTheSeedNoLongerProduces() {
+        VirtualTestDTO instance = service.createInstance(test.getTestId(), 11L);
+        VirtualQuestionDTO first = instance.getQuestions().get(0);
+        VirtualAnswerDTO answer = new VirtualAnswerDTO(0, first.getVocabId(), 0, null);
+        // Sửa nghĩa một từ: cùng seed giờ cho đáp án khác với bài người học đã thấy
+        pool.get(0).setMeaning("quả táo xanh");
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(test.getTestId(),
+                new VirtualTestSubmissionDTO(user.getUserId().toString(), 11L, instance.getPoolFingerprint(),
+                        List.of(answer))));
+        verify(testResultRepository, never()).save(any());
+        verify(virtualTestAnswerRepository, never()).saveAll(anyList());
+        assertEquals(1L, service.stats().get("staleSubmissions"));
+    }
+
+    @Test
+    void rejectsAnswersAfterTheTestTypeOrLengthChanged() {
+        VirtualTestDTO instance = service.createInstance(test.getTestId(), 17L);
+        VirtualQuestionDTO first = instance.getQuestions().get(0);
+        VirtualAnswerDTO answer = new VirtualAnswerDTO(0, first.getVocabId(), 0, null);
+        // Kho từ giữ nguyên nhưng bài đổi số câu: cùng seed không còn cho đúng bài đã phát
+        test.setNumQuestions(3);
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(test.getTestId(),
+                new VirtualTestSubmissionDTO(user.getUserId().toString(), 17L, instance.getPoolFingerprint(),
+                        List.of(answer))));
+
+        test.setNumQuestions(5);
+        test.setTestType(com.example.entity.Test.TestType.true_false);
+        assertThrows(IllegalArgumentException.class, () -> service.submit(test.getTestId(),
+                new VirtualTestSubmissionDTO(user.getUserId().toString(), 17L, instance.getPoolFingerprint(),
+                        List.of(answer))));
+        verify(testResultRepository, never()).save(any());
+    }
+
+    @Test
+    void requiresTheVocabIdOfEveryAnswer() {
+        VirtualTestDTO instance = service.createInstance(test.getTestId(), 13L);
+        VirtualAnswerDTO answer = new VirtualAnswerDTO(0, null, 0, null);
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(test.getTestId(),
+                new VirtualTestSubmissionDTO(user.getUserId().toString(), 13L, instance.getPoolFingerprint(),
+                        List.of(answer))));
+        verify(testResultRepository, never()).save(any());
+    }
+}
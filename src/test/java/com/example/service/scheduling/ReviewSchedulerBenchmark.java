@@ -0,0 +1,61 @@
+package com.example.service.scheduling;
+
+import java.util.SplittableRandom;
+
+/**
+ * Đo thông lượng lập lịch của từng thuật toán trên một luồng (không phải test JUnit).
+ * Chạy sau khi build test:
+ * java -cp target/classes:target/test-classes com.example.service.scheduling.ReviewSchedulerBenchmark [cards] [rounds]
+ */
+public class ReviewSchedulerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int cards = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        ReviewScheduler[] schedulers = {
+                new Sm2ReviewScheduler(),
+                new FsrsReviewScheduler(0.9, 36500)
+        };
+
+        // Kết quả trả lời sinh trước để vòng đo chỉ còn chi phí lập lịch
+        SplittableRandom random = new SplittableRandom(42);
+        boolean[] outcomes = new boolean[cards];
+        for (int i = 0; i < cards; i++) {
+            outcomes[i] = random.nextInt(10) < 8;
+        }
+
+        for (ReviewScheduler scheduler : schedulers) {
+            ReviewState state = new ReviewState();
+            double sink = 0;
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                sink += run(scheduler, state, outcomes);
+            }
+
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                sink += run(scheduler, state, outcomes);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            double perSecond = cards / (best / 1_000_000_000.0);
+            System.out.printf("%-5s %,15.0f schedules/s (best of %d rounds, %,d cards, sink=%.1f)%n",
+                    scheduler.name(), perSecond, rounds, cards, sink);
+        }
+    }
+
+    // Mô phỏng lập lịch lại hàng loạt: mỗi thẻ đọc trạng thái rồi tính lịch mới
+    private static double run(ReviewScheduler scheduler, ReviewState state, boolean[] outcomes) {
+        double total = 0;
+        for (int i = 0; i < outcomes.length; i++) {
+            int step = i & 7;
+            state.set(2.5, step * 3, step, step * 2.5, 5);
+            scheduler.schedule(state, outcomes[i], step * 3);
+            total += state.getIntervalDays();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.service.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ReviewSchedulerTest {
+
+    @Test
+    void sm2KeepsTheExistingFirstStepsAndMultipliesThePreviousInterval() {
+        Sm2ReviewScheduler scheduler = new Sm2ReviewScheduler();
+        ReviewState state = new ReviewState(2.5, 0, 0, 0, 0);
+
+        scheduler.schedule(state, true, 0);
+        assertEquals(1, state.getIntervalDays());
+        scheduler.schedule(state, true, 1);
+        assertEquals(3, state.getIntervalDays());
+        scheduler.schedule(state, true, 3);
+        assertEquals(Math.round(2.8 * 3), state.getIntervalDays());
+        assertEquals(3, state.getRepetitions());
+
+        long beforeLapse = (long) state.getIntervalDays();
+        scheduler.schedule(state, false, beforeLapse);
+        assertEquals(Math.max(1, Math.round(2.6 * beforeLapse) / 2), state.getIntervalDays());
+        assertEquals(2.6, state.getEaseFactor(), 1e-9);
+    }
+
+    @Test
+    void fsrsGrowsIntervalsOnRecallAndShrinksThemOnLapse() {
+        FsrsReviewScheduler scheduler = new FsrsReviewScheduler(0.9, 36500);
+        ReviewState state = new ReviewState(2.5, 0, 0, 0, 0);
+
+        scheduler.schedule(state, true, 0);
+        double first = state.getIntervalDays();
+        scheduler.schedule(state, true, first);
+        double second = state.getIntervalDays();
+        scheduler.schedule(state, true, second);
+        double third = state.getIntervalDays();
+        assertTrue(first < second && second < third, first + " < " + second + " < " + third);
+
+        double stabilityBeforeLapse = state.getStability();
+        scheduler.schedule(state, false, third);
+        assertTrue(state.getStability() < stabilityBeforeLapse);
+        assertTrue(state.getIntervalDays() < third);
+        assertTrue(state.getDifficulty() >= 1 && state.getDifficulty() <= 10);
+        assertEquals(4, state.getRepetitions());
+    }
+
+    @Test
+    void fsrsIntervalsRespectTheCap() {
+        FsrsReviewScheduler scheduler = new FsrsReviewScheduler(0.9, 30);
+        ReviewState state = new ReviewState(2.5, 0, 0, 0, 0);
+        for (int i = 0; i < 20; i++) {
+            scheduler.schedule(state, true, state.getIntervalDays());
+        }
+        assertEquals(30, state.getIntervalDays());
+    }
+}
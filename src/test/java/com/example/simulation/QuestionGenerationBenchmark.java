@@ -0,0 +1,178 @@
+package com.example.simulation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.english_main;
+import com.example.entity.AnswerOption;
+import com.example.entity.Question;
+import com.example.entity.Test;
+import com.example.entity.Topic;
+import com.example.entity.Vocabulary;
+import com.example.repository.AnswerOptionRepository;
+import com.example.repository.QuestionRepository;
+import com.example.repository.TestRepository;
+import com.example.repository.TopicRepository;
+import com.example.repository.VocabularyRepository;
+import com.example.service.QuestionGenerationService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Đếm số round trip JDBC (execute/executeBatch) cho mỗi bài kiểm tra được sinh (không phải test JUnit).
+ * "before": cách cũ (save từng câu hỏi, saveAll đáp án của từng câu) trong giao dịch của bên gọi,
+ * không bật JDBC batching. "after": QuestionGenerationService.generateQuestionsForTest với
+ * hibernate.jdbc.batch_size mặc định của ứng dụng. Mỗi đường chạy trên một context riêng.
+ * Các từ đều có trong bảng vocabulary nên ở đường "after" chỉ bài đầu tiên tạo câu hỏi ngân
+ * hàng, các bài sau chỉ ghi liên kết test_questions.
+ *
+ * Chạy sau khi build test (classpath lấy từ mvn dependency:build-classpath):
+ * java -cp target/classes:target/test-classes:$CP com.example.simulation.QuestionGenerationBenchmark \
+ *     [questions] [tests]
+ */
+public class QuestionGenerationBenchmark {
+
+    private static final String BATCH_SIZE = "--spring.jpa.properties.hibernate.jdbc.batch_size=";
+
+    public static void main(String[] args) {
+        int questions = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int tests = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<String> words = new ArrayList<>(questions);
+        for (int i = 0; i < questions; i++) {
+            words.add("word-" + i);
+        }
+
+        System.out.printf("%d tests x %d multiple-choice questions (4 answer options each)%n%n", tests, questions);
+        System.out.println("path    batch_size  round trips/test  statements/test  ms/test");
+        run("before", 0, tests, words);
+        run("after", 50, tests, words);
+    }
+
+    private static void run(String path, int batchSize, int tests, List<String> words) {
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : ReviewWorkloadSimulator.Options.parse(new String[0]).springArgs()) {
+            if (!arg.startsWith(BATCH_SIZE)) {
+                springArgs.add(arg);
+            }
+        }
+        springArgs.add(BATCH_SIZE + batchSize);
+
+        AtomicLong roundTrips = new AtomicLong();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(english_main.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource ? counting(dataSource, roundTrips) : bean;
+                    }
+                }))
+                .run(springArgs.toArray(new String[0]));
+        try {
+            QuestionGenerationService generator = context.getBean(QuestionGenerationService.class);
+            QuestionRepository questionRepository = context.getBean(QuestionRepository.class);
+            AnswerOptionRepository answerOptionRepository = context.getBean(AnswerOptionRepository.class);
+            TestRepository testRepository = context.getBean(TestRepository.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(
+                    context.getBean(PlatformTransactionManager.class));
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+                    .getStatistics();
+            Topic topic = context.getBean(TopicRepository.class).save(new Topic("bench-topic", "Benchmark"));
+            // Từ vựng thật để đáp án nhiễu lấy từ DistractorIndex thay vì chuỗi giữ chỗ
+            List<Vocabulary> vocabularies = new ArrayList<>(words.size());
+            Vocabulary.WordType[] types = Vocabulary.WordType.values();
+            for (int i = 0; i < words.size(); i++) {
+                vocabularies.add(new Vocabulary(topic, words.get(i), "meaning " + i, types[i % types.length],
+                        null, null));
+            }
+            context.getBean(VocabularyRepository.class).saveAll(vocabularies);
+
+            // Vòng đầu để JIT và pool kết nối ổn định, vòng sau mới đo
+            for (int round = 0; round < 2; round++) {
+                statistics.clear();
+                roundTrips.set(0);
+                long start = System.nanoTime();
+                for (int t = 0; t < tests; t++) {
+                    Test test = testRepository.save(
+                            new Test(topic, Test.TestType.multiple_choice, words.size(), OffsetDateTime.now()));
+                    if ("before".equals(path)) {
+                        transactionTemplate.executeWithoutResult(status -> generateLegacy(
+                                testRepository.findById(test.getTestId()).orElseThrow(), words,
+                                questionRepository, answerOptionRepository));
+                    } else {
+                        generator.generateQuestionsForTest(test, words);
+                    }
+                }
+                double ms = (System.nanoTime() - start) / 1e6 / tests;
+                if (round == 1) {
+                    // Trừ câu INSERT bài kiểm tra và câu SELECT nạp lại nó
+                    System.out.printf("%-7s %10d %17.1f %18.1f %8.2f%n", path, batchSize,
+                            (double) (roundTrips.get() - 2L * tests) / tests,
+                            (double) (statistics.getPrepareStatementCount() - 2L * tests) / tests, ms);
+                }
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    // Đếm mỗi lần execute/executeBatch gửi tới DB (commit không tính)
+    private static DataSource counting(DataSource target, AtomicLong roundTrips) {
+        return proxy(DataSource.class, target, (method, result) -> result instanceof Connection connection
+                ? proxy(Connection.class, connection, (m, r) -> r instanceof PreparedStatement statement
+                        ? proxy(PreparedStatement.class, statement, (sm, sr) -> {
+                            if (sm.getName().startsWith("execute")) {
+                                roundTrips.incrementAndGet();
+                            }
+                            return sr;
+                        })
+                        : r)
+                : result);
+    }
+
+    private static <T> T proxy(Class<T> type, T target, BiFunction<Method, Object, Object> after) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (p, method, methodArgs) -> {
+                    try {
+                        return after.apply(method, method.invoke(target, methodArgs));
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }));
+    }
+
+    // Đường cũ của QuestionGenerationService trước khi gom lô
+    private static void generateLegacy(Test test, List<String> words, QuestionRepository questionRepository,
+            AnswerOptionRepository answerOptionRepository) {
+        for (int i = 0; i < test.getNumQuestions() && i < words.size(); i++) {
+            Question question = new Question();
+            question.setTest(test);
+            question.setQuestionText("What is the meaning of '" + words.get(i) + "'?");
+            question = questionRepository.save(question);
+
+            List<AnswerOption> options = new ArrayList<>();
+            options.add(new AnswerOption(question, "Correct meaning of " + words.get(i), true));
+            for (int j = 0; j < 3; j++) {
+                options.add(new AnswerOption(question, "Incorrect meaning " + (j + 1), false));
+            }
+            answerOptionRepository.saveAll(options);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.simulation;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.english_main;
+import com.example.dto.ReviewOutcomeDTO;
+import com.example.entity.Topic;
+import com.example.entity.User;
+import com.example.entity.UserLearningVocab;
+import com.example.entity.Vocabulary;
+import com.example.repository.TopicRepository;
+import com.example.repository.UserRepository;
+import com.example.repository.VocabularyRepository;
+import com.example.service.ReviewQueue;
+import com.example.service.ReviewWriteBehindBuffer;
+import com.example.service.UserLearningVocabService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Mô phỏng tải ôn tập từ vựng để ước lượng kích thước DB (không phải test JUnit).
+ * Khởi động ứng dụng thật trên H2 trong bộ nhớ (chế độ PostgreSQL), sinh người dùng,
+ * chủ đề và từ vựng giả, rồi chạy từng "ngày" ôn tập qua UserLearningVocabService.
+ * Cuối mỗi ngày dữ liệu được lùi một ngày thay vì đổi đồng hồ hệ thống.
+ *
+ * Chạy sau khi build test (classpath lấy từ mvn dependency:build-classpath):
+ * java -cp target/classes:target/test-classes:$CP com.example.simulation.ReviewWorkloadSimulator \
+ *     --users=500 --topics=5 --words=400 --days=14 --session=20 --mode=batch --read=queue
+ *
+ * --read=queue|page|db: hàng đợi trong bộ nhớ, phân trang keyset, hoặc truy vấn cũ lấy hết.
+ * --write-behind=true: ôn tập được ghi nhật ký rồi flush theo lô (nhật ký nằm trong thư mục tạm).
+ *
+ * Thêm --db-url=jdbc:postgresql://... (và --db-user, --db-password) để chạy trên DB cục bộ.
+ */
+public class ReviewWorkloadSimulator {
+
+    private final Options options;
+    private final UserLearningVocabService service;
+    private final ReviewQueue reviewQueue;
+    private final ReviewWriteBehindBuffer writeBehindBuffer;
+    private final UserRepository userRepository;
+    private final TopicRepository topicRepository;
+    private final VocabularyRepository vocabularyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Statistics statistics;
+    private final SplittableRandom random;
+
+    private final List<UUID> userIds = new ArrayList<>();
+    private final Map<UUID, Double> skill = new HashMap<>();
+
+    public static void main(String[] args) {
+        Options options = Options.parse(args);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(english_main.class)
+                .run(options.springArgs());
+        try {
+            new ReviewWorkloadSimulator(options, context).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    ReviewWorkloadSimulator(Options options, ConfigurableApplicationContext context) {
+        this.options = options;
+        this.service = context.getBean(UserLearningVocabService.class);
+        this.reviewQueue = context.getBean(ReviewQueue.class);
+        this.writeBehindBuffer = context.getBean(ReviewWriteBehindBuffer.class);
+        this.userRepository = context.getBean(UserRepository.class);
+        this.topicRepository = context.getBean(TopicRepository.class);
+        this.vocabularyRepository = context.getBean(VocabularyRepository.class);
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        this.random = new SplittableRandom(options.seed);
+    }
+
+    void run() {
+        System.out.printf("Simulating %,d learners, %d topics x %d words, %d days, session=%d, mode=%s, read=%s,"
+                + " write-behind=%s%n", options.users, options.topics, options.words, options.days, options.session,
+                options.mode, options.read, options.writeBehind);
+
+        List<UUID> topicIds = seedCatalog();
+        seedLearners(topicIds);
+
+        System.out.println();
+        System.out.println("day  reviews  stmt/review  fetch p50/p99 ms  submit p50/p99 ms  rows written  ulv rows  events");
+        long totalReviews = 0;
+        long totalWrites = 0;
+        for (int day = 1; day <= options.days; day++) {
+            DayResult result = simulateDay();
+            totalReviews += result.reviews;
+            totalWrites += result.rowsWritten;
+            System.out.printf("%3d %8d %12.2f %8.2f/%-8.2f %9.2f/%-8.2f %12d %9d %7d%n",
+                    day, result.reviews, result.statementsPerReview(),
+                    result.fetch.percentile(50), result.fetch.percentile(99),
+                    result.submit.percentile(50), result.submit.percentile(99),
+                    result.rowsWritten, count("user_learning_vocab"), count("review_event"));
+            ageOneDay();
+        }
+
+        report(totalReviews, totalWrites);
+    }
+
+    // Chủ đề và từ vựng dùng chung cho mọi người học
+    private List<UUID> seedCatalog() {
+        Vocabulary.WordType[] types = Vocabulary.WordType.values();
+        List<UUID> topicIds = new ArrayList<>();
+        for (int t = 0; t < options.topics; t++) {
+            Topic topic = topicRepository.save(new Topic("sim-topic-" + t, "Simulated topic " + t));
+            List<Vocabulary> words = new ArrayList<>(options.words);
+            for (int w = 0; w < options.words; w++) {
+                words.add(new Vocabulary(topic, "word-" + t + "-" + w, "meaning " + w,
+                        types[w % types.length], null, null));
+            }
+            vocabularyRepository.saveAll(words);
+            topicIds.add(topic.getTopicId());
+        }
+        return topicIds;
+    }
+
+    // Mỗi người học ghi danh một số chủ đề ngẫu nhiên và có tỷ lệ trả lời đúng riêng
+    private void seedLearners(List<UUID> topicIds) {
+        long start = System.nanoTime();
+        long enrolled = 0;
+        List<User> batch = new ArrayList<>();
+        for (int u = 0; u < options.users; u++) {
+            batch.add(new User("sim-user-" + u, "{noop}x", User.UserRole.user, "Learner " + u));
+            if (batch.size() == 1000 || u == options.users - 1) {
+                for (User user : userRepository.saveAll(batch)) {
+                    userIds.add(user.getUserId());
+                    skill.put(user.getUserId(), options.minAccuracy
+                            + random.nextDouble() * (options.maxAccuracy - options.minAccuracy));
+                }
+                batch.clear();
+            }
+        }
+        for (UUID userId : userIds) {
+            int first = random.nextInt(topicIds.size());
+            for (int t = 0; t < options.topicsPerUser; t++) {
+                enrolled += service.enrollTopic(userId, topicIds.get((first + t) % topicIds.size())).getEnrolled();
+            }
+        }
+        System.out.printf("Seeded %,d learners with %,d enrolled words in %.1f s%n",
+                userIds.size(), enrolled, (System.nanoTime() - start) / 1e9);
+    }
+
+    private DayResult simulateDay() {
+        DayResult result = new DayResult();
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long writesBefore = writes();
+
+        for (UUID userId : userIds) {
+            if (random.nextDouble() >= options.activeRatio) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            List<UserLearningVocab> due = fetchDue(userId);
+            result.fetch.add(System.nanoTime() - start);
+            if (due.isEmpty()) {
+                continue;
+            }
+
+            double accuracy = skill.get(userId);
+            start = System.nanoTime();
+            if ("single".equals(options.mode)) {
+                for (UserLearningVocab card : due) {
+                    service.updateAfterReview(userId, card.getVocabulary().getVocabId(), random.nextDouble() < accuracy);
+                }
+            } else {
+                List<ReviewOutcomeDTO> outcomes = new ArrayList<>(due.size());
+                for (UserLearningVocab card : due) {
+                    outcomes.add(new ReviewOutcomeDTO(card.getVocabulary().getVocabId().toString(),
+                            random.nextDouble() < accuracy, null));
+                }
+                service.updateAfterReviews(userId, outcomes);
+            }
+            result.submit.add(System.nanoTime() - start);
+            result.reviews += due.size();
+        }
+
+        result.statements = statistics.getPrepareStatementCount() - statementsBefore;
+        result.rowsWritten = writes() - writesBefore;
+        return result;
+    }
+
+    private List<UserLearningVocab> fetchDue(UUID userId) {
+        if ("db".equals(options.read)) {
+            // Đường cũ: lấy toàn bộ thẻ đến hạn từ DB rồi cắt
+            List<UserLearningVocab> due = service.getVocabsToReview(userId);
+            return due.size() > options.session ? due.subList(0, options.session) : due;
+        }
+        if ("page".equals(options.read)) {
+            // Trang đầu của phân trang keyset
+            return service.getVocabsToReviewPage(userId, null, options.session).getItems();
+        }
+        return service.getVocabsToReview(userId, options.session);
+    }
+
+    private long writes() {
+        return statistics.getEntityInsertCount() + statistics.getEntityUpdateCount()
+                + statistics.getEntityDeleteCount();
+    }
+
+    // Lùi mọi mốc thời gian một ngày: tương đương với việc một ngày trôi qua
+    private void ageOneDay() {
+        // Trạng thái còn trong bộ đệm write-behind phải xuống DB trước khi lùi thời gian
+        writeBehindBuffer.flush();
+        jdbcTemplate.update("UPDATE user_learning_vocab SET last_review_at = last_review_at - INTERVAL '1' DAY, "
+                + "next_review_at = next_review_at - INTERVAL '1' DAY");
+        // Hàng đợi trong bộ nhớ giữ nextReviewAt cũ; người học quay lại vào ngày hôm sau
+        userIds.forEach(reviewQueue::evict);
+    }
+
+    private long count(String table) {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return rows != null ? rows : 0;
+    }
+
+    private void report(long totalReviews, long totalWrites) {
+        long learners = Math.max(1, userIds.size());
+        double reviewsPerLearnerDay = (double) totalReviews / learners / options.days;
+        double writesPerLearnerDay = (double) totalWrites / learners / options.days;
+        double ulvPerLearner = (double) count("user_learning_vocab") / learners;
+        double eventsPerLearnerDay = (double) count("review_event") / learners / options.days;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("reviews/learner/day", String.format("%.1f", reviewsPerLearnerDay));
+        summary.put("rows written/learner/day", String.format("%.1f", writesPerLearnerDay));
+        summary.put("user_learning_vocab rows/learner", String.format("%.1f", ulvPerLearner));
+        summary.put("review_event rows/learner/day", String.format("%.1f", eventsPerLearnerDay));
+        summary.put("user_learning_vocab bytes (H2)", diskSpace("USER_LEARNING_VOCAB"));
+        summary.put("review_event bytes (H2)", diskSpace("REVIEW_EVENT"));
+
+        System.out.println();
+        summary.forEach((key, value) -> System.out.printf("%-36s %s%n", key, value));
+
+        System.out.printf("%nExtrapolated to %,d learners:%n", options.targetLearners);
+        System.out.printf("%-36s %,.0f%n", "reviews/day", reviewsPerLearnerDay * options.targetLearners);
+        System.out.printf("%-36s %,.0f%n", "rows written/day", writesPerLearnerDay * options.targetLearners);
+        System.out.printf("%-36s %,.0f%n", "user_learning_vocab rows", ulvPerLearner * options.targetLearners);
+        System.out.printf("%-36s %,.0f%n", "review_event growth rows/day", eventsPerLearnerDay * options.targetLearners);
+    }
+
+    // Chỉ có trên H2; trên Postgres dùng pg_total_relation_size
+    private String diskSpace(String table) {
+        try {
+            Long bytes = jdbcTemplate.queryForObject("SELECT DISK_SPACE_USED('" + table + "')", Long.class);
+            // H2 trong bộ nhớ luôn trả về 0
+            return bytes != null && bytes > 0 ? String.format("%,d", bytes) : "n/a";
+        } catch (RuntimeException e) {
+            return "n/a";
+        }
+    }
+
+    private static final class DayResult {
+
+        final Latencies fetch = new Latencies();
+        final Latencies submit = new Latencies();
+        long reviews;
+        long statements;
+        long rowsWritten;
+
+        double statementsPerReview() {
+            return reviews == 0 ? 0 : (double) statements / reviews;
+        }
+    }
+
+    private static final class Latencies {
+
+        private long[] samples = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        double percentile(int p) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(size - 1, Math.ceil(p / 100.0 * size) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    static final class Options {
+
+        int users = 500;
+        int topics = 5;
+        int words = 400;
+        int topicsPerUser = 2;
+        int days = 14;
+        int session = 20;
+        double activeRatio = 0.7;
+        double minAccuracy = 0.6;
+        double maxAccuracy = 0.95;
+        long targetLearners = 1_000_000;
+        long seed = 42;
+        String mode = "batch";
+        String read = "queue";
+        boolean writeBehind;
+        String dbUrl = "jdbc:h2:mem:simulation;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        String dbUser = "sa";
+        String dbPassword = "";
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (!arg.startsWith("--") || eq < 0) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                String name = arg.substring(2, eq);
+                String value = arg.substring(eq + 1);
+                switch (name) {
+                    case "users" -> options.users = Integer.parseInt(value);
+                    case "topics" -> options.topics = Integer.parseInt(value);
+                    case "words" -> options.words = Integer.parseInt(value);
+                    case "topics-per-user" -> options.topicsPerUser = Integer.parseInt(value);
+                    case "days" -> options.days = Integer.parseInt(value);
+                    case "session" -> options.session = Integer.parseInt(value);
+                    case "active-ratio" -> options.activeRatio = Double.parseDouble(value);
+                    case "min-accuracy" -> options.minAccuracy = Double.parseDouble(value);
+                    case "max-accuracy" -> options.maxAccuracy = Double.parseDouble(value);
+                    case "target-learners" -> options.targetLearners = Long.parseLong(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "mode" -> options.mode = value;
+                    case "read" -> options.read = value;
+                    case "write-behind" -> options.writeBehind = Boolean.parseBoolean(value);
+                    case "db-url" -> options.dbUrl = value;
+                    case "db-user" -> options.dbUser = value;
+                    case "db-password" -> options.dbPassword = value;
+                    default -> throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            }
+            options.topicsPerUser = Math.min(options.topicsPerUser, options.topics);
+            return options;
+        }
+
+        // Tham số dòng lệnh có độ ưu tiên cao hơn application.properties của test
+        String[] springArgs() {
+            boolean h2 = dbUrl.startsWith("jdbc:h2:");
+            return new String[] {
+                    "--spring.datasource.url=" + dbUrl,
+                    "--spring.datasource.username=" + dbUser,
+                    "--spring.datasource.password=" + dbPassword,
+                    "--spring.datasource.driver-class-name=" + (h2 ? "org.h2.Driver" : "org.postgresql.Driver"),
+                    "--spring.jpa.database-platform=" + (h2 ? "org.hibernate.dialect.H2Dialect"
+                            : "org.hibernate.dialect.PostgreSQLDialect"),
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.jpa.properties.hibernate.generate_statistics=true",
+                    "--spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                    "--spring.jpa.properties.hibernate.order_updates=true",
+                    "--spring.jpa.properties.hibernate.order_inserts=true",
+                    "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN",
+                    "--server.port=0",
+                    "--jwt.secret=c2ltdWxhdGlvbi1zZWNyZXQtc2ltdWxhdGlvbi1zZWNyZXQtc2ltdWxhdGlvbi1zZWNyZXQ=",
+                    "--jwt.expiration=86400000",
+                    "--jwt.expirationMs=86400000",
+                    "--jwt.refreshExpirationMs=604800000",
+                    "--learning.review-write-behind.enabled=" + writeBehind,
+                    "--learning.review-write-behind.journal-dir="
+                            + Paths.get(System.getProperty("java.io.tmpdir"), "review-journal-simulation")
+            };
+        }
+    }
+}